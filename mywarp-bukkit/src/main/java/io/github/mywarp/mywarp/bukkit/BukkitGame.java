@@ -29,15 +29,21 @@ import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 /**
  * The game as implemented by Bukkit.
+ *
+ * <p>Worlds are registered when they are first requested or loaded and returned from the registry until they are
+ * unregistered, so they are not looked up in Bukkit again. Unloaded worlds must therefore be unregistered.</p>
  */
 public class BukkitGame implements Game {
 
+  private final Map<UUID, LocalWorld> loadedWorlds = new ConcurrentHashMap<UUID, LocalWorld>();
   private final BukkitExecutor executor;
   private final MyWarpPlugin plugin;
 
@@ -60,16 +66,20 @@ public class BukkitGame implements Game {
   public Optional<LocalWorld> getWorld(String worldName) {
     World world = Bukkit.getWorld(worldName);
     if (world != null) {
-      return Optional.of(BukkitAdapter.adapt(world));
+      return Optional.of(register(world));
     }
     return Optional.empty();
   }
 
   @Override
   public Optional<LocalWorld> getWorld(UUID uniqueId) {
+    LocalWorld registered = loadedWorlds.get(uniqueId);
+    if (registered != null) {
+      return Optional.of(registered);
+    }
     World world = Bukkit.getWorld(uniqueId);
     if (world != null) {
-      return Optional.of(BukkitAdapter.adapt(world));
+      return Optional.of(register(world));
     }
     return Optional.empty();
   }
@@ -79,11 +89,30 @@ public class BukkitGame implements Game {
     ImmutableSet.Builder<LocalWorld> builder = ImmutableSet.builder();
 
     for (World world : Bukkit.getWorlds()) {
-      builder.add(BukkitAdapter.adapt(world));
+      builder.add(register(world));
     }
     return builder.build();
   }
 
+  /**
+   * Registers the given World, unless it is already registered.
+   *
+   * @param world the World
+   * @return the registered LocalWorld that references the World
+   */
+  LocalWorld register(World world) {
+    return loadedWorlds.computeIfAbsent(world.getUID(), uniqueId -> BukkitAdapter.adapt(world));
+  }
+
+  /**
+   * Unregisters the given World. This method must be called whenever a World is unloaded.
+   *
+   * @param world the World
+   */
+  void unregister(World world) {
+    loadedWorlds.remove(world.getUID());
+  }
+
   @Override
   public Optional<LocalPlayer> getPlayer(String name) {
     @SuppressWarnings("deprecation") Player player = Bukkit.getPlayer(name);
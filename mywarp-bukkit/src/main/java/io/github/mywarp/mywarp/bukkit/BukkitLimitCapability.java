@@ -21,11 +21,10 @@ package io.github.mywarp.mywarp.bukkit;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
-import com.google.common.collect.ImmutableSortedSet;
 
 import io.github.mywarp.mywarp.bukkit.settings.LimitBundle;
 import io.github.mywarp.mywarp.bukkit.util.permission.BukkitPermissionsRegistration;
-import io.github.mywarp.mywarp.bukkit.util.permission.ValueBundle;
+import io.github.mywarp.mywarp.bukkit.util.permission.BundleProvider;
 import io.github.mywarp.mywarp.platform.LocalPlayer;
 import io.github.mywarp.mywarp.platform.LocalWorld;
 import io.github.mywarp.mywarp.platform.capability.LimitCapability;
@@ -34,13 +33,11 @@ import io.github.mywarp.mywarp.service.limit.Limit;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.permissions.Permission;
-import org.bukkit.permissions.PermissionDefault;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.SortedSet;
 
 /**
  * Limit compatibility for the Bukkit platform. The actual Limits are stored in {@link LimitBundle}s managed by this
@@ -52,23 +49,15 @@ import java.util.SortedSet;
  */
 public class BukkitLimitCapability implements LimitCapability {
 
-  private SortedSet<LimitBundle> configuredLimits;
-  private LimitBundle defaultLimit;
+  private final BundleProvider<LimitBundle> limitProvider;
 
   /**
    * Initializes this provider.
    *
-   * @param configuredLimits the configured FeeBundles that are assigned to a player via a specific permission
-   * @param defaultLimit     the default FeeBundle that acts as a fallback if a player has none of the specific
-   *                         permissions
+   * @param limitProvider the provider of the LimitBundles that are assigned to a player via a specific permission
    */
-  BukkitLimitCapability(Iterable<LimitBundle> configuredLimits, LimitBundle defaultLimit) {
-    this.configuredLimits = ImmutableSortedSet.copyOf(configuredLimits);
-    this.defaultLimit = defaultLimit;
-
-    for (ValueBundle bundle : configuredLimits) {
-      BukkitPermissionsRegistration.INSTANCE.register(new Permission(bundle.getPermission(), PermissionDefault.FALSE));
-    }
+  BukkitLimitCapability(BundleProvider<LimitBundle> limitProvider) {
+    this.limitProvider = limitProvider;
 
     // register per-world overrides
     String base = "mywarp.limit.disobey";
@@ -90,26 +79,20 @@ public class BukkitLimitCapability implements LimitCapability {
 
   @Override
   public Limit getLimit(LocalPlayer player, LocalWorld world) {
-    for (LimitBundle bundle : configuredLimits) {
-      if (!player.hasPermission(bundle.getPermission())) {
-        continue;
-      }
+    for (LimitBundle bundle : limitProvider.getBundles(player)) {
       if (!bundle.isAffectedWorld(world.getUniqueId())) {
         continue;
       }
       return bundle;
     }
-    return defaultLimit;
+    return limitProvider.getDefaultBundle();
   }
 
   @Override
   public List<Limit> getEffectiveLimits(LocalPlayer player) {
     Builder<Limit> ret = ImmutableList.builder();
     Set<LocalWorld> worlds = new HashSet<>();
-    for (LimitBundle bundle : configuredLimits) {
-      if (!player.hasPermission(bundle.getPermission())) {
-        continue;
-      }
+    for (LimitBundle bundle : limitProvider.getBundles(player)) {
       if (worlds.containsAll(bundle.getAffectedWorlds())) {
         // the affective bundles already cover all worlds that this
         // bundle covers, so it is effectively overwritten.
@@ -120,6 +103,7 @@ public class BukkitLimitCapability implements LimitCapability {
     }
     // if there is a world that is not covered by all bundles, the default
     // bundle (always global) is needed
+    LimitBundle defaultLimit = limitProvider.getDefaultBundle();
     if (!worlds.containsAll(defaultLimit.getAffectedWorlds())) {
       ret.add(defaultLimit);
     }
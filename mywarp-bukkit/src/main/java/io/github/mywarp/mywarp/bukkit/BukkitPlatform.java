@@ -25,7 +25,9 @@ import com.google.common.collect.MutableClassToInstanceMap;
 import io.github.mywarp.mywarp.bukkit.settings.BukkitSettings;
 import io.github.mywarp.mywarp.bukkit.settings.DurationBundle;
 import io.github.mywarp.mywarp.bukkit.settings.FeeBundle;
+import io.github.mywarp.mywarp.bukkit.settings.LimitBundle;
 import io.github.mywarp.mywarp.bukkit.util.permission.BundleProvider;
+import io.github.mywarp.mywarp.bukkit.util.permission.ValueBundle;
 import io.github.mywarp.mywarp.platform.Platform;
 import io.github.mywarp.mywarp.platform.capability.EconomyCapability;
 import io.github.mywarp.mywarp.platform.capability.LimitCapability;
@@ -43,7 +45,10 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 import org.slf4j.Logger;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The platform implementation for Bukkit.
@@ -52,6 +57,12 @@ public class BukkitPlatform implements Platform {
 
   private static final Logger log = MyWarpLogger.getLogger(BukkitPlatform.class);
 
+  /**
+   * The duration after which the bundles of a player are resolved again, so that permission changes made outside of
+   * MyWarp take effect eventually.
+   */
+  private static final Duration BUNDLE_CACHE_EXPIRY = Duration.ofSeconds(30);
+
   private final MyWarpPlugin plugin;
 
   private final File dataFolder;
@@ -60,6 +71,7 @@ public class BukkitPlatform implements Platform {
   private final SquirrelIdPlayerNameResolver profileCache;
 
   private final ClassToInstanceMap<Object> registeredCapabilities = MutableClassToInstanceMap.create();
+  private final List<BundleProvider<?>> bundleProviders = new CopyOnWriteArrayList<BundleProvider<?>>();
 
   BukkitPlatform(MyWarpPlugin plugin, File dataFolder, FileConfiguration defaultConfig) {
     this.plugin = plugin;
@@ -102,9 +114,10 @@ public class BukkitPlatform implements Platform {
 
     //LimitCapability
     if (capabilityClass.isAssignableFrom(LimitCapability.class) && settings.isLimitsEnabled()) {
-      LimitCapability
-          limitCapability =
-          new BukkitLimitCapability(settings.getLimitsConfiguredLimitBundles(), settings.getLimitsDefaultLimitBundle());
+      BundleProvider<LimitBundle>
+          limitProvider =
+          createBundleProvider(settings.getLimitsConfiguredLimitBundles(), settings.getLimitsDefaultLimitBundle());
+      LimitCapability limitCapability = new BukkitLimitCapability(limitProvider);
       registeredCapabilities.putInstance(LimitCapability.class, limitCapability);
       registered = (C) limitCapability;
     }
@@ -117,7 +130,7 @@ public class BukkitPlatform implements Platform {
         if (serviceProvider != null) {
           BundleProvider<FeeBundle>
               feeProvider =
-              new BundleProvider<>(settings.getEconomyConfiguredFeeBundles(), settings.getEconomyDefaultFeeBundle());
+              createBundleProvider(settings.getEconomyConfiguredFeeBundles(), settings.getEconomyDefaultFeeBundle());
           economyCapability = new BukkitEconomyCapability(serviceProvider.getProvider(), feeProvider, settings);
         } else {
           log.error("Failed to hook into Vault (Economy is null). Economy support will not be available.");
@@ -135,9 +148,9 @@ public class BukkitPlatform implements Platform {
     //TimerCapability
     if (capabilityClass.isAssignableFrom(TimerCapability.class) && settings.isTimersEnabled()) {
       BundleProvider<DurationBundle>
-          durationProvider = new BundleProvider<>(settings.getTimersConfiguredDurationBundles(), settings
-
-              .getTimersDefaultDurationBundle());
+          durationProvider =
+          createBundleProvider(settings.getTimersConfiguredDurationBundles(),
+                               settings.getTimersDefaultDurationBundle());
       TimerCapability timerCapability = new BukkitTimerCapability(plugin, durationProvider, settings);
       registeredCapabilities.putInstance(TimerCapability.class, timerCapability);
       registered = (C) timerCapability;
@@ -156,9 +169,43 @@ public class BukkitPlatform implements Platform {
     return Optional.ofNullable(registered);
   }
 
+  /**
+   * Creates a BundleProvider that is included in {@link #getBundleProviders()}.
+   *
+   * @param configuredBundles the configured bundles checked via permission
+   * @param defaultBundle     the default bundle returned when none of the configured bundles is applicable
+   * @param <B>               the type of ValueBundle
+   * @return the created BundleProvider
+   */
+  private <B extends ValueBundle> BundleProvider<B> createBundleProvider(Iterable<B> configuredBundles,
+                                                                         B defaultBundle) {
+    BundleProvider<B> ret = new BundleProvider<B>(configuredBundles, defaultBundle, BUNDLE_CACHE_EXPIRY);
+    bundleProviders.add(ret);
+    return ret;
+  }
+
+  /**
+   * Gets all BundleProviders created for the capabilities of this platform.
+   *
+   * @return all BundleProviders
+   */
+  List<BundleProvider<?>> getBundleProviders() {
+    return bundleProviders;
+  }
+
   @Override
   public RelationalDataService createDataService(ConnectionConfiguration configuration) {
-    RelationalDataService ret = new SingleConnectionDataService(configuration);
+    RelationalDataService ret;
+    // SQLite locks the whole database and the bundled H2 whole tables on writes, so parallel workers would only wait
+    // for each other - and H2 fails writes that wait longer than its lock timeout
+    if (settings.getStoragePoolWorkers() > 1 && supportsParallelWrites(configuration)) {
+      ret =
+          new PooledDataService(configuration, settings.getStoragePoolWorkers(),
+                                Math.max(settings.getStoragePoolMaxConnections(), settings.getStoragePoolWorkers()),
+                                settings.getStoragePoolQueueSize(), settings.getStoragePoolBackpressurePolicy());
+    } else {
+      ret = new SingleConnectionDataService(configuration);
+    }
 
     //add weak reference so it can be closed on shutdown if not done by the caller
     plugin.registerClosable(ret);
@@ -171,6 +218,7 @@ public class BukkitPlatform implements Platform {
     // cleanup old stuff
     plugin.unregister();
     registeredCapabilities.clear();
+    bundleProviders.clear();
 
     // load new stuff
     settings.reload();
@@ -182,4 +230,7 @@ public class BukkitPlatform implements Platform {
     plugin.notifyWarpAvailability();
   }
 
+  private static boolean supportsParallelWrites(ConnectionConfiguration configuration) {
+    return !configuration.getDriver().equals("org.sqlite.JDBC") && !configuration.getDriver().equals("org.h2.Driver");
+  }
 }
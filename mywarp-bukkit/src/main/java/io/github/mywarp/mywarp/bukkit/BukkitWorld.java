@@ -43,6 +43,7 @@ import javax.annotation.Nullable;
 public class BukkitWorld implements LocalWorld {
 
   private final UUID worldIdentifier;
+  private final String name;
 
   /**
    * Creates an instance that references the given World.
@@ -51,11 +52,13 @@ public class BukkitWorld implements LocalWorld {
    */
   BukkitWorld(World world) {
     this.worldIdentifier = world.getUID();
+    // the name of a world cannot change while it is loaded
+    this.name = world.getName();
   }
 
   @Override
   public String getName() {
-    return getLoadedWorld().getName();
+    return name;
   }
 
   @Override
@@ -36,6 +36,7 @@ import io.github.mywarp.mywarp.warp.event.WarpAdditionEvent;
 import io.github.mywarp.mywarp.warp.event.WarpDeletionEvent;
 import io.github.mywarp.mywarp.warp.event.WarpEvent;
 import io.github.mywarp.mywarp.warp.event.WarpUpdateEvent;
+import io.github.mywarp.mywarp.warp.event.WarpsAdditionEvent;
 
 import org.bukkit.plugin.Plugin;
 import org.dynmap.DynmapCommonAPI;
@@ -161,6 +162,18 @@ public class DynmapMarker {
     addMarker(event.getWarp());
   }
 
+  /**
+   * Called when multiple Warps are added at once.
+   *
+   * @param event the event
+   * @deprecated will be privatized once support for old Guava versions is removed
+   */
+  @Deprecated
+  @Subscribe
+  public void onWarpsAddition(WarpsAdditionEvent event) {
+    addMarker(event.getWarps());
+  }
+
   /**
    * Called when a Warp is deleted.
    *
@@ -30,16 +30,19 @@ import io.github.mywarp.mywarp.bukkit.settings.BukkitSettings;
 import io.github.mywarp.mywarp.bukkit.util.conversation.AcceptancePromptFactory;
 import io.github.mywarp.mywarp.bukkit.util.conversation.WelcomeEditorFactory;
 import io.github.mywarp.mywarp.bukkit.util.permission.BukkitPermissionsRegistration;
+import io.github.mywarp.mywarp.bukkit.util.permission.group.CachingGroupResolver;
 import io.github.mywarp.mywarp.bukkit.util.permission.group.GroupResolver;
 import io.github.mywarp.mywarp.bukkit.util.permission.group.GroupResolverFactory;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.LocalPlayer;
 import io.github.mywarp.mywarp.platform.LocalWorld;
 import io.github.mywarp.mywarp.util.MyWarpLogger;
+import io.github.mywarp.mywarp.util.PlayerCache;
 import io.github.mywarp.mywarp.util.i18n.DynamicMessages;
 import io.github.mywarp.mywarp.util.i18n.FolderSourcedControl;
 import io.github.mywarp.mywarp.util.i18n.LocaleManager;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 import io.github.mywarp.mywarp.warp.storage.StorageInitializationException;
 
 import org.apache.commons.lang.text.StrBuilder;
@@ -63,6 +66,8 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -92,6 +97,8 @@ public final class MyWarpPlugin extends JavaPlugin {
   private AcceptancePromptFactory acceptancePromptFactory;
   private WelcomeEditorFactory welcomeEditorFactory;
 
+  @Nullable
+  private CachingGroupResolver groupCache;
   @Nullable
   private DynmapMarker marker;
 
@@ -141,6 +148,10 @@ public final class MyWarpPlugin extends JavaPlugin {
   public void onDisable() {
     unregister();
 
+    if (myWarp != null) {
+      myWarp.close();
+    }
+
     //close any registered Closables
     for (Closeable closeable : closeables) {
       try {
@@ -159,17 +170,45 @@ public final class MyWarpPlugin extends JavaPlugin {
     //register profile service listener
     getProfileCache().registerEvents(this);
 
+    //setup a fresh group cache, so reloading refreshes the groups of all players
+    Duration groupCacheExpiry = getSettings().getGroupCacheExpiry();
+    groupCache = groupCacheExpiry.isZero() ? null : new CachingGroupResolver(groupResolver, groupCacheExpiry);
+
+    //register one listener that invalidates every per-player cache together, layers below before those above them
+    List<PlayerCache> caches = new ArrayList<>();
+    if (groupCache != null) {
+      caches.add(groupCache);
+    }
+    caches.addAll(platform.getBundleProviders());
+    caches.add(myWarp.getWorldAccessCache());
+    caches.add(myWarp.getAuthorizationCache());
+    new PlayerCacheListener(this, caches).registerEvents(this);
+
     //register warp sign listener
     if (getSettings().isWarpSignsEnabled()) {
       new WarpSignListener(this, myWarp.createWarpSignHandler()).registerEvents(this);
     }
 
-    // register world access permissions
+    // register world access permissions, worlds loaded later are handled by the listener
+    new WorldRegistryListener(platform.getGame(), myWarp.getWorldAccessCache()).registerEvents(this);
     for (World loadedWorld : Bukkit.getWorlds()) {
-      Permission perm = new Permission("mywarp.world-access." + loadedWorld.getName());
-      perm.addParent("mywarp.world-access.*", true);
-      BukkitPermissionsRegistration.INSTANCE.register(perm);
+      registerWorldAccessPermission(loadedWorld);
+    }
+  }
+
+  /**
+   * Registers the permission that grants access to the given world, unless it is already registered.
+   *
+   * @param world the world
+   */
+  static void registerWorldAccessPermission(World world) {
+    String name = "mywarp.world-access." + world.getName();
+    if (Bukkit.getPluginManager().getPermission(name) != null) {
+      return;
     }
+    Permission perm = new Permission(name);
+    perm.addParent("mywarp.world-access.*", true);
+    BukkitPermissionsRegistration.INSTANCE.register(perm);
   }
 
   /**
@@ -181,7 +220,7 @@ public final class MyWarpPlugin extends JavaPlugin {
       Plugin dynmap = getServer().getPluginManager().getPlugin("dynmap");
       if (dynmap != null && dynmap.isEnabled() && dynmap instanceof DynmapCommonAPI) {
         marker = new DynmapMarker((DynmapCommonAPI) dynmap, this, platform, w -> w.isType(Warp.Type.PUBLIC));
-        marker.addMarker(myWarp.getWarpManager().getAll(warp -> true));
+        marker.addMarker(myWarp.getWarpManager().getAll(WarpQuery.all()));
         myWarp.getEventBus().register(marker);
       } else {
         log.error("Failed to hook into Dynmap. Disabling Dynmap support.");
@@ -251,11 +290,14 @@ public final class MyWarpPlugin extends JavaPlugin {
   /**
    * Gets the GroupResolver that resolve's a player's group.
    *
+   * <p>If group caching is enabled, the returned GroupResolver caches the results of the resolver that was set up for
+   * the server's permission plugin.</p>
+   *
    * @return the configured GroupResolver
    */
   GroupResolver getGroupResolver() {
     checkState(groupResolver != null, "'groupResolver' is not yet initialized");
-    return groupResolver;
+    return groupCache != null ? groupCache : groupResolver;
   }
 
   /**
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.bukkit;
+
+import io.github.mywarp.mywarp.bukkit.util.AbstractListener;
+import io.github.mywarp.mywarp.platform.LocalPlayer;
+import io.github.mywarp.mywarp.util.PlayerCache;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Notifies all registered {@link PlayerCache}s whenever a player joins, leaves or changes the world. As permission
+ * plugins may grant per-world permissions and groups, caches derived from them are dropped on every world change.
+ *
+ * <p>Caches are notified in the order of the given list. Caches whose values are derived from other caches must come
+ * after them, otherwise a cache that is refilled between two notifications may be based on values that are about to
+ * be dropped.</p>
+ */
+class PlayerCacheListener extends AbstractListener {
+
+  private final MyWarpPlugin plugin;
+  private final List<PlayerCache> caches;
+
+  /**
+   * Initializes this listener.
+   *
+   * @param plugin the running plugin instance
+   * @param caches the caches to notify
+   */
+  PlayerCacheListener(MyWarpPlugin plugin, List<PlayerCache> caches) {
+    this.plugin = plugin;
+    this.caches = caches;
+  }
+
+  /**
+   * Called whenever a player joins the server.
+   *
+   * @param event the event
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerJoin(PlayerJoinEvent event) {
+    LocalPlayer player = plugin.wrap(event.getPlayer());
+    for (PlayerCache cache : caches) {
+      cache.load(player);
+    }
+  }
+
+  /**
+   * Called whenever a player leaves the server.
+   *
+   * @param event the event
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    invalidate(event.getPlayer().getUniqueId());
+  }
+
+  /**
+   * Called whenever a player changes the world.
+   *
+   * @param event the event
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+    invalidate(event.getPlayer().getUniqueId());
+  }
+
+  private void invalidate(UUID uniqueId) {
+    for (PlayerCache cache : caches) {
+      cache.invalidate(uniqueId);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.bukkit;
+
+import io.github.mywarp.mywarp.bukkit.util.jdbc.DataSourceFactory;
+import io.github.mywarp.mywarp.bukkit.util.jdbc.PooledDataSource;
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+import io.github.mywarp.mywarp.warp.storage.ConnectionConfiguration;
+import io.github.mywarp.mywarp.warp.storage.RelationalDataService;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+/**
+ * An {@link RelationalDataService} that uses a {@link PooledDataSource} and executes database calls on multiple
+ * workers. Calls submitted for the same key, typically the name of a warp, are always executed by the same worker in
+ * the order of submission, while calls for different keys may be executed in parallel.
+ */
+public class PooledDataService implements RelationalDataService {
+
+  private static final Logger log = MyWarpLogger.getLogger(PooledDataService.class);
+
+  private final ConnectionConfiguration config;
+  private final int maxConnections;
+  private final StripedExecutorService executorService;
+
+  @Nullable
+  private volatile PooledDataSource dataSource;
+
+  /**
+   * Creates an instance that uses the given {@code config}.
+   *
+   * @param config             the config
+   * @param workers            the number of workers that execute database calls
+   * @param maxConnections     the maximum number of connections held at once
+   * @param queueSize          the maximum number of calls queued for a single worker
+   * @param backpressurePolicy the policy that handles calls submitted while the queue of a worker is full
+   * @throws IllegalArgumentException if {@code workers} or {@code queueSize} is smaller than one
+   */
+  PooledDataService(ConnectionConfiguration config, int workers, int maxConnections, int queueSize,
+                    StripedExecutorService.BackpressurePolicy backpressurePolicy) {
+    this.config = config;
+    this.maxConnections = maxConnections;
+    this.executorService = new StripedExecutorService(workers, queueSize, backpressurePolicy);
+  }
+
+  @Override
+  public synchronized DataSource getDataSource() throws SQLException {
+    PooledDataSource dataSource = this.dataSource;
+    if (dataSource == null) {
+      dataSource = DataSourceFactory.createPooledDataSource(config, maxConnections);
+      this.dataSource = dataSource;
+    }
+    return dataSource;
+  }
+
+  @Override
+  public ExecutorService getExecutorService() {
+    return executorService;
+  }
+
+  @Override
+  public Executor getExecutor(Object key) {
+    return executorService.getExecutor(key);
+  }
+
+  @Override
+  public CompletableFuture<Void> executeAfterPending(Runnable task) {
+    return executorService.barrier().thenRunAsync(task, executorService);
+  }
+
+  /**
+   * Initiates an shutdown that closes the {@code ExecutorService} and the {@code DataSource}, blocking until either all
+   * remaining tasks are executed or 30 seconds have passed or the thread is interrupted.
+   */
+  @Override
+  public void close() {
+    executorService.shutdown();
+
+    try {
+      if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+        List<Runnable> droppedTasks = executorService.shutdownNow();
+        log.warn("SQL executor did not terminate within 30 seconds and is terminated. {} tasks will not be "
+                 + "executed, recent changes may be missing in the database.", droppedTasks.size());
+      }
+    } catch (InterruptedException e) {
+      log.error("Failed to terminate SQL executor as the process was interrupted.", e);
+    }
+
+    PooledDataSource dataSource = this.dataSource;
+    if (dataSource != null) {
+      try {
+        dataSource.close();
+      } catch (IOException e) {
+        log.warn("Failed to close data source", e);
+      }
+    }
+  }
+}
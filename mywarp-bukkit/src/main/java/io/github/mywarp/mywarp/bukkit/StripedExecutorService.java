@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.bukkit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link java.util.concurrent.ExecutorService} that distributes tasks among a fixed number of workers that each
+ * execute their tasks sequentially. Tasks submitted via {@link #getExecutor(Object)} for equal keys are always executed
+ * by the same worker and thus in the order of submission, while tasks for different keys may run in parallel. Tasks
+ * submitted directly are distributed among all workers, {@link #barrier()} allows to wait for the tasks of all
+ * workers.
+ *
+ * <p>The queue of every worker is bounded. Once a queue is full, the {@link BackpressurePolicy} decides how further
+ * tasks are handled.</p>
+ */
+public class StripedExecutorService extends AbstractExecutorService {
+
+  private final List<ThreadPoolExecutor> stripes;
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * Creates an instance.
+   *
+   * @param workers   the number of workers
+   * @param queueSize the maximum number of tasks queued for a single worker
+   * @param policy    the policy that handles tasks submitted while the queue of the responsible worker is full
+   * @throws IllegalArgumentException if {@code workers} or {@code queueSize} is smaller than one
+   */
+  StripedExecutorService(int workers, int queueSize, BackpressurePolicy policy) {
+    checkArgument(workers > 0, "'workers' must be at least one.");
+    checkArgument(queueSize > 0, "'queueSize' must be at least one.");
+
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("MyWarp Storage Worker #%d").build();
+    stripes = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      stripes.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                                         threadFactory, policy.handler));
+    }
+  }
+
+  /**
+   * Gets the {@code Executor} responsible for the given {@code key}. The returned {@code Executor} executes all tasks
+   * sequentially in the order of submission.
+   *
+   * @param key the key
+   * @return the {@code Executor} responsible for {@code key}
+   */
+  Executor getExecutor(Object key) {
+    return stripes.get(Math.floorMod(key.hashCode(), stripes.size()));
+  }
+
+  /**
+   * Returns a future that completes once every worker has executed all tasks that have been submitted to it before
+   * this method was called.
+   *
+   * @return a future that completes once all previously submitted tasks have been executed
+   */
+  CompletableFuture<Void> barrier() {
+    CompletableFuture<?>[] workers = new CompletableFuture<?>[stripes.size()];
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = CompletableFuture.runAsync(() -> {
+      }, stripes.get(i));
+    }
+    return CompletableFuture.allOf(workers);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    stripes.get(Math.floorMod(next.getAndIncrement(), stripes.size())).execute(command);
+  }
+
+  @Override
+  public void shutdown() {
+    stripes.forEach(ThreadPoolExecutor::shutdown);
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> ret = new ArrayList<>();
+    for (ThreadPoolExecutor stripe : stripes) {
+      ret.addAll(stripe.shutdownNow());
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return stripes.stream().allMatch(ThreadPoolExecutor::isShutdown);
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return stripes.stream().allMatch(ThreadPoolExecutor::isTerminated);
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ThreadPoolExecutor stripe : stripes) {
+      if (!stripe.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The policies that handle tasks submitted while the queue of the responsible worker is full.
+   */
+  public enum BackpressurePolicy {
+    /**
+     * Blocks the submitting thread until the queue has space again. If tasks are submitted from the server's main
+     * thread, the server stalls until the database catches up.
+     */
+    BLOCK((task, executor) -> {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor has been shut down.");
+      }
+      try {
+        executor.getQueue().put(task);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException("Interrupted while waiting for space in the queue.", e);
+      }
+    }),
+    /**
+     * Executes the task in the submitting thread. As the task overtakes the tasks that are still queued, tasks of the
+     * same key are no longer guaranteed to be executed in the order of submission.
+     */
+    CALLER_RUNS(new ThreadPoolExecutor.CallerRunsPolicy()),
+    /**
+     * Rejects the task by throwing a {@link RejectedExecutionException}.
+     */
+    ABORT(new ThreadPoolExecutor.AbortPolicy());
+
+    private final RejectedExecutionHandler handler;
+
+    BackpressurePolicy(RejectedExecutionHandler handler) {
+      this.handler = handler;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.bukkit;
+
+import io.github.mywarp.mywarp.bukkit.util.AbstractListener;
+import io.github.mywarp.mywarp.warp.authorization.WorldAccessAuthorizationStrategy;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the worlds registered in a {@link BukkitGame} and the world access permissions cached by a {@link
+ * WorldAccessAuthorizationStrategy} in sync with the worlds loaded by Bukkit.
+ */
+class WorldRegistryListener extends AbstractListener {
+
+  private final BukkitGame game;
+  private final WorldAccessAuthorizationStrategy worldAccessCache;
+
+  /**
+   * Initializes this listener.
+   *
+   * @param game             the game whose worlds are kept in sync
+   * @param worldAccessCache the cache of world access permissions to invalidate when a world is unloaded
+   */
+  WorldRegistryListener(BukkitGame game, WorldAccessAuthorizationStrategy worldAccessCache) {
+    this.game = game;
+    this.worldAccessCache = worldAccessCache;
+  }
+
+  /**
+   * Called whenever a world is loaded.
+   *
+   * @param event the event
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onWorldLoad(WorldLoadEvent event) {
+    game.register(event.getWorld());
+    MyWarpPlugin.registerWorldAccessPermission(event.getWorld());
+  }
+
+  /**
+   * Called whenever a world is unloaded.
+   *
+   * @param event the event
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onWorldUnload(WorldUnloadEvent event) {
+    game.unregister(event.getWorld());
+    worldAccessCache.invalidateWorld(event.getWorld().getUID());
+  }
+}
@@ -21,6 +21,7 @@ package io.github.mywarp.mywarp.bukkit.settings;
 
 import com.google.common.collect.ImmutableSet;
 
+import io.github.mywarp.mywarp.bukkit.StripedExecutorService;
 import io.github.mywarp.mywarp.platform.Settings;
 import io.github.mywarp.mywarp.util.MyWarpLogger;
 import io.github.mywarp.mywarp.warp.storage.ConnectionConfiguration;
@@ -34,6 +35,7 @@ import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -132,6 +134,15 @@ public class BukkitSettings implements Settings {
     return config.getBoolean("settings.teleportHorses");
   }
 
+  /**
+   * Gets the duration for which group memberships of a player are cached. A duration of zero disables the cache.
+   *
+   * @return the duration group memberships are cached
+   */
+  public Duration getGroupCacheExpiry() {
+    return Duration.ofSeconds(config.getLong("settings.groupCacheExpiry"));
+  }
+
   @Override
   public Locale getLocalizationDefaultLocale() {
     return defaultLocale;
@@ -325,6 +336,80 @@ public class BukkitSettings implements Settings {
     return config;
   }
 
+  @Override
+  public boolean isStorageWriteBehindEnabled() {
+    return config.getBoolean("storage.writeBehind.enabled");
+  }
+
+  @Override
+  public Duration getStorageWriteBehindFlushInterval() {
+    return Duration.ofSeconds(config.getLong("storage.writeBehind.flushInterval"));
+  }
+
+  @Override
+  public int getStorageWriteBehindFlushThreshold() {
+    return config.getInt("storage.writeBehind.flushThreshold");
+  }
+
+  @Override
+  public Duration getStorageVisitsFlushInterval() {
+    return Duration.ofSeconds(config.getLong("storage.visits.flushInterval"));
+  }
+
+  @Override
+  public boolean isStorageJournalEnabled() {
+    return config.getBoolean("storage.journal.enabled");
+  }
+
+  @Override
+  public boolean isStorageMetricsEnabled() {
+    return config.getBoolean("storage.metrics.enabled");
+  }
+
+  @Override
+  public Duration getStorageMetricsReportInterval() {
+    return Duration.ofSeconds(config.getLong("storage.metrics.reportInterval"));
+  }
+
+  /**
+   * Gets the number of workers that execute calls to the relational database. If this value is greater than one,
+   * database calls of different warps may be executed in parallel. SQLite and H2 always use a single worker.
+   *
+   * @return the number of workers
+   */
+  public int getStoragePoolWorkers() {
+    return config.getInt("storage.pool.workers");
+  }
+
+  /**
+   * Gets the maximum number of connections to the relational database that are held at once.
+   *
+   * @return the maximum number of connections
+   */
+  public int getStoragePoolMaxConnections() {
+    return config.getInt("storage.pool.maxConnections");
+  }
+
+  /**
+   * Gets the maximum number of database calls that may be queued for a single worker.
+   *
+   * @return the maximum number of queued calls per worker
+   */
+  public int getStoragePoolQueueSize() {
+    return config.getInt("storage.pool.queueSize");
+  }
+
+  /**
+   * Gets the policy that handles database calls submitted while the queue of the responsible worker is full.
+   *
+   * @return the backpressure policy
+   * @throws IllegalArgumentException if the configured value does not name a policy
+   */
+  public StripedExecutorService.BackpressurePolicy getStoragePoolBackpressurePolicy() {
+    return StripedExecutorService.BackpressurePolicy
+        .valueOf(config.getString("storage.pool.backpressure").toUpperCase(Locale.ROOT));
+  }
+
   @Override
   public boolean isInformPlayerOnInvitation() {
     return config.getBoolean("settings.informPlayersOnInvitation");
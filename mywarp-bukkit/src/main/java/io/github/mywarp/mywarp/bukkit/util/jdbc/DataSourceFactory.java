@@ -40,15 +40,28 @@ public final class DataSourceFactory {
    * @return a new {@code SingleConnectionDataSource}
    */
   public static SingleConnectionDataSource createSingleConnectionDataSource(ConnectionConfiguration config) {
-    Properties properties = new Properties();
+    return new SingleConnectionDataSource(config.getUrl(), createProperties(config), driverSupportsIsValid(config));
+  }
+
+  /**
+   * Creates a new {@code PooledDataSource} with the given {@code config} that holds up to {@code maxConnections}
+   * connections at once.
+   *
+   * @param config         the config of the relational database
+   * @param maxConnections the maximum number of connections
+   * @return a new {@code PooledDataSource}
+   * @throws IllegalArgumentException if {@code maxConnections} is smaller than one
+   */
+  public static PooledDataSource createPooledDataSource(ConnectionConfiguration config, int maxConnections) {
+    return new PooledDataSource(config.getUrl(), createProperties(config), driverSupportsIsValid(config),
+                                maxConnections);
+  }
 
-    boolean driverSupportsIsValid = true;
+  private static Properties createProperties(ConnectionConfiguration config) {
+    Properties properties = new Properties();
 
     if (config.getDriver().equals("org.sqlite.JDBC")) {
       properties.setProperty("foreign_keys", "on");
-
-      //CraftBukkit bundles SQLite 3.7.2 witch does not yet implement Connection#isValid(int)
-      driverSupportsIsValid = false;
     } else if (config.getDriver().equals("org.h2.Driver")) {
       try {
         Class.forName("org.h2.Driver");
@@ -58,12 +71,21 @@ public final class DataSourceFactory {
       }
       properties.setProperty("user", config.getUser());
       properties.setProperty("password", config.getPassword());
+    } else if (config.getDriver().equals("com.mysql.jdbc.Driver")) {
+      properties.setProperty("user", config.getUser());
+      properties.setProperty("password", config.getPassword());
+      //prepared statements are reused, so let the server parse them only once
+      properties.setProperty("useServerPrepStmts", "true");
     } else {
       properties.setProperty("user", config.getUser());
       properties.setProperty("password", config.getPassword());
     }
+    return properties;
+  }
 
-    return new SingleConnectionDataSource(config.getUrl(), properties, driverSupportsIsValid);
+  private static boolean driverSupportsIsValid(ConnectionConfiguration config) {
+    //CraftBukkit bundles SQLite 3.7.2 witch does not yet implement Connection#isValid(int)
+    return !config.getDriver().equals("org.sqlite.JDBC");
   }
 
 }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.bukkit.util.jdbc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@link DataSource} implementation that maintains a bounded pool of {@link Connection}s. {@code Connection}s
+ * returned by this {@code DataSource} are actually wrappers around pooled {@code Connection}s that return the pooled
+ * {@code Connection} to the pool when closed. Every pooled {@code Connection} is always handed out with the same
+ * wrapper, so callers may associate resources such as prepared statements with it.
+ *
+ * <p>If all {@code Connection}s are in use, {@link #getConnection()} blocks until a {@code Connection} is returned to
+ * the pool or the acquire timeout is exceeded.</p>
+ *
+ * <p>This class is threadsafe.</p>
+ */
+public class PooledDataSource implements DataSource, Closeable {
+
+  private static final org.slf4j.Logger log = MyWarpLogger.getLogger(PooledDataSource.class);
+
+  private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+  private final String url;
+  private final boolean driverSupportsIsValid;
+  private final Properties properties;
+
+  private final Semaphore permits;
+  private final BlockingQueue<ReturningInvocationHandler> idleConnections = new LinkedBlockingQueue<>();
+
+  private volatile boolean closed;
+
+  /**
+   * Creates a new instance that connects to a database using the given {@code url} and {@code properties} and holds
+   * up to {@code maxConnections} connections at once.
+   *
+   * @param url                   the database url
+   * @param properties            the properties used to connect with the database
+   * @param driverSupportsIsValid whether the driver used to connect with the given URL implements {@link
+   *                              Connection#isValid(int)}
+   * @param maxConnections        the maximum number of connections
+   * @throws IllegalArgumentException if {@code maxConnections} is smaller than one
+   * @see DriverManager#getConnection(String, Properties)
+   */
+  PooledDataSource(String url, Properties properties, boolean driverSupportsIsValid, int maxConnections) {
+    checkArgument(maxConnections > 0, "'maxConnections' must be at least one.");
+    this.url = url;
+    this.properties = properties;
+    this.driverSupportsIsValid = driverSupportsIsValid;
+    this.permits = new Semaphore(maxConnections, true);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException("PooledDataSource has been closed.");
+    }
+    try {
+      if (!permits.tryAcquire(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        throw new SQLException("Failed to acquire a connection within " + ACQUIRE_TIMEOUT_SECONDS
+                               + " seconds, all connections are in use.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a connection.", e);
+    }
+
+    try {
+      ReturningInvocationHandler handler = idleConnections.poll();
+      while (handler != null && !isValid(handler.target)) {
+        log.debug("Pooled connection is invalid and will be discarded.");
+        closeQuietly(handler.target);
+        handler = idleConnections.poll();
+      }
+      if (handler == null) {
+        log.debug("Connecting to {} with properties {},", url, properties);
+        handler = new ReturningInvocationHandler(DriverManager.getConnection(url, properties));
+      }
+      return handler.checkout();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLException(
+        "PooledDataSource does not support retrieving of connections with custom username and password.");
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return 0;
+  }
+
+  @Override
+  public void setLoginTimeout(int timeout) throws SQLException {
+    throw new UnsupportedOperationException("setLoginTimeout");
+  }
+
+  @Override
+  public PrintWriter getLogWriter() {
+    throw new UnsupportedOperationException("getLogWriter");
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter pw) throws SQLException {
+    throw new UnsupportedOperationException("setLogWriter");
+  }
+
+  /**
+   * This method was added to {@link javax.sql.CommonDataSource} in Java7 and is implemented for compatibility. Calling
+   * it immediately and always throws a {@link SQLFeatureNotSupportedException}.
+   *
+   * @return nothing
+   * @throws SQLFeatureNotSupportedException always
+   */
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return (T) this;
+    }
+    throw new SQLException(
+        "DataSource of type [" + getClass().getName() + "] cannot be unwrapped as [" + iface.getName() + "]");
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this);
+  }
+
+  /**
+   * Closes all idle {@code Connection}s. {@code Connection}s that are currently in use are closed once they are
+   * returned to the pool.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+
+    SQLException exception = null;
+    ReturningInvocationHandler handler;
+    while ((handler = idleConnections.poll()) != null) {
+      try {
+        handler.target.close();
+      } catch (SQLException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw new IOException("Failed to close DataSource", exception);
+    }
+  }
+
+  /**
+   * Returns the {@code Connection} handled by the given {@code handler} to the pool.
+   *
+   * @param handler the handler of the {@code Connection} to return
+   */
+  private void release(ReturningInvocationHandler handler) {
+    Connection target = handler.target;
+    try {
+      if (closed || target.isClosed()) {
+        closeQuietly(target);
+        return;
+      }
+      if (!target.getAutoCommit()) {
+        // never hand out a connection with an unfinished transaction
+        target.rollback();
+        target.setAutoCommit(true);
+      }
+      idleConnections.add(handler);
+    } catch (SQLException e) {
+      log.debug("Failed to reset a pooled connection, it will be discarded.", e);
+      closeQuietly(target);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private boolean isValid(Connection conn) throws SQLException {
+    if (conn.isClosed()) {
+      return false;
+    }
+
+    if (driverSupportsIsValid) {
+      return conn.isValid(5);
+    }
+
+    Statement statement = conn.createStatement();
+    try {
+      return statement.execute("select 1");
+    } finally {
+      statement.close();
+    }
+  }
+
+  private void closeQuietly(Connection target) {
+    try {
+      target.close();
+    } catch (SQLException e) {
+      log.debug("Failed to close a pooled connection.", e);
+    }
+  }
+
+  /**
+   * Invocation handler that returns JDBC Connections to the pool when they are closed. Each instance wraps its {@code
+   * Connection} in a single proxy that delegates every method call, but returns the {@code Connection} to the pool
+   * instead of closing it.
+   */
+  private class ReturningInvocationHandler implements InvocationHandler {
+
+    private final Connection target;
+    private final Connection proxy;
+    private boolean returned = true;
+
+    /**
+     * Creates an instance that works on the given {@code Connection}.
+     *
+     * @param target the {@code Connection}
+     */
+    ReturningInvocationHandler(Connection target) {
+      this.target = target;
+      this.proxy =
+          (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                                              this);
+    }
+
+    /**
+     * Marks the {@code Connection} as in use and gets the proxy that wraps it.
+     *
+     * @return the proxy
+     */
+    synchronized Connection checkout() {
+      returned = false;
+      return proxy;
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      // Invocation on ConnectionProxy interface coming in...
+
+      if (method.getName().equals("equals")) {
+        // Only consider equal when proxies are identical.
+        return (proxy == args[0]);
+      } else if (method.getName().equals("hashCode")) {
+        // Use hashCode of Connection proxy.
+        return System.identityHashCode(proxy);
+      } else if (method.getName().equals("unwrap")) {
+        if (((Class<?>) args[0]).isInstance(proxy)) {
+          return proxy;
+        }
+      } else if (method.getName().equals("isWrapperFor")) {
+        if (((Class<?>) args[0]).isInstance(proxy)) {
+          return true;
+        }
+      } else if (method.getName().equals("close")) {
+        // Handle close method: return the connection to the pool, but only once.
+        if (!returned) {
+          returned = true;
+          release(this);
+        }
+        return null;
+      } else if (method.getName().equals("isClosed")) {
+        return returned;
+      }
+
+      if (returned) {
+        throw new SQLException("Connection has already been returned to the pool.");
+      }
+
+      // Invoke method on target Connection.
+      try {
+        return method.invoke(this.target, args);
+      } catch (InvocationTargetException ex) {
+        throw ex.getTargetException();
+      }
+    }
+  }
+}
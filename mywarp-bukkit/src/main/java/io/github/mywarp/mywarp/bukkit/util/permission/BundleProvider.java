@@ -19,14 +19,19 @@
 
 package io.github.mywarp.mywarp.bukkit.util.permission;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedSet;
 
 import io.github.mywarp.mywarp.platform.LocalPlayer;
+import io.github.mywarp.mywarp.util.ExpiringPlayerCache;
+import io.github.mywarp.mywarp.util.PlayerCache;
 
 import org.bukkit.permissions.Permission;
 import org.bukkit.permissions.PermissionDefault;
 
+import java.time.Duration;
 import java.util.SortedSet;
+import java.util.UUID;
 
 /**
  * Provides a managed access to {@link ValueBundle}s.
@@ -36,22 +41,29 @@ import java.util.SortedSet;
  * bundle for which the player has the permission. If he does not have a permission for any bundle, the default one is
  * returned.</p>
  *
+ * <p>The custom bundles a player has the permission for are resolved once and cached until they reach the given
+ * expiry. As a {@link PlayerCache}, the provider resolves the bundles of a player ahead of time when the player joins
+ * and drops them whenever the platform notices that the player's permissions are likely to change.</p>
+ *
  * @param <B> the type of ValueBundle this provider provides
  */
-public class BundleProvider<B extends ValueBundle> {
+public class BundleProvider<B extends ValueBundle> implements PlayerCache {
 
-  private SortedSet<B> configuredBundles;
-  private B defaultBundle;
+  private final ExpiringPlayerCache<ImmutableList<B>> playerBundles;
+  private final SortedSet<B> configuredBundles;
+  private final B defaultBundle;
 
   /**
    * Creates an instance.
    *
    * @param configuredBundles the configured bundles checked via permission
    * @param defaultBundle     the default bundle returned when none of the configured bundles is applicable
+   * @param expiry            the duration after which the bundles of a player are resolved again
    */
-  public BundleProvider(Iterable<B> configuredBundles, B defaultBundle) {
+  public BundleProvider(Iterable<B> configuredBundles, B defaultBundle, Duration expiry) {
     this.configuredBundles = ImmutableSortedSet.copyOf(configuredBundles);
     this.defaultBundle = defaultBundle;
+    this.playerBundles = new ExpiringPlayerCache<ImmutableList<B>>(expiry);
 
     for (B bundle : configuredBundles) {
       BukkitPermissionsRegistration.INSTANCE.register(new Permission(bundle.getPermission(), PermissionDefault.FALSE));
@@ -65,12 +77,52 @@ public class BundleProvider<B extends ValueBundle> {
    * @return the applicable bundle
    */
   public B getBundle(LocalPlayer player) {
+    ImmutableList<B> bundles = getBundles(player);
+    return bundles.isEmpty() ? defaultBundle : bundles.get(0);
+  }
+
+  /**
+   * Gets all configured bundles the given {@code player} has the permission for, in the order defined for
+   * ValueBundles. The default bundle is not included.
+   *
+   * @param player the player for whom the bundles are requested
+   * @return all configured bundles of the player
+   */
+  public ImmutableList<B> getBundles(LocalPlayer player) {
+    return playerBundles.get(player.getUniqueId(), () -> resolveBundles(player));
+  }
+
+  /**
+   * Gets the default bundle that is applicable if a player has the permission for none of the configured bundles.
+   *
+   * @return the default bundle
+   */
+  public B getDefaultBundle() {
+    return defaultBundle;
+  }
+
+  @Override
+  public void load(LocalPlayer player) {
+    playerBundles.put(player.getUniqueId(), resolveBundles(player));
+  }
+
+  @Override
+  public void invalidate(UUID uniqueId) {
+    playerBundles.invalidate(uniqueId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    playerBundles.invalidateAll();
+  }
+
+  private ImmutableList<B> resolveBundles(LocalPlayer player) {
+    ImmutableList.Builder<B> builder = ImmutableList.builder();
     for (B bundle : configuredBundles) {
       if (player.hasPermission(bundle.getPermission())) {
-        return bundle;
+        builder.add(bundle);
       }
     }
-    return defaultBundle;
+    return builder.build();
   }
-
 }
@@ -26,6 +26,7 @@ public abstract class ValueBundle implements Comparable<ValueBundle> {
 
   private final String identifier;
   private final String basePermission;
+  private final String permission;
 
   /**
    * Creates an instance.
@@ -36,6 +37,7 @@ public abstract class ValueBundle implements Comparable<ValueBundle> {
   protected ValueBundle(String identifier, String basePermission) {
     this.identifier = identifier;
     this.basePermission = basePermission.intern();
+    this.permission = this.basePermission + "." + identifier;
   }
 
   /**
@@ -44,7 +46,7 @@ public abstract class ValueBundle implements Comparable<ValueBundle> {
    * @return the full permission of this bundle
    */
   public String getPermission() {
-    return basePermission + "." + identifier;
+    return permission;
   }
 
   @Override
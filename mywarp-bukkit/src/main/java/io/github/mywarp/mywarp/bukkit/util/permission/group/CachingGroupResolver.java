@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.bukkit.util.permission.group;
+
+import io.github.mywarp.mywarp.util.ExpiringPlayerCache;
+import io.github.mywarp.mywarp.util.PlayerCache;
+
+import org.bukkit.entity.Player;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches, per player, the group memberships resolved by the delegate.
+ *
+ * <p>Each membership is resolved by the delegate at most once per caching period of a player, further lookups are
+ * plain map lookups. A period ends once it reaches the given expiry or when the platform notifies this cache as a
+ * {@link PlayerCache}, as changes made by permission plugins are not visible to MyWarp. Instances are
+ * thread-safe.</p>
+ */
+public class CachingGroupResolver implements GroupResolver, PlayerCache {
+
+  private final ExpiringPlayerCache<Map<String, Boolean>> memberships;
+  private final GroupResolver delegate;
+
+  /**
+   * Creates an instance that caches results of the given {@code delegate} for at most the given {@code expiry}.
+   *
+   * @param delegate the resolver whose results are cached
+   * @param expiry   the duration after which all results of a player are dropped
+   */
+  public CachingGroupResolver(GroupResolver delegate, Duration expiry) {
+    this.delegate = delegate;
+    this.memberships = new ExpiringPlayerCache<Map<String, Boolean>>(expiry);
+  }
+
+  @Override
+  public boolean hasGroup(Player player, String groupId) {
+    return memberships.get(player.getUniqueId(), ConcurrentHashMap::new)
+        .computeIfAbsent(groupId, id -> delegate.hasGroup(player, id));
+  }
+
+  @Override
+  public void invalidate(UUID uniqueId) {
+    memberships.invalidate(uniqueId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    memberships.invalidateAll();
+  }
+}
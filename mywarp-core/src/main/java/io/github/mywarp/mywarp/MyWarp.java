@@ -40,24 +40,42 @@ import io.github.mywarp.mywarp.warp.EventfulPopulatableWarpManager;
 import io.github.mywarp.mywarp.warp.MemoryPopulatableWarpManager;
 import io.github.mywarp.mywarp.warp.PopulatableWarpManager;
 import io.github.mywarp.mywarp.warp.StoragePopulatableWarpManager;
+import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
 import io.github.mywarp.mywarp.warp.authorization.AuthorizationResolver;
+import io.github.mywarp.mywarp.warp.authorization.CachingAuthorizationStrategy;
 import io.github.mywarp.mywarp.warp.authorization.PermissionAuthorizationStrategy;
 import io.github.mywarp.mywarp.warp.authorization.WarpPropertiesAuthorizationStrategy;
 import io.github.mywarp.mywarp.warp.authorization.WorldAccessAuthorizationStrategy;
 import io.github.mywarp.mywarp.warp.storage.AsyncWritingWarpStorage;
 import io.github.mywarp.mywarp.warp.storage.ConnectionConfiguration;
+import io.github.mywarp.mywarp.warp.storage.InstrumentedWarpStorage;
+import io.github.mywarp.mywarp.warp.storage.JournalingWarpStorage;
+import io.github.mywarp.mywarp.warp.storage.LoggingMetricsSink;
+import io.github.mywarp.mywarp.warp.storage.MetricsSink;
 import io.github.mywarp.mywarp.warp.storage.RelationalDataService;
 import io.github.mywarp.mywarp.warp.storage.StorageInitializationException;
+import io.github.mywarp.mywarp.warp.storage.StorageMetrics;
+import io.github.mywarp.mywarp.warp.storage.StorageMetricsReporter;
+import io.github.mywarp.mywarp.warp.storage.VisitAggregatingWarpStorage;
 import io.github.mywarp.mywarp.warp.storage.WarpStorage;
 import io.github.mywarp.mywarp.warp.storage.WarpStorageFactory;
+import io.github.mywarp.mywarp.warp.storage.WriteAheadJournal;
+import io.github.mywarp.mywarp.warp.storage.WriteBehindWarpStorage;
 
 import org.slf4j.Logger;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -71,11 +89,35 @@ public final class MyWarp {
 
   private static final Logger log = MyWarpLogger.getLogger(MyWarp.class);
 
+  /**
+   * The number of warps that are published to the warp manager at once while loading.
+   */
+  private static final int LOAD_CHUNK_SIZE = 5000;
+
+  /**
+   * The name of the file in the data folder that holds the journal of storage writes.
+   */
+  private static final String JOURNAL_FILE_NAME = "storage.journal";
+
+  /**
+   * The duration after which cached authorizations of a player are dropped, so that permission changes made outside
+   * of MyWarp take effect eventually.
+   */
+  private static final Duration AUTHORIZATION_CACHE_EXPIRY = Duration.ofSeconds(30);
+
   private final Platform platform;
   private final RelationalDataService dataService;
   private final WarpStorage warpStorage;
+  @Nullable
+  private final WriteAheadJournal journal;
+  @Nullable
+  private final StorageMetrics storageMetrics;
+  @Nullable
+  private final StorageMetricsReporter metricsReporter;
   private final PopulatableWarpManager warpManager;
   private final EventBus eventBus;
+  private final CachingAuthorizationStrategy authorizationCache;
+  private final WorldAccessAuthorizationStrategy worldAccessCache;
   private final AuthorizationResolver authorizationResolver;
 
   private CommandHandler commandHandler;
@@ -84,6 +126,8 @@ public final class MyWarp {
   @Nullable
   private InvitationInformationListener invitationInformationListener;
 
+  private volatile boolean warpsLoaded;
+
   /**
    * Creates a MyWarp instance that runs on the given {@code platform}.
    *
@@ -106,12 +150,52 @@ public final class MyWarp {
       
     ConnectionConfiguration connectionConfiguration = platform.getSettings().getRelationalStorageConfiguration();
     RelationalDataService dataService = platform.createDataService(connectionConfiguration);
-    WarpStorage warpStorage;
+    WarpStorage warpStorage = WarpStorageFactory.createInitialized(dataService.getDataSource(), connectionConfiguration);
+
+    Settings settings = platform.getSettings();
+    StorageMetrics storageMetrics = null;
+    StorageMetricsReporter metricsReporter = null;
+    Function<String, Executor> executors = dataService::getExecutor;
+    if (settings.isStorageMetricsEnabled()) {
+      storageMetrics = new StorageMetrics();
+      warpStorage = new InstrumentedWarpStorage(warpStorage, storageMetrics);
+      executors = storageMetrics.instrument(executors);
+
+      Duration reportInterval = settings.getStorageMetricsReportInterval();
+      if (!reportInterval.isNegative() && !reportInterval.isZero()) {
+        // platforms may export metrics by providing their own sink
+        MetricsSink sink = platform.getCapability(MetricsSink.class).orElseGet(LoggingMetricsSink::new);
+        metricsReporter = new StorageMetricsReporter(storageMetrics, sink, reportInterval);
+      }
+    }
 
-    warpStorage =
-        new AsyncWritingWarpStorage(
-            WarpStorageFactory.createInitialized(dataService.getDataSource(), connectionConfiguration),
-            dataService.getExecutorService());
+    WriteAheadJournal journal = null;
+    if (settings.isStorageJournalEnabled()) {
+      journal = WriteAheadJournal.open(new File(platform.getDataFolder(), JOURNAL_FILE_NAME));
+      int replayed = journal.replay(warpStorage);
+      if (replayed > 0) {
+        log.info("Replayed {} write(s) that did not reach the storage before the last shutdown.", replayed);
+      }
+
+      // writes are journaled in the calling thread before they are buffered or executed and committed once they
+      // have been written without an exception
+      if (settings.isStorageWriteBehindEnabled()) {
+        warpStorage =
+            new WriteBehindWarpStorage(warpStorage, executors, settings.getStorageWriteBehindFlushInterval(),
+                                       settings.getStorageWriteBehindFlushThreshold(), journal);
+      } else {
+        warpStorage = new JournalingWarpStorage(warpStorage, journal, executors);
+      }
+    } else if (settings.isStorageWriteBehindEnabled()) {
+      warpStorage =
+          new WriteBehindWarpStorage(warpStorage, executors,
+                                     settings.getStorageWriteBehindFlushInterval(),
+                                     settings.getStorageWriteBehindFlushThreshold());
+    } else {
+      warpStorage = new AsyncWritingWarpStorage(warpStorage, executors);
+    }
+    // visits are aggregated on top of all other layers, so they are journaled and written once per flush
+    warpStorage = new VisitAggregatingWarpStorage(warpStorage, settings.getStorageVisitsFlushInterval());
 
     EventBus eventBus = new EventBus();
 
@@ -120,13 +204,21 @@ public final class MyWarp {
         new EventfulPopulatableWarpManager(
             new StoragePopulatableWarpManager(new MemoryPopulatableWarpManager(), warpStorage), eventBus);
 
-    AuthorizationResolver
-        authorizationResolver =
-        new AuthorizationResolver(new PermissionAuthorizationStrategy(
-            new WorldAccessAuthorizationStrategy(new WarpPropertiesAuthorizationStrategy(), platform.getGame(),
-                                                 platform.getSettings())));
-
-    MyWarp myWarp = new MyWarp(platform, dataService, warpStorage, warpManager, eventBus, authorizationResolver);
+    WorldAccessAuthorizationStrategy
+        worldAccessCache =
+        new WorldAccessAuthorizationStrategy(new WarpPropertiesAuthorizationStrategy(), platform.getGame(),
+                                             platform.getSettings(), AUTHORIZATION_CACHE_EXPIRY);
+    CachingAuthorizationStrategy
+        authorizationCache =
+        new CachingAuthorizationStrategy(new PermissionAuthorizationStrategy(worldAccessCache),
+                                         AUTHORIZATION_CACHE_EXPIRY);
+    eventBus.register(authorizationCache);
+    AuthorizationResolver authorizationResolver = new AuthorizationResolver(authorizationCache);
+
+    MyWarp
+        myWarp =
+        new MyWarp(platform, dataService, warpStorage, journal, storageMetrics, metricsReporter, warpManager, eventBus,
+                   authorizationCache, worldAccessCache, authorizationResolver);
     myWarp.initializeMutableFields();
     myWarp.loadWarps();
 
@@ -134,12 +226,20 @@ public final class MyWarp {
   }
 
   private MyWarp(Platform platform, RelationalDataService dataService, WarpStorage warpStorage,
-                 PopulatableWarpManager warpManager, EventBus eventBus, AuthorizationResolver authorizationResolver) {
+                 @Nullable WriteAheadJournal journal, @Nullable StorageMetrics storageMetrics,
+                 @Nullable StorageMetricsReporter metricsReporter, PopulatableWarpManager warpManager,
+                 EventBus eventBus, CachingAuthorizationStrategy authorizationCache,
+                 WorldAccessAuthorizationStrategy worldAccessCache, AuthorizationResolver authorizationResolver) {
     this.platform = platform;
     this.dataService = dataService;
     this.warpStorage = warpStorage;
+    this.journal = journal;
+    this.storageMetrics = storageMetrics;
+    this.metricsReporter = metricsReporter;
     this.warpManager = warpManager;
     this.eventBus = eventBus;
+    this.authorizationCache = authorizationCache;
+    this.worldAccessCache = worldAccessCache;
     this.authorizationResolver = authorizationResolver;
   }
 
@@ -154,6 +254,8 @@ public final class MyWarp {
     // cleanup
     warpManager.depopulate();
     DynamicMessages.clearCache();
+    worldAccessCache.invalidateAll();
+    authorizationCache.invalidateAll();
     if (invitationInformationListener != null) {
       eventBus.unregister(invitationInformationListener);
     }
@@ -166,6 +268,35 @@ public final class MyWarp {
     loadWarps();
   }
 
+  /**
+   * Closes this MyWarp instance.
+   *
+   * <p>Writes that are still pending are handed to the storage system and the {@code RelationalDataService} is closed,
+   * blocking until all writes are executed or the data service gives up. If journaling is enabled, writes that the
+   * data service gave up on are replayed on the next start. The instance must not be used after calling this
+   * method.</p>
+   */
+  public void close() {
+    if (metricsReporter != null) {
+      metricsReporter.close();
+    }
+    if (warpStorage instanceof Closeable) {
+      try {
+        ((Closeable) warpStorage).close();
+      } catch (IOException e) {
+        log.error("Failed to hand pending writes to the storage.", e);
+      }
+    }
+    dataService.close();
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        log.error("Failed to close the storage journal.", e);
+      }
+    }
+  }
+
   /**
    * Gets the CommandHandler that holds and executes all of MyWarp's commands.
    *
@@ -175,6 +306,15 @@ public final class MyWarp {
     return commandHandler;
   }
 
+  /**
+   * Gets an Optional containing the metrics about calls to the storage, if metrics are enabled.
+   *
+   * @return an Optional containing the storage metrics
+   */
+  public Optional<StorageMetrics> getStorageMetrics() {
+    return Optional.ofNullable(storageMetrics);
+  }
+
   /**
    * Gets the internal EventBus that keeps track of internal events thrown by MyWarp.
    *
@@ -211,6 +351,16 @@ public final class MyWarp {
     return warpManager;
   }
 
+  /**
+   * Returns whether all warps have been loaded from the storage. While loading is in progress, the WarpManager only
+   * contains some of the stored warps.
+   *
+   * @return {@code true} if all warps have been loaded
+   */
+  public boolean areWarpsLoaded() {
+    return warpsLoaded;
+  }
+
   /**
    * Gets the AuthorizationResolver instance of this MyWarp instance.
    *
@@ -220,6 +370,30 @@ public final class MyWarp {
     return authorizationResolver;
   }
 
+  /**
+   * Gets the cache of the AuthorizationResolver of this MyWarp instance.
+   *
+   * <p>Platforms should invalidate cached authorizations of a player whenever they notice that the player's
+   * permissions or groups may have changed.</p>
+   *
+   * @return the CachingAuthorizationStrategy
+   */
+  public CachingAuthorizationStrategy getAuthorizationCache() {
+    return authorizationCache;
+  }
+
+  /**
+   * Gets the strategy that caches which worlds players can access.
+   *
+   * <p>Platforms should invalidate cached worlds of a player whenever they notice that the player's permissions may
+   * have changed.</p>
+   *
+   * @return the WorldAccessAuthorizationStrategy
+   */
+  public WorldAccessAuthorizationStrategy getWorldAccessCache() {
+    return worldAccessCache;
+  }
+
   /**
    * Gets the PlayerNameResolver instance of this MyWarp instance.
    *
@@ -263,15 +437,38 @@ public final class MyWarp {
     }
   }
 
+  /**
+   * Loads all warps from the storage and populates the warp manager. Warps are loaded in chunks and every chunk is
+   * published on the game's executor as soon as it has been read, so warps become usable while loading is still in
+   * progress. Actions that could clash with warps that have not yet been loaded or that evaluate limits must check
+   * {@link #areWarpsLoaded()} first.
+   */
   private void loadWarps() {
-    //FIXME
-    CompletableFuture.supplyAsync(warpStorage::getWarps, dataService.getExecutorService()).thenAcceptAsync(warps -> {
-      warpManager.populate(warps);
+    Executor gameExecutor = getGame().getExecutor();
+    warpsLoaded = false;
+
+    // loading must not overtake writes that are still queued for any warp
+    dataService.executeAfterPending(() -> warpStorage.getWarps(LOAD_CHUNK_SIZE, chunk -> gameExecutor.execute(() -> {
+      // warps with the same name might have been created while loading was in progress
+      List<Warp> loadable = chunk.stream().filter(warp -> !warpManager.containsByName(warp.getName()))
+          .collect(Collectors.toList());
+      if (loadable.size() < chunk.size()) {
+        log.warn("{} warps could not be loaded as warps with the same names have been created in the meantime.",
+                 chunk.size() - loadable.size());
+      }
+      warpManager.populate(loadable);
+      log.info("Loading warps... ({} warps loaded so far)", warpManager.getNumberOfAllWarps());
+    }))).whenCompleteAsync((result, ex) -> {
+      if (ex != null) {
+        log.error("Failed to load warps from the storage.", ex);
+        return;
+      }
+      warpsLoaded = true;
 
       //notify platform
       platform.onWarpsLoaded();
 
       log.info("{} warps loaded.", warpManager.getNumberOfAllWarps());
-    });
+    }, gameExecutor);
   }
 }
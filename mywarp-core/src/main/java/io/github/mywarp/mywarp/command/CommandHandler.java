@@ -155,10 +155,11 @@ public final class CommandHandler {
         new CommandGraph().builder(builder).commands().registerMethods(usageCmd).group("warp", "mywarp", "mw")
             .registerMethods(defaultUsageCmd).registerMethods(
             new InformativeCommands(warpManager, limitService, authorizationResolver, game, playerNameResolver))
-            .registerMethods(new ManagementCommands(warpManager, limitService))
-            .registerMethods(new SocialCommands(game, playerNameResolver, limitService))
+            .registerMethods(new ManagementCommands(warpManager, limitService, myWarp::areWarpsLoaded))
+            .registerMethods(new SocialCommands(game, playerNameResolver, limitService, myWarp::areWarpsLoaded))
             .registerMethods(new UtilityCommands(myWarp, this, basic, game)).group("import", "migrate")
-            .registerMethods(new ImportCommands(warpManager, platform, playerNameResolver, game)).graph()
+            .registerMethods(
+                new ImportCommands(warpManager, platform, playerNameResolver, game, myWarp::areWarpsLoaded)).graph()
             .getDispatcher();
   }
 
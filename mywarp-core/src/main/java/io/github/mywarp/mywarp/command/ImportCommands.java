@@ -19,10 +19,12 @@
 
 package io.github.mywarp.mywarp.command;
 
+import com.google.common.collect.Lists;
 import com.sk89q.intake.Command;
 import com.sk89q.intake.CommandException;
 import com.sk89q.intake.Require;
 
+import io.github.mywarp.mywarp.command.util.WarpsLoadingException;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.Game;
 import io.github.mywarp.mywarp.platform.LocalWorld;
@@ -41,12 +43,16 @@ import io.github.mywarp.mywarp.warp.storage.WarpStorageFactory;
 
 import java.io.File;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -55,12 +61,14 @@ import java.util.stream.Collectors;
 public final class ImportCommands {
 
   private static final String IMPORT_PERMISSION = "mywarp.cmd.import";
+  private static final int IMPORT_CHUNK_SIZE = 1000;
   private static final DynamicMessages msg = new DynamicMessages(CommandHandler.RESOURCE_BUNDLE_NAME);
 
   private final Platform platform;
   private final PlayerNameResolver playerNameResolver;
   private final WarpManager warpManager;
   private final Game game;
+  private final BooleanSupplier warpsLoaded;
 
   /**
    * Creates an instance.
@@ -69,17 +77,21 @@ public final class ImportCommands {
    * @param platform           the Platform used by commands
    * @param playerNameResolver the PlayerNameResolver used by commands
    * @param game               the Game used by commands
+   * @param warpsLoaded        reports whether all warps have been loaded from the storage
    */
-  ImportCommands(WarpManager warpManager, Platform platform, PlayerNameResolver playerNameResolver, Game game) {
+  ImportCommands(WarpManager warpManager, Platform platform, PlayerNameResolver playerNameResolver, Game game,
+                 BooleanSupplier warpsLoaded) {
     this.platform = platform;
     this.playerNameResolver = playerNameResolver;
     this.warpManager = warpManager;
     this.game = game;
+    this.warpsLoaded = warpsLoaded;
   }
 
   @Command(aliases = {"current", "curr"}, desc = "import.current.description", help = "import.current.help")
   @Require(IMPORT_PERMISSION)
   public void current(Actor actor, ConnectionConfiguration configuration) throws CommandException {
+    WarpsLoadingException.checkLoaded(warpsLoaded);
     RelationalDataService dataService = platform.createDataService(configuration);
     try {
       start(actor, dataService, WarpStorageFactory.create(dataService.getDataSource(), configuration));
@@ -91,6 +103,7 @@ public final class ImportCommands {
   @Command(aliases = {"pre3-sqlite"}, desc = "import.pre3-sqlite.description", help = "import.pre3-sqlite.help")
   @Require(IMPORT_PERMISSION)
   public void pre3Sqlite(Actor actor, File database) throws CommandException {
+    WarpsLoadingException.checkLoaded(warpsLoaded);
     ConnectionConfiguration configuration = new ConnectionConfiguration("jdbc:sqlite:" + database.getAbsolutePath());
     try {
       RelationalDataService dataService = platform.createDataService(configuration);
@@ -106,6 +119,7 @@ public final class ImportCommands {
   @Require(IMPORT_PERMISSION)
   public void pre3Mysql(Actor actor, String dsn, String schema, String user, String password, String tableName)
       throws CommandException {
+    WarpsLoadingException.checkLoaded(warpsLoaded);
     ConnectionConfiguration
         config =
         new ConnectionConfiguration(dsn).setSchema(schema).setUser(user).setPassword(password);
@@ -134,32 +148,60 @@ public final class ImportCommands {
       if (ex != null) {
         initiator.sendError(msg.getString("import.no-connection", ex.getMessage()));
       } else {
-        Set<Warp> notImportedWarps = new HashSet<Warp>();
-
-        for (Warp warp : warps) {
-          if (warpManager.containsByName(warp.getName())) {
-            // skip the warp
-            notImportedWarps.add(warp);
-            continue;
-          }
-          warpManager.add(warp);
+        dataService.close();
+        importChunks(initiator, Lists.partition(warps, IMPORT_CHUNK_SIZE).iterator(), 0, warps.size(),
+                     new HashSet<Warp>());
+      }
+    }, game.getExecutor());
+  }
+
+  /**
+   * Adds the next chunk from the given {@code chunks} to the WarpManager and schedules the following chunk on the
+   * game's executor, so that large imports are spread over multiple ticks. Must be called on the game's executor.
+   *
+   * @param initiator        the {@code Actor} who initiated the import
+   * @param chunks           the remaining chunks of imported Warps
+   * @param processed        the number of Warps processed so far
+   * @param total            the total number of imported Warps
+   * @param notImportedWarps the Warps that have been skipped so far
+   */
+  private void importChunks(Actor initiator, Iterator<List<Warp>> chunks, int processed, int total,
+                            Set<Warp> notImportedWarps) {
+    if (chunks.hasNext()) {
+      List<Warp> chunk = chunks.next();
+      List<Warp> importableWarps = new ArrayList<Warp>();
+      Set<String> names = new HashSet<String>();
+
+      for (Warp warp : chunk) {
+        if (warpManager.containsByName(warp.getName()) || !names.add(warp.getName())) {
+          // skip the warp
+          notImportedWarps.add(warp);
+          continue;
         }
+        importableWarps.add(warp);
+      }
+      warpManager.addAll(importableWarps);
 
-        if (notImportedWarps.isEmpty()) {
-          initiator.sendMessage(msg.getString("import.import-successful", warps.size()));
-        } else {
-          int successfullyImported = warps.size() - notImportedWarps.size();
+      int nowProcessed = processed + chunk.size();
+      if (chunks.hasNext()) {
+        initiator.sendMessage(msg.getString("import.progress", nowProcessed, total));
+        game.getExecutor().execute(() -> importChunks(initiator, chunks, nowProcessed, total, notImportedWarps));
+        return;
+      }
+    }
 
-          Message.Builder builder = Message.builder();
-          builder.append(Message.Style.ERROR);
-          builder.append(msg.getString("import.import-with-skips", successfullyImported, notImportedWarps.size()));
-          builder.appendWithSeparators(notImportedWarps);
+    if (notImportedWarps.isEmpty()) {
+      initiator.sendMessage(msg.getString("import.import-successful", total));
+    } else {
+      int successfullyImported = total - notImportedWarps.size();
 
-          initiator.sendMessage(builder.build());
-        }
-        dataService.close();
-      }
-    }, game.getExecutor());
+      Message.Builder builder = Message.builder();
+      builder.append(Message.Style.ERROR);
+      builder.append(msg.getString("import.import-with-skips", successfullyImported, notImportedWarps.size()));
+      builder.appendWithSeparators(notImportedWarps);
+
+      initiator.sendMessage(builder.build());
+    }
   }
 
   /**
@@ -29,6 +29,7 @@ import com.sk89q.intake.parametric.annotation.Switch;
 import com.sk89q.intake.util.auth.AuthorizationException;
 
 import io.github.mywarp.mywarp.command.parametric.annotation.Billable;
+import io.github.mywarp.mywarp.command.parametric.annotation.Sender;
 import io.github.mywarp.mywarp.command.parametric.annotation.Viewable;
 import io.github.mywarp.mywarp.command.parametric.namespace.IllegalCommandSenderException;
 import io.github.mywarp.mywarp.command.util.CommandUtil;
@@ -47,15 +48,17 @@ import io.github.mywarp.mywarp.util.Message;
 import io.github.mywarp.mywarp.util.i18n.DynamicMessages;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 import io.github.mywarp.mywarp.warp.authorization.AuthorizationResolver;
 
 import org.apache.commons.lang.StringUtils;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -123,18 +126,18 @@ public final class InformativeCommands {
                    @Switch('r') @Range(min = 1, max = Integer.MAX_VALUE) final Integer radius,
                    @Switch('w') final String world) throws IllegalCommandSenderException {
 
-    // build the listing predicate
-    Predicate<Warp> filter = authorizationResolver.isViewable(actor);
+    // build the listing query
+    WarpQuery.Builder query = authorizationResolver.restrictToViewable(WarpQuery.builder(), actor);
 
     if (creator != null) {
-      filter = filter.and(input -> {
+      query.filter(input -> {
         Optional<String> creatorName = playerNameResolver.getByUniqueId(input.getCreator());
         return creatorName.isPresent() && StringUtils.containsIgnoreCase(creatorName.get(), creator);
       });
     }
 
     if (name != null) {
-      filter = filter.and(input -> StringUtils.containsIgnoreCase(input.getName(), name));
+      query.nameContains(name);
     }
 
     if (radius != null) {
@@ -143,25 +146,24 @@ public final class InformativeCommands {
       }
 
       LocalEntity entity = (LocalEntity) actor;
-
-      final UUID worldId = entity.getWorld().getUniqueId();
-
-      final int squaredRadius = radius * radius;
-      final Vector3d position = entity.getPosition();
-      filter = filter.and(input -> input.getWorldIdentifier().equals(worldId)
-                                   && input.getPosition().distanceSquared(position) <= squaredRadius);
+      query.within(entity.getWorld().getUniqueId(), entity.getPosition(), radius);
     }
 
     if (world != null) {
-      filter = filter.and(input -> {
-        Optional<LocalWorld> worldOptional = game.getWorld(input.getWorldIdentifier());
-        return worldOptional.isPresent() && StringUtils.containsIgnoreCase(worldOptional.get().getName(), world);
-      });
+      Set<UUID>
+          worldIds =
+          game.getWorlds().stream().filter(input -> StringUtils.containsIgnoreCase(input.getName(), world))
+              .map(LocalWorld::getUniqueId).collect(Collectors.toSet());
+      if (worldIds.isEmpty()) {
+        // no loaded world matches, so no warp can match either
+        query.limit(0);
+      } else {
+        query.worlds(worldIds);
+      }
     }
 
     //query the warps
-    //noinspection RedundantTypeArguments
-    final List<Warp> warps = Ordering.natural().sortedCopy(warpManager.getAll(filter));
+    final List<Warp> warps = warpManager.getAll(query.sortedBy(Ordering.natural()).build());
 
     Function<Warp, Message> mapping = input -> {
       // 'name' (world) by player
@@ -187,6 +189,37 @@ public final class InformativeCommands {
         .display(actor, page);
   }
 
+  @Command(aliases = {"nearest"}, desc = "nearest.description", help = "nearest.help")
+  @Require("mywarp.cmd.nearest")
+  @Billable(FeeType.LIST)
+  public void nearest(@Sender LocalPlayer player, @OptArg("1") @Range(min = 1, max = 10) int count) {
+    Vector3d position = player.getPosition();
+    List<Warp>
+        warps =
+        warpManager.getAll(
+            WarpQuery.builder().closestTo(player.getWorld().getUniqueId(), position)
+                .filter(authorizationResolver.isUsable(player)).limit(count).build());
+
+    if (warps.isEmpty()) {
+      player.sendError(msg.getString("nearest.no-warps"));
+      return;
+    }
+
+    Message.Builder builder = Message.builder();
+    builder.append(Message.Style.HEADLINE_1);
+    builder.append(msg.getString("nearest.heading"));
+    for (Warp warp : warps) {
+      builder.appendNewLine();
+      builder.append(Message.Style.VALUE);
+      builder.append("'");
+      builder.append(warp);
+      builder.append("' ");
+      builder.append(Message.Style.KEY);
+      builder.append(msg.getString("nearest.distance", warp.getPosition().distance(position)));
+    }
+    player.sendMessage(builder.build());
+  }
+
   @Command(aliases = {"info", "stats"}, desc = "info.description", help = "info.help")
   @Require("mywarp.cmd.info")
   @Billable(FeeType.INFO)
@@ -28,6 +28,7 @@ import io.github.mywarp.mywarp.command.parametric.annotation.Modifiable;
 import io.github.mywarp.mywarp.command.parametric.annotation.Sender;
 import io.github.mywarp.mywarp.command.parametric.annotation.WarpName;
 import io.github.mywarp.mywarp.command.util.ExceedsInitiatorLimitException;
+import io.github.mywarp.mywarp.command.util.WarpsLoadingException;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.LocalPlayer;
 import io.github.mywarp.mywarp.service.economy.FeeType;
@@ -37,6 +38,8 @@ import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpBuilder;
 import io.github.mywarp.mywarp.warp.WarpManager;
 
+import java.util.function.BooleanSupplier;
+
 import javax.annotation.Nullable;
 
 /**
@@ -49,16 +52,19 @@ public final class ManagementCommands {
   private final WarpManager warpManager;
   @Nullable
   private final LimitService limitService;
+  private final BooleanSupplier warpsLoaded;
 
   /**
    * Creates an instance.
    *
    * @param warpManager  the WarpManager used by commands
    * @param limitService the LimitService used by commands - may be {@code null} if no limit service is used
+   * @param warpsLoaded  reports whether all warps have been loaded from the storage
    */
-  ManagementCommands(WarpManager warpManager, @Nullable LimitService limitService) {
+  ManagementCommands(WarpManager warpManager, @Nullable LimitService limitService, BooleanSupplier warpsLoaded) {
     this.warpManager = warpManager;
     this.limitService = limitService;
+    this.warpsLoaded = warpsLoaded;
   }
 
   @Command(aliases = {"pcreate", "pset"}, desc = "create.private.description", help = "create.private.help")
@@ -86,6 +92,8 @@ public final class ManagementCommands {
    * @throws CommandException if the Warp cannot be created
    */
   private void addWarp(LocalPlayer creator, Warp.Type type, String name) throws CommandException {
+    // a warp that has not yet been loaded might have the same name
+    WarpsLoadingException.checkLoaded(warpsLoaded);
 
     if (limitService != null) {
       LimitService.EvaluationResult result = limitService.canAdd(creator, creator.getWorld(), type);
@@ -32,6 +32,7 @@ import io.github.mywarp.mywarp.command.parametric.provider.exception.NoSuchPlaye
 import io.github.mywarp.mywarp.command.util.CommandUtil;
 import io.github.mywarp.mywarp.command.util.ExceedsInitiatorLimitException;
 import io.github.mywarp.mywarp.command.util.ExceedsLimitException;
+import io.github.mywarp.mywarp.command.util.WarpsLoadingException;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.Game;
 import io.github.mywarp.mywarp.platform.LocalPlayer;
@@ -44,6 +45,7 @@ import io.github.mywarp.mywarp.warp.Warp;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 import javax.annotation.Nullable;
 
@@ -58,6 +60,7 @@ public final class SocialCommands {
   private final PlayerNameResolver playerNameResolver;
   @Nullable
   private final LimitService limitService;
+  private final BooleanSupplier warpsLoaded;
 
   /**
    * Creates an instance.
@@ -65,11 +68,14 @@ public final class SocialCommands {
    * @param game               the Game instance used by commands
    * @param playerNameResolver the PlayerNameResolver used by commands
    * @param limitService       the LimitService used by commands - may be {@code null} if no limit service is used
+   * @param warpsLoaded        reports whether all warps have been loaded from the storage
    */
-  SocialCommands(Game game, PlayerNameResolver playerNameResolver, @Nullable LimitService limitService) {
+  SocialCommands(Game game, PlayerNameResolver playerNameResolver, @Nullable LimitService limitService,
+                 BooleanSupplier warpsLoaded) {
     this.game = game;
     this.playerNameResolver = playerNameResolver;
     this.limitService = limitService;
+    this.warpsLoaded = warpsLoaded;
   }
 
   @Command(aliases = {"give"}, desc = "give.description", help = "give.help")
@@ -83,6 +89,8 @@ public final class SocialCommands {
     Optional<LocalPlayer> receiverPlayerOptional = game.getPlayer(receiver);
 
     if (!ignoreLimits && limitService != null) {
+      // limits can only be evaluated once all warps are known
+      WarpsLoadingException.checkLoaded(warpsLoaded);
       if (!receiverPlayerOptional.isPresent()) {
         throw new NoSuchPlayerException(receiver, playerNameResolver);
       }
@@ -130,6 +138,8 @@ public final class SocialCommands {
       throw new CommandException(msg.getString("private.already-private", warp.getName()));
     }
     if (!ignoreLimits && limitService != null) {
+      // limits can only be evaluated once all warps are known
+      WarpsLoadingException.checkLoaded(warpsLoaded);
       UUID creator = warp.getCreator();
       Optional<LocalPlayer> creatorPlayerOptional = game.getPlayer(creator);
       if (!creatorPlayerOptional.isPresent()) {
@@ -167,6 +177,8 @@ public final class SocialCommands {
       throw new CommandException(msg.getString("public.already-public", warp.getName()));
     }
     if (!ignoreLimits && limitService != null) {
+      // limits can only be evaluated once all warps are known
+      WarpsLoadingException.checkLoaded(warpsLoaded);
       UUID creator = warp.getCreator();
       Optional<LocalPlayer> creatorPlayerOptional = game.getPlayer(creator);
       if (!creatorPlayerOptional.isPresent()) {
@@ -36,9 +36,13 @@ import io.github.mywarp.mywarp.platform.Game;
 import io.github.mywarp.mywarp.platform.LocalPlayer;
 import io.github.mywarp.mywarp.service.economy.FeeType;
 import io.github.mywarp.mywarp.service.teleport.TeleportService;
+import io.github.mywarp.mywarp.util.Message;
 import io.github.mywarp.mywarp.util.i18n.DynamicMessages;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.storage.StorageMetrics;
 
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -78,6 +82,45 @@ public final class UtilityCommands {
         .display(actor, page);
   }
 
+  @Command(aliases = {"metrics"}, desc = "metrics.description", help = "metrics.help")
+  @Require("mywarp.cmd.metrics")
+  public void metrics(Actor actor) {
+    Optional<StorageMetrics> metrics = myWarp.getStorageMetrics();
+    if (!metrics.isPresent()) {
+      actor.sendError(msg.getString("metrics.disabled"));
+      return;
+    }
+    StorageMetrics.Snapshot snapshot = metrics.get().snapshot();
+
+    Message.Builder builder = Message.builder();
+    builder.append(Message.Style.HEADLINE_1);
+    builder.append(msg.getString("metrics.heading"));
+    builder.appendNewLine();
+
+    builder.append(Message.Style.KEY);
+    builder.append(msg.getString("metrics.queued"));
+    builder.append(" ");
+    builder.append(Message.Style.VALUE);
+    builder.append(snapshot.getQueued());
+
+    for (Map.Entry<StorageMetrics.Operation, StorageMetrics.OperationSnapshot> entry : snapshot.getOperations()
+        .entrySet()) {
+      StorageMetrics.OperationSnapshot operation = entry.getValue();
+      if (operation.getCount() == 0 && operation.getInFlight() == 0) {
+        continue;
+      }
+      builder.appendNewLine();
+      builder.append(Message.Style.KEY);
+      builder.append(entry.getKey());
+      builder.append(": ");
+      builder.append(Message.Style.VALUE);
+      builder.append(msg.getString("metrics.operation", operation.getCount(), operation.getErrors(),
+                                   operation.getInFlight(), operation.getMean().toNanos() / 1000000d,
+                                   operation.getPercentile(0.95).toMillis()));
+    }
+    actor.sendMessage(builder.build());
+  }
+
   @Command(aliases = {"point"}, desc = "point.description", help = "point.help")
   @Require("mywarp.cmd.point")
   @Billable(FeeType.POINT)
@@ -36,12 +36,12 @@ import io.github.mywarp.mywarp.platform.PlayerNameResolver;
 import io.github.mywarp.mywarp.platform.Settings;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 import io.github.mywarp.mywarp.warp.authorization.AuthorizationResolver;
 import io.github.mywarp.mywarp.warp.storage.ConnectionConfiguration;
 
 import java.io.File;
 import java.util.UUID;
-import java.util.function.Predicate;
 
 /**
  * Provides most of MyWarp's internal objects by converting the user given arguments.
@@ -88,21 +88,21 @@ public class BaseModule extends AbstractModule {
     //warps
     bind(Warp.class).annotatedWith(Viewable.class).toProvider(new WarpProvider(authorizationResolver, warpManager) {
       @Override
-      Predicate<Warp> isValid(AuthorizationResolver resolver, Actor actor) {
-        return resolver.isViewable(actor);
+      WarpQuery.Builder restrictToValid(WarpQuery.Builder query, AuthorizationResolver resolver, Actor actor) {
+        return resolver.restrictToViewable(query, actor);
       }
     });
     bind(Warp.class).annotatedWith(Modifiable.class).toProvider(new WarpProvider(authorizationResolver, warpManager) {
       @Override
-      Predicate<Warp> isValid(AuthorizationResolver resolver, Actor actor) {
-        return resolver.isModifiable(actor);
+      WarpQuery.Builder restrictToValid(WarpQuery.Builder query, AuthorizationResolver resolver, Actor actor) {
+        return query.filter(resolver.isModifiable(actor));
       }
     });
     bind(Warp.class).annotatedWith(Usable.class).toProvider(new WarpProvider(authorizationResolver, warpManager) {
       @Override
-      Predicate<Warp> isValid(AuthorizationResolver resolver, Actor actor) {
+      WarpQuery.Builder restrictToValid(WarpQuery.Builder query, AuthorizationResolver resolver, Actor actor) {
         checkArgument(actor instanceof LocalEntity, "This Binding must be used by an LocalEntity");
-        return resolver.isUsable((LocalEntity) actor);
+        return resolver.restrictToUsable(query, (LocalEntity) actor);
       }
     });
 
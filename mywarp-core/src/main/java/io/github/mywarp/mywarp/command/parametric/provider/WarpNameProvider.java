@@ -19,7 +19,6 @@
 
 package io.github.mywarp.mywarp.command.parametric.provider;
 
-import com.google.common.collect.Iterables;
 import com.sk89q.intake.argument.ArgumentException;
 import com.sk89q.intake.argument.CommandArgs;
 import com.sk89q.intake.parametric.ProvisionException;
@@ -30,6 +29,7 @@ import io.github.mywarp.mywarp.platform.Settings;
 import io.github.mywarp.mywarp.util.WarpUtils;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
@@ -76,6 +76,6 @@ class WarpNameProvider extends NonSuggestiveProvider<String> {
       return warpManager.containsByName(nameToCheck);
     }
 
-    return !Iterables.isEmpty(warpManager.getAll(input -> input.getName().equalsIgnoreCase(nameToCheck)));
+    return warpManager.getNumberOfWarps(WarpQuery.builder().nameIgnoringCase(nameToCheck).limit(1).build()) > 0;
   }
 }
@@ -33,18 +33,25 @@ import io.github.mywarp.mywarp.command.util.Matches;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 import io.github.mywarp.mywarp.warp.authorization.AuthorizationResolver;
 
 import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
 
 /**
  * Provides {@link Warp} instances.
  */
 abstract class WarpProvider implements Provider<Warp> {
 
+  /**
+   * The maximum number of warps suggested for a single completion.
+   */
+  private static final int MAX_SUGGESTIONS = 50;
+
   private final AuthorizationResolver authorizationResolver;
   private final WarpManager warpManager;
 
@@ -53,21 +60,22 @@ abstract class WarpProvider implements Provider<Warp> {
     this.warpManager = warpManager;
   }
 
-  private Predicate<Warp> isValid(Namespace namespace) {
-    return isValid(authorizationResolver, getActor(namespace));
+  private WarpQuery.Builder validWarps(Namespace namespace) {
+    return restrictToValid(WarpQuery.builder(), authorizationResolver, getActor(namespace));
   }
 
   /**
-   * Returns a Predicate that evaluates to {@code true} if the tested warp is valid for the given {@code Actor}.
+   * Restricts the given query to warps that are valid for the given {@code Actor}.
    *
-   * <p>This method is called whenever warps are parsed from user input. Only warps that this method evaluates
-   * positively are considered valid matches for the user input.</p>
+   * <p>This method is called whenever warps are parsed from user input. Only warps that match the restricted query
+   * are considered valid matches for the user input.</p>
    *
+   * @param query    the query to restrict
    * @param resolver the used AuthorizationResolver
    * @param actor    the Actor
-   * @return a Predicate that evaluates to {@code true} if the tested warp is valid for the given {@code Actor}.
+   * @return the restricted query
    */
-  abstract Predicate<Warp> isValid(AuthorizationResolver resolver, Actor actor);
+  abstract WarpQuery.Builder restrictToValid(WarpQuery.Builder query, AuthorizationResolver resolver, Actor actor);
 
   @Override
   public boolean isProvided() {
@@ -80,9 +88,10 @@ abstract class WarpProvider implements Provider<Warp> {
     String query = arguments.next();
     if(query.equalsIgnoreCase("random")) {
 //Logger.getGlobal().info("random warp");
-        Warp random = MCMEWarpUtil.getRandomWarp(warpManager.getAll(isValid(arguments.getNamespace())));
+        List<Warp> valid = warpManager.getAll(validWarps(arguments.getNamespace()).build());
+        Warp random = MCMEWarpUtil.getRandomWarp(valid);
         if(random == null) {
-            throw new NoSuchWarpException("random", Matches.from(warpManager.getAll(isValid(arguments.getNamespace()))).withStringFunction(Warp::getName)
+            throw new NoSuchWarpException("random", Matches.from(valid).withStringFunction(Warp::getName)
                 .withValueComparator(new Warp.PopularityComparator()).forQuery(query).getSortedMatches());
         }
         return random;
@@ -91,9 +100,17 @@ abstract class WarpProvider implements Provider<Warp> {
             query = query + " " + arguments.next();
         } 
 
+        // names that equal the query ignoring case are found in the name index without matching all warps
+        Optional<Warp> sameName = getSameNameMatch(arguments.getNamespace(), query);
+        if (sameName.isPresent()) {
+          return sameName.get();
+        }
+
         Matches<Warp>
-            matches = Matches.from(warpManager.getAll(isValid(arguments.getNamespace()))).withStringFunction(Warp::getName)
-                .withValueComparator(new Warp.PopularityComparator()).forQuery(query);
+            matches =
+            Matches.from(warpManager.getAll(validWarps(arguments.getNamespace()).nameContains(query)
+                                                .sortedBy(new Warp.PopularityComparator()).build()))
+                .withStringFunction(Warp::getName).keepingOrder().forQuery(query);
         Optional<Warp> exactMatch = matches.getExactMatch();
 
         if (!exactMatch.isPresent()) {
@@ -105,9 +122,38 @@ abstract class WarpProvider implements Provider<Warp> {
 
   @Override
   public List<String> getSuggestions(String prefix, Namespace locals) {
-    return Lists.transform(Matches.from(warpManager.getAll(isValid(locals))).withStringFunction(Warp::getName)
-                               .withValueComparator(new Warp.PopularityComparator()).forQuery(prefix)
-                               .getSortedMatches(), Warp::getName);
+    // only names that can complete the prefix are suggested, so they can be looked up in the name index. Names that
+    // equal the prefix are suggested first, followed by the most popular warps, so only those need to be fetched.
+    Set<Warp> candidates = new LinkedHashSet<Warp>(warpManager.getAll(
+        validWarps(locals).nameIgnoringCase(prefix).sortedBy(new Warp.PopularityComparator()).build()));
+    candidates.addAll(warpManager.getAll(
+        validWarps(locals).namePrefix(prefix).sortedBy(new Warp.PopularityComparator()).limit(MAX_SUGGESTIONS)
+            .build()));
+    List<Warp>
+        matches =
+        Matches.from(candidates).withStringFunction(Warp::getName).keepingOrder().forQuery(prefix).getSortedMatches();
+    return Lists.transform(matches.subList(0, Math.min(matches.size(), MAX_SUGGESTIONS)), Warp::getName);
+  }
+
+  /**
+   * Gets the valid warp whose name equals the given query, or, if there is none, the only valid warp whose name equals
+   * the query ignoring case. This is the same warp {@link Matches#getExactMatch()} would return for these matches.
+   *
+   * @param namespace the namespace
+   * @param query     the query
+   * @return an Optional containing the matching warp
+   */
+  private Optional<Warp> getSameNameMatch(Namespace namespace, String query) {
+    List<Warp> matches = warpManager.getAll(validWarps(namespace).nameIgnoringCase(query).build());
+    for (Warp warp : matches) {
+      if (warp.getName().equals(query)) {
+        return Optional.of(warp);
+      }
+    }
+    if (matches.size() == 1) {
+      return Optional.of(matches.get(0));
+    }
+    return Optional.empty();
   }
 
   private static Actor getActor(Namespace namespace) {
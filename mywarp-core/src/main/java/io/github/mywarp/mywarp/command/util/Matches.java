@@ -52,7 +52,8 @@ public class Matches<E> {
   private final List<E> containsMatches = new ArrayList<E>();
   private final List<E> containsIgnoreCaseMatches = new ArrayList<E>();
 
-  private Matches(String query, Iterable<E> elements, Function<E, String> stringFunction, Comparator<E> comparator) {
+  private Matches(String query, Iterable<E> elements, Function<E, String> stringFunction,
+                  @Nullable Comparator<E> comparator) {
     for (E element : elements) {
       String toTest = stringFunction.apply(element);
       if (toTest == null) {
@@ -70,10 +71,12 @@ public class Matches<E> {
       }
     }
 
-    equalMatches.sort(comparator);
-    equalIgnoreCaseMatches.sort(comparator);
-    containsMatches.sort(comparator);
-    containsIgnoreCaseMatches.sort(comparator);
+    if (comparator != null) {
+      equalMatches.sort(comparator);
+      equalIgnoreCaseMatches.sort(comparator);
+      containsMatches.sort(comparator);
+      containsIgnoreCaseMatches.sort(comparator);
+    }
   }
 
   /**
@@ -153,6 +156,7 @@ public class Matches<E> {
     private final Iterable<E> elements;
 
     private Function<E, String> stringFunction = Object::toString;
+    @Nullable
     private Comparator<E> valueComparator = Comparator.comparing(Object::toString);
 
     private MatcherData(Iterable<E> elements) {
@@ -182,6 +186,17 @@ public class Matches<E> {
       return this;
     }
 
+    /**
+     * Keeps elements that are the same kind of match in the order they are given in, instead of sorting them. Use
+     * this if the elements are already sorted.
+     *
+     * @return this instance
+     */
+    public MatcherData<E> keepingOrder() {
+      this.valueComparator = null;
+      return this;
+    }
+
     /**
      * Creates a Matches instance with the given query.
      *
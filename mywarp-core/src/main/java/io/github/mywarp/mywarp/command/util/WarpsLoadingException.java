@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.command.util;
+
+import com.sk89q.intake.CommandException;
+
+import io.github.mywarp.mywarp.command.CommandHandler;
+import io.github.mywarp.mywarp.util.i18n.DynamicMessages;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Indicates that an action cannot be executed as warps are still being loaded from the storage. Warps created while
+ * loading could clash with stored warps that have not yet been loaded and limits would be evaluated against an
+ * incomplete set of warps.
+ */
+public class WarpsLoadingException extends CommandException {
+
+  private static final DynamicMessages msg = new DynamicMessages(CommandHandler.RESOURCE_BUNDLE_NAME);
+
+  /**
+   * Throws a {@code WarpsLoadingException} unless the given {@code warpsLoaded} supplier reports that all warps have
+   * been loaded.
+   *
+   * @param warpsLoaded the supplier that reports whether all warps have been loaded
+   * @throws WarpsLoadingException if warps are still being loaded
+   */
+  public static void checkLoaded(BooleanSupplier warpsLoaded) throws WarpsLoadingException {
+    if (!warpsLoaded.getAsBoolean()) {
+      throw new WarpsLoadingException();
+    }
+  }
+
+  @Override
+  public String getLocalizedMessage() {
+    return msg.getString("exception.warps-loading");
+  }
+}
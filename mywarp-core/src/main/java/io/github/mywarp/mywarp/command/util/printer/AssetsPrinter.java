@@ -36,6 +36,7 @@ import io.github.mywarp.mywarp.util.Message;
 import io.github.mywarp.mywarp.util.i18n.DynamicMessages;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -114,9 +115,8 @@ public class AssetsPrinter {
       index = limitService.getAssets(creator);
     } else {
       assert game != null && warpManager != null;
-      index =
-          ImmutableMap.of(createDummyLimit(game),
-                          new LimitValueWarpMapping(warpManager, w -> w.isCreator(creator.getUniqueId())));
+      WarpQuery query = WarpQuery.builder().creator(creator.getUniqueId()).build();
+      index = ImmutableMap.of(createDummyLimit(game), new LimitValueWarpMapping(warpManager, query));
     }
 
     for (Map.Entry<Limit, LimitValueWarpMapping> entry : index.entrySet()) {
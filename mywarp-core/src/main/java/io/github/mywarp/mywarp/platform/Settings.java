@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableSet;
 
 import io.github.mywarp.mywarp.warp.storage.ConnectionConfiguration;
 
+import java.time.Duration;
 import java.util.Locale;
 
 /**
@@ -93,6 +94,59 @@ public interface Settings {
    */
   ConnectionConfiguration getRelationalStorageConfiguration();
 
+  /**
+   * Returns whether writes to the storage should be coalesced and flushed in intervals rather than being executed
+   * one by one.
+   *
+   * @return {@code true} if writes should be coalesced
+   */
+  boolean isStorageWriteBehindEnabled();
+
+  /**
+   * Gets the interval in which coalesced writes are flushed to the storage.
+   *
+   * @return the flush interval
+   */
+  Duration getStorageWriteBehindFlushInterval();
+
+  /**
+   * Gets the number of pending writes that causes coalesced writes to be flushed to the storage before the flush
+   * interval has passed.
+   *
+   * @return the flush threshold
+   */
+  int getStorageWriteBehindFlushThreshold();
+
+  /**
+   * Gets the interval in which visits of warps, which are aggregated in memory, are written to the storage.
+   *
+   * @return the flush interval
+   */
+  Duration getStorageVisitsFlushInterval();
+
+  /**
+   * Returns whether writes to the storage should be recorded in a local journal, so that writes that did not reach the
+   * storage when MyWarp stopped can be replayed on the next start.
+   *
+   * @return {@code true} if writes should be journaled
+   */
+  boolean isStorageJournalEnabled();
+
+  /**
+   * Returns whether metrics about calls to the storage should be collected.
+   *
+   * @return {@code true} if metrics should be collected
+   */
+  boolean isStorageMetricsEnabled();
+
+  /**
+   * Gets the interval in which collected storage metrics are reported. A duration that is not positive disables
+   * reporting.
+   *
+   * @return the report interval
+   */
+  Duration getStorageMetricsReportInterval();
+
   /**
    * Returns whether players should be informed when they are invited to or uninvited from warps.
    *
@@ -27,7 +27,6 @@ import io.github.mywarp.mywarp.warp.Warp;
 
 import java.util.EnumSet;
 import java.util.UUID;
-import java.util.function.Predicate;
 
 /**
  * A creation limit for warps. Implementations are expected to provide the limit for each {@link Value} and a way to
@@ -83,15 +82,6 @@ public interface Limit {
       this.warpTypes = warpTypes;
     }
 
-    /**
-     * Gets the condition of this Value.
-     *
-     * @return the condition
-     */
-    Predicate<Warp> getCondition() {
-      return input -> warpTypes.contains(input.getType());
-    }
-
     /**
      * Gets the name of this Value in lower case.
      *
@@ -30,10 +30,13 @@ import io.github.mywarp.mywarp.platform.capability.LimitCapability;
 import io.github.mywarp.mywarp.service.limit.Limit.Value;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 
 import java.util.Arrays;
+import java.util.Set;
 import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 
@@ -100,7 +103,7 @@ public class LimitService {
   }
 
   private EvaluationResult evaluate(LocalPlayer creator, LocalWorld world, Iterable<Value> values) {
-    LimitValueWarpMapping valueWarpMapping = new LimitValueWarpMapping(warpManager, createPredicate(creator, world));
+    LimitValueWarpMapping valueWarpMapping = new LimitValueWarpMapping(warpManager, createQuery(creator, world));
 
     for (Value toCheck : values) {
       if (toCheck.canDisobey(creator, world)) {
@@ -115,13 +118,20 @@ public class LimitService {
     return EvaluationResult.limitMet();
   }
 
-  private static Predicate<Warp> createPredicate(final LocalPlayer creator, LocalWorld... worlds) {
-    return createPredicate(creator, Arrays.asList(worlds));
+  private static WarpQuery createQuery(LocalPlayer creator, LocalWorld... worlds) {
+    return createQuery(creator, Arrays.asList(worlds));
   }
 
-  private static Predicate<Warp> createPredicate(final LocalPlayer creator, final Iterable<LocalWorld> worlds) {
-    return input -> input.isCreator(creator.getUniqueId()) && containsIdentifiedWorld(worlds,
-                                                                                      input.getWorldIdentifier());
+  private static WarpQuery createQuery(LocalPlayer creator, Iterable<LocalWorld> worlds) {
+    WarpQuery.Builder builder = WarpQuery.builder().creator(creator.getUniqueId());
+    Set<UUID>
+        worldIds =
+        StreamSupport.stream(worlds.spliterator(), false).map(LocalWorld::getUniqueId).collect(Collectors.toSet());
+    if (worldIds.isEmpty()) {
+      // a limit without worlds never counts any warp
+      return builder.limit(0).build();
+    }
+    return builder.worlds(worldIds).build();
   }
 
   /**
@@ -139,20 +149,11 @@ public class LimitService {
     ImmutableMap.Builder<Limit, LimitValueWarpMapping> builder = ImmutableMap.builder();
 
     for (Limit limit : capability.getEffectiveLimits(player)) {
-      builder.put(limit, new LimitValueWarpMapping(warpManager, createPredicate(player, limit.getAffectedWorlds())));
+      builder.put(limit, new LimitValueWarpMapping(warpManager, createQuery(player, limit.getAffectedWorlds())));
     }
     return builder.build();
   }
 
-  private static boolean containsIdentifiedWorld(Iterable<LocalWorld> worlds, UUID worldIdentifier) {
-    for (LocalWorld world : worlds) {
-      if (world.getUniqueId().equals(worldIdentifier)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
   /**
    * The result of a limit evaluation.
    */
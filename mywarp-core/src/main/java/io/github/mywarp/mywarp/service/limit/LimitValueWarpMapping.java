@@ -22,9 +22,9 @@ package io.github.mywarp.mywarp.service.limit;
 import io.github.mywarp.mywarp.service.limit.Limit.Value;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 
 import java.util.Collection;
-import java.util.function.Predicate;
 
 /**
  * A mapping of limit values to warps on a certain WarpManager.
@@ -35,19 +35,19 @@ import java.util.function.Predicate;
 public class LimitValueWarpMapping {
 
   private final WarpManager manager;
-  private final Predicate<Warp> filter;
+  private final WarpQuery query;
 
 
   /**
-   * Creates an instance that operates on the given {@code warpManager} using only those warps that fulfill the given
-   * {@code filter}.
+   * Creates an instance that operates on the given {@code warpManager} using only those warps that match the given
+   * {@code query}.
    *
    * @param manager the WarpManager to operate on
-   * @param filter  the filter
+   * @param query   the query
    */
-  public LimitValueWarpMapping(WarpManager manager, Predicate<Warp> filter) {
+  public LimitValueWarpMapping(WarpManager manager, WarpQuery query) {
     this.manager = manager;
-    this.filter = filter;
+    this.query = query;
   }
 
   /**
@@ -57,7 +57,7 @@ public class LimitValueWarpMapping {
    * @return a Collection with all warps to be counted under the value
    */
   public Collection<Warp> get(Value value) {
-    return manager.getAll(filter.and(value.getCondition()));
+    return manager.getAll(query(value).build());
   }
 
   /**
@@ -68,6 +68,14 @@ public class LimitValueWarpMapping {
    * @return {@code true} if there are at least the given number of Warps
    */
   boolean atLeast(Value value, int count) {
-    return get(value).size() >= count;
+    if (count <= 0) {
+      // trivially true and a query cannot be limited to a negative number of warps
+      return true;
+    }
+    return manager.getNumberOfWarps(query(value).limit(count).build()) >= count;
+  }
+
+  private WarpQuery.Builder query(Value value) {
+    return query.toBuilder().types(value.getWarpTypes());
   }
 }
@@ -37,8 +37,10 @@ import io.github.mywarp.mywarp.util.i18n.DynamicMessages;
 import io.github.mywarp.mywarp.util.i18n.LocaleManager;
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.WarpManager;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 import io.github.mywarp.mywarp.warp.authorization.AuthorizationResolver;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.TreeSet;
 
@@ -65,6 +67,7 @@ public class WarpSignHandler {
   private final AuthorizationResolver authorizationResolver;
   private final WarpManager warpManager;
   private final TeleportService teleportService;
+  private final boolean caseSensitiveWarpNames;
 
   @Nullable
   private final EconomyService economyService;
@@ -78,17 +81,19 @@ public class WarpSignHandler {
    */
   public WarpSignHandler(Iterable<String> identifiers, MyWarp myWarp, @Nullable EconomyCapability economyCapability) {
     this(identifiers, myWarp.getAuthorizationResolver(), createEconomyService(economyCapability),
-         createTeleportService(myWarp, economyCapability), myWarp.getWarpManager());
+         createTeleportService(myWarp, economyCapability), myWarp.getWarpManager(),
+         myWarp.getSettings().isCaseSensitiveWarpNames());
   }
 
   private WarpSignHandler(Iterable<String> identifiers, AuthorizationResolver authorizationResolver,
                           @Nullable EconomyService economyService, TeleportService teleportService,
-                          WarpManager warpManager) {
+                          WarpManager warpManager, boolean caseSensitiveWarpNames) {
     Iterables.addAll(this.identifiers, identifiers);
     this.authorizationResolver = authorizationResolver;
     this.economyService = economyService;
     this.teleportService = teleportService;
     this.warpManager = warpManager;
+    this.caseSensitiveWarpNames = caseSensitiveWarpNames;
   }
 
   @Nullable
@@ -133,7 +138,7 @@ public class WarpSignHandler {
       return Optional.of(false);
     }
     String name = sign.getLine(WARPNAME_LINE);
-    Optional<Warp> optional = warpManager.getByName(name);
+    Optional<Warp> optional = getWarp(name);
 
     //validate warp existence
     if (!optional.isPresent()) {
@@ -228,7 +233,7 @@ public class WarpSignHandler {
 
     String warpName = sign.getLine(WARPNAME_LINE);
 
-    Optional<Warp> optional = warpManager.getByName(warpName);
+    Optional<Warp> optional = getWarp(warpName);
     if (!optional.isPresent()) {
       player.sendError(msg.getString("warp-non-existent", warpName));
       return true;
@@ -244,6 +249,22 @@ public class WarpSignHandler {
     return true;
   }
 
+  /**
+   * Gets the warp with the given name. If warp names are case insensitive, the case of the given name is ignored.
+   *
+   * @param name the name of the warp
+   * @return an Optional containing the warp
+   */
+  private Optional<Warp> getWarp(String name) {
+    Optional<Warp> ret = warpManager.getByName(name);
+    if (ret.isPresent() || caseSensitiveWarpNames) {
+      return ret;
+    }
+    // names that only differ in case can only exist if they were created while names were case sensitive
+    List<Warp> matches = warpManager.getAll(WarpQuery.builder().nameIgnoringCase(name).limit(2).build());
+    return matches.size() == 1 ? Optional.of(matches.get(0)) : Optional.empty();
+  }
+
   private boolean isWarpSign(Sign sign) {
     String identifier = sign.getLine(IDENTIFIER_LINE);
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Holds one value per player for at most a fixed duration, after which the value is loaded again on the next access.
+ *
+ * <p>A value is loaded at most once per player and period, even if several threads access it at once. The number of
+ * players held at once is bounded: once the maximum size is exceeded, expired values are dropped and, if that is not
+ * enough, the values that have been loaded first. Values of players who leave should be dropped by {@link
+ * #invalidate(UUID)}, the bound only protects against players whose departure was missed.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @param <V> the type of the cached values
+ */
+public class ExpiringPlayerCache<V> {
+
+  /**
+   * The default maximum number of players held at once, which is well above the number of players that are online on
+   * any server at the same time.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  private final ConcurrentMap<UUID, Entry> entries = new ConcurrentHashMap<UUID, Entry>();
+  private final long expiryNanos;
+  private final int maximumSize;
+
+  /**
+   * Creates an instance that holds values for at most the given {@code expiry} and of up to {@link
+   * #DEFAULT_MAXIMUM_SIZE} players.
+   *
+   * @param expiry the duration after which the value of a player is loaded again
+   * @throws IllegalArgumentException if {@code expiry} is negative
+   */
+  public ExpiringPlayerCache(Duration expiry) {
+    this(expiry, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Creates an instance that holds values for at most the given {@code expiry} and of up to {@code maximumSize}
+   * players.
+   *
+   * @param expiry      the duration after which the value of a player is loaded again
+   * @param maximumSize the maximum number of players whose values are held at once
+   * @throws IllegalArgumentException if {@code expiry} is negative or {@code maximumSize} is smaller than one
+   */
+  public ExpiringPlayerCache(Duration expiry, int maximumSize) {
+    checkArgument(!expiry.isNegative(), "'expiry' must not be negative.");
+    checkArgument(maximumSize > 0, "'maximumSize' must be at least one.");
+    this.expiryNanos = expiry.toNanos();
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Gets the value of the player identified by the given unique identifier. If there is no value or the value has
+   * expired, a new value is loaded by the given {@code loader}, which blocks other threads that access the value of
+   * the same player until it returns.
+   *
+   * @param uniqueId the unique identifier of the player
+   * @param loader   the loader that creates the value, must not return {@code null}
+   * @return the value
+   */
+  public V get(UUID uniqueId, Supplier<? extends V> loader) {
+    long now = System.nanoTime();
+    Entry entry = entries.get(uniqueId);
+    if (entry != null && !entry.isExpired(now)) {
+      return entry.value;
+    }
+    // loads atomically, so concurrent accesses after the value expired do not load it more than once
+    entry = entries.compute(uniqueId, (key, current) -> {
+      if (current != null && !current.isExpired(now)) {
+        return current;
+      }
+      return new Entry(loader.get(), now);
+    });
+    evictIfFull(now);
+    return entry.value;
+  }
+
+  /**
+   * Sets the value of the player identified by the given unique identifier, starting a new period.
+   *
+   * @param uniqueId the unique identifier of the player
+   * @param value    the value
+   */
+  public void put(UUID uniqueId, V value) {
+    long now = System.nanoTime();
+    entries.put(uniqueId, new Entry(value, now));
+    evictIfFull(now);
+  }
+
+  /**
+   * Drops the value of the player identified by the given unique identifier.
+   *
+   * @param uniqueId the unique identifier of the player
+   */
+  public void invalidate(UUID uniqueId) {
+    entries.remove(uniqueId);
+  }
+
+  /**
+   * Drops the values of all players.
+   */
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Applies the given {@code action} to the values of all players that have not yet expired.
+   *
+   * @param action the action
+   */
+  public void forEachValue(Consumer<? super V> action) {
+    long now = System.nanoTime();
+    for (Entry entry : entries.values()) {
+      if (!entry.isExpired(now)) {
+        action.accept(entry.value);
+      }
+    }
+  }
+
+  private void evictIfFull(long now) {
+    if (entries.size() <= maximumSize) {
+      return;
+    }
+    entries.values().removeIf(entry -> entry.isExpired(now));
+    while (entries.size() > maximumSize) {
+      Optional<Map.Entry<UUID, Entry>> eldest = entries.entrySet().stream()
+          .min(Comparator.comparingLong(mapping -> mapping.getValue().createdNanos));
+      if (!eldest.isPresent()) {
+        return;
+      }
+      entries.remove(eldest.get().getKey(), eldest.get().getValue());
+    }
+  }
+
+  /**
+   * The value of a single player and the time it was loaded.
+   */
+  private class Entry {
+
+    private final V value;
+    private final long createdNanos;
+
+    Entry(V value, long createdNanos) {
+      this.value = value;
+      this.createdNanos = createdNanos;
+    }
+
+    boolean isExpired(long now) {
+      return now - createdNanos > expiryNanos;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.util;
+
+import io.github.mywarp.mywarp.platform.LocalPlayer;
+
+import java.util.UUID;
+
+/**
+ * A cache that holds data of individual players which is derived from their permissions or groups. As MyWarp cannot
+ * observe changes to permissions or groups, platforms should notify all caches whenever a player joins, leaves or
+ * does something that is likely to change them, such as changing the world.
+ */
+public interface PlayerCache {
+
+  /**
+   * Starts a new caching period for the given player, dropping everything cached so far. Platforms should call this
+   * method when the player joins.
+   *
+   * <p>Implementations may resolve data of the player ahead of time. The default implementation only calls {@link
+   * #invalidate(UUID)}.</p>
+   *
+   * @param player the player
+   */
+  default void load(LocalPlayer player) {
+    invalidate(player.getUniqueId());
+  }
+
+  /**
+   * Drops everything cached for the player identified by the given unique identifier. Platforms should call this
+   * method whenever permissions or groups of this player are likely to change and when the player leaves.
+   *
+   * @param uniqueId the unique identifier of the player
+   */
+  void invalidate(UUID uniqueId);
+
+  /**
+   * Drops everything cached for all players.
+   */
+  void invalidateAll();
+}
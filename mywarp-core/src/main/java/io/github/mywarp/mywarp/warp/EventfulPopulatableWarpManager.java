@@ -19,13 +19,9 @@
 
 package io.github.mywarp.mywarp.warp;
 
-import com.flowpowered.math.vector.Vector2f;
 import com.flowpowered.math.vector.Vector3d;
 import com.google.common.eventbus.EventBus;
 
-import io.github.mywarp.mywarp.platform.LocalEntity;
-import io.github.mywarp.mywarp.platform.LocalWorld;
-import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
 import io.github.mywarp.mywarp.warp.event.WarpAdditionEvent;
 import io.github.mywarp.mywarp.warp.event.WarpDeletionEvent;
 import io.github.mywarp.mywarp.warp.event.WarpEvent;
@@ -33,10 +29,10 @@ import io.github.mywarp.mywarp.warp.event.WarpGroupInvitesEvent;
 import io.github.mywarp.mywarp.warp.event.WarpInvitesEvent;
 import io.github.mywarp.mywarp.warp.event.WarpPlayerInvitesEvent;
 import io.github.mywarp.mywarp.warp.event.WarpUpdateEvent;
+import io.github.mywarp.mywarp.warp.event.WarpsAdditionEvent;
 
+import java.util.Collection;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * Fires events for all warps managed by it. Functional calls are all delegated to an underling PopulatableWarpManager
@@ -44,13 +40,15 @@ import java.util.stream.StreamSupport;
  *
  * <p>Events are dispatched in the {@link EventBus} given when initializing this PopulatableWarpManager. Individual
  * warps fire {@link WarpEvent}s and the manager itself fires {@link WarpAdditionEvent}s and {@link
- * WarpDeletionEvent}s when Warps are added to or removed from it. Handlers that want
+ * WarpDeletionEvent}s when Warps are added to or removed from it. Warps added in bulk fire a single {@link
+ * WarpsAdditionEvent} instead of one {@code WarpAdditionEvent} per Warp. Handlers that want
  * to listen to such events need to register themselves on the EventBus.</p>
  */
 public class EventfulPopulatableWarpManager extends ForwardingPopulatableWarpManager {
 
   private final PopulatableWarpManager delegate;
   private final EventBus eventBus;
+  private final EventPoster eventPoster = new EventPoster();
 
   /**
    * Creates an instance that posts events on the given {@code eventBus}. Further management is delegated to the given
@@ -71,15 +69,21 @@ public class EventfulPopulatableWarpManager extends ForwardingPopulatableWarpMan
 
   @Override
   public void add(Warp warp) {
-    warp = new EventfulWarp(warp);
+    warp = listenable(warp);
     delegate().add(warp);
     eventBus.post(new WarpAdditionEvent(warp));
   }
 
+  @Override
+  public void addAll(Collection<Warp> warps) {
+    Collection<Warp> listenableWarps = ListenableWarp.of(warps, eventPoster);
+    delegate().addAll(listenableWarps);
+    eventBus.post(new WarpsAdditionEvent(listenableWarps));
+  }
+
   @Override
   public void populate(Iterable<Warp> warps) {
-    delegate()
-        .populate(StreamSupport.stream(warps.spliterator(), false).map(EventfulWarp::new).collect(Collectors.toList()));
+    delegate().populate(ListenableWarp.of(warps, eventPoster));
   }
 
   @Override
@@ -88,84 +92,60 @@ public class EventfulPopulatableWarpManager extends ForwardingPopulatableWarpMan
     eventBus.post(new WarpDeletionEvent(warp));
   }
 
+  private Warp listenable(Warp warp) {
+    ListenableWarp listenable = ListenableWarp.of(warp);
+    listenable.addListener(eventPoster);
+    return listenable;
+  }
+
   /**
-   * Forwards method calls to an existing Warp and fires {@link WarpEvent}s to the parent's EventBus.
+   * Posts a {@link WarpEvent} to the parent's EventBus whenever a warp is modified.
    */
-  private class EventfulWarp extends ForwardingWarp {
-
-    private final Warp delegate;
-
-    private EventfulWarp(Warp delegate) {
-      this.delegate = delegate;
-    }
-
-    @Override
-    protected Warp delegate() {
-      return delegate;
-    }
+  private class EventPoster implements WarpListener {
 
     @Override
-    public TeleportHandler.TeleportStatus visit(LocalEntity entity, TeleportHandler handler) {
-      TeleportHandler.TeleportStatus status = delegate().visit(entity, handler);
-
-      if (status.isPositionModified()) {
-        eventBus.post(new WarpUpdateEvent(this, WarpUpdateEvent.UpdateType.VISITS));
-      }
-      return status;
+    public void onVisit(Warp warp) {
+      eventBus.post(new WarpUpdateEvent(warp, WarpUpdateEvent.UpdateType.VISITS));
     }
 
     @Override
-    public void inviteGroup(String groupId) {
-      super.inviteGroup(groupId);
-      eventBus.post(new WarpGroupInvitesEvent(this, WarpInvitesEvent.InvitationStatus.INVITE, groupId));
-
+    public void onGroupInvited(Warp warp, String groupId) {
+      eventBus.post(new WarpGroupInvitesEvent(warp, WarpInvitesEvent.InvitationStatus.INVITE, groupId));
     }
 
     @Override
-    public void invitePlayer(UUID uniqueId) {
-      super.invitePlayer(uniqueId);
-      eventBus.post(new WarpPlayerInvitesEvent(this, WarpInvitesEvent.InvitationStatus.INVITE, uniqueId));
-
+    public void onPlayerInvited(Warp warp, UUID uniqueId) {
+      eventBus.post(new WarpPlayerInvitesEvent(warp, WarpInvitesEvent.InvitationStatus.INVITE, uniqueId));
     }
 
     @Override
-    public void uninviteGroup(String groupId) {
-      super.uninviteGroup(groupId);
-      eventBus.post(new WarpGroupInvitesEvent(this, WarpInvitesEvent.InvitationStatus.UNINVITE, groupId));
-
+    public void onGroupUninvited(Warp warp, String groupId) {
+      eventBus.post(new WarpGroupInvitesEvent(warp, WarpInvitesEvent.InvitationStatus.UNINVITE, groupId));
     }
 
     @Override
-    public void uninvitePlayer(UUID uniqueId) {
-      super.uninvitePlayer(uniqueId);
-      eventBus.post(new WarpPlayerInvitesEvent(this, WarpInvitesEvent.InvitationStatus.UNINVITE, uniqueId));
-
+    public void onPlayerUninvited(Warp warp, UUID uniqueId) {
+      eventBus.post(new WarpPlayerInvitesEvent(warp, WarpInvitesEvent.InvitationStatus.UNINVITE, uniqueId));
     }
 
     @Override
-    public void setCreator(UUID uniqueId) {
-      super.setCreator(uniqueId);
-      eventBus.post(new WarpUpdateEvent(this, WarpUpdateEvent.UpdateType.CREATOR));
-
+    public void onCreatorChanged(Warp warp, UUID previousCreator) {
+      eventBus.post(new WarpUpdateEvent(warp, WarpUpdateEvent.UpdateType.CREATOR));
     }
 
     @Override
-    public void setLocation(LocalWorld world, Vector3d position, Vector2f rotation) {
-      super.setLocation(world, position, rotation);
-      eventBus.post(new WarpUpdateEvent(this, WarpUpdateEvent.UpdateType.LOCATION));
-
+    public void onLocationChanged(Warp warp, UUID previousWorld, Vector3d previousPosition) {
+      eventBus.post(new WarpUpdateEvent(warp, WarpUpdateEvent.UpdateType.LOCATION));
     }
 
     @Override
-    public void setType(Type type) {
-      super.setType(type);
-      eventBus.post(new WarpUpdateEvent(this, WarpUpdateEvent.UpdateType.TYPE));
+    public void onTypeChanged(Warp warp, Warp.Type previousType) {
+      eventBus.post(new WarpUpdateEvent(warp, WarpUpdateEvent.UpdateType.TYPE));
     }
 
     @Override
-    public void setWelcomeMessage(String welcomeMessage) {
-      super.setWelcomeMessage(welcomeMessage);
-      eventBus.post(new WarpUpdateEvent(this, WarpUpdateEvent.UpdateType.WELCOME_MESSAGE));
+    public void onWelcomeMessageChanged(Warp warp) {
+      eventBus.post(new WarpUpdateEvent(warp, WarpUpdateEvent.UpdateType.WELCOME_MESSAGE));
     }
   }
 }
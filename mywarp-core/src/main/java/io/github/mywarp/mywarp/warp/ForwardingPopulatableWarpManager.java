@@ -30,6 +30,7 @@ import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Predicate;
@@ -47,6 +48,11 @@ abstract class ForwardingPopulatableWarpManager extends ForwardingObject impleme
     delegate().add(warp);
   }
 
+  @Override
+  public void addAll(Collection<Warp> warps) {
+    delegate().addAll(warps);
+  }
+
   @Override
   public void remove(Warp warp) {
     delegate().remove(warp);
@@ -77,6 +83,16 @@ abstract class ForwardingPopulatableWarpManager extends ForwardingObject impleme
     return delegate().getNumberOfWarps(predicate);
   }
 
+  @Override
+  public List<Warp> getAll(WarpQuery query) {
+    return delegate().getAll(query);
+  }
+
+  @Override
+  public int getNumberOfWarps(WarpQuery query) {
+    return delegate().getNumberOfWarps(query);
+  }
+
   @Override
   public int getNumberOfAllWarps() {
     return delegate().getNumberOfAllWarps();
@@ -100,7 +116,7 @@ abstract class ForwardingPopulatableWarpManager extends ForwardingObject impleme
    * of the backing Warp as desired per the <a href="http://en.wikipedia .org/wiki/Decorator_pattern">decorator
    * pattern</a>.
    */
-  abstract class ForwardingWarp extends ForwardingObject implements Warp {
+  abstract static class ForwardingWarp extends ForwardingObject implements Warp {
 
     @Override
     public TeleportHandler.TeleportStatus visit(LocalEntity entity, TeleportHandler handler) {
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.Iterables;
+
+import io.github.mywarp.mywarp.platform.LocalEntity;
+import io.github.mywarp.mywarp.platform.LocalWorld;
+import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A Warp that notifies {@link WarpListener}s whenever it is modified.
+ *
+ * <p>Managers that need to react on modifications of the warps they manage register a listener instead of wrapping
+ * each warp into another decorator, so every managed warp is wrapped exactly once, regardless of how many managers are
+ * stacked. As managers are decorators themselves, listeners registered later, by the managers further inside, are
+ * notified first.</p>
+ *
+ * <p>In addition, a single guarded listener can be registered together with a Lock. The modification itself and the
+ * notification of this listener are done while holding the lock, before any other listener is notified. This allows
+ * managers to keep their internal state consistent with the warp without exposing the lock to the other
+ * listeners.</p>
+ */
+final class ListenableWarp extends ForwardingPopulatableWarpManager.ForwardingWarp {
+
+  private static final WarpListener[] NO_LISTENERS = new WarpListener[0];
+
+  private final Warp delegate;
+  private volatile WarpListener[] listeners = NO_LISTENERS;
+  @Nullable
+  private volatile Guard guard;
+
+  private ListenableWarp(Warp delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Gets the given warp as ListenableWarp. If the given warp is not a ListenableWarp, it is wrapped into one.
+   *
+   * @param warp the warp
+   * @return the warp as ListenableWarp
+   */
+  static ListenableWarp of(Warp warp) {
+    if (warp instanceof ListenableWarp) {
+      return (ListenableWarp) warp;
+    }
+    return new ListenableWarp(warp);
+  }
+
+  /**
+   * Registers the given listener on all given warps and returns them as ListenableWarps. Warps that are not yet
+   * ListenableWarps are wrapped into one. If all given warps already are ListenableWarps, the given collection is
+   * returned without copying it.
+   *
+   * @param warps    the warps
+   * @param listener the listener
+   * @return a Collection with the given warps as ListenableWarps
+   */
+  static Collection<Warp> of(Iterable<Warp> warps, WarpListener listener) {
+    if (warps instanceof Collection && Iterables.all(warps, warp -> warp instanceof ListenableWarp)) {
+      for (Warp warp : warps) {
+        ((ListenableWarp) warp).addListener(listener);
+      }
+      return (Collection<Warp>) warps;
+    }
+    List<Warp> ret = new ArrayList<Warp>();
+    for (Warp warp : warps) {
+      ListenableWarp listenable = of(warp);
+      listenable.addListener(listener);
+      ret.add(listenable);
+    }
+    return ret;
+  }
+
+  @Override
+  protected Warp delegate() {
+    return delegate;
+  }
+
+  /**
+   * Registers the given listener. The listener is notified before all listeners that are already registered. Does
+   * nothing if the listener is already registered.
+   *
+   * @param listener the listener
+   */
+  synchronized void addListener(WarpListener listener) {
+    if (Arrays.asList(listeners).contains(listener)) {
+      return;
+    }
+    WarpListener[] updated = new WarpListener[listeners.length + 1];
+    updated[0] = listener;
+    System.arraycopy(listeners, 0, updated, 1, listeners.length);
+    listeners = updated;
+  }
+
+  /**
+   * Registers the given listener as guarded listener. Modifications and the notification of this listener are done
+   * while holding the given lock. Does nothing if the listener is already registered with the same lock.
+   *
+   * @param listener the listener
+   * @param lock     the lock
+   * @throws IllegalStateException if another guarded listener is already registered
+   */
+  synchronized void setGuardedListener(WarpListener listener, Lock lock) {
+    Guard current = guard;
+    if (current != null) {
+      checkState(current.listener == listener && current.lock == lock, "A guarded listener is already registered.");
+      return;
+    }
+    guard = new Guard(listener, lock);
+  }
+
+  @Override
+  public TeleportHandler.TeleportStatus visit(LocalEntity entity, TeleportHandler handler) {
+    // teleports are expensive, so only the notification of the guarded listener holds the lock
+    TeleportHandler.TeleportStatus status = super.visit(entity, handler);
+
+    if (status.isPositionModified()) {
+      Guard guard = this.guard;
+      if (guard != null) {
+        guard.lock.lock();
+        try {
+          guard.listener.onVisit(this);
+        } finally {
+          guard.lock.unlock();
+        }
+      }
+      notifyListeners(listener -> listener.onVisit(this));
+    }
+    return status;
+  }
+
+  @Override
+  public void inviteGroup(String groupId) {
+    modify(() -> {
+      super.inviteGroup(groupId);
+      return listener -> listener.onGroupInvited(this, groupId);
+    });
+  }
+
+  @Override
+  public void invitePlayer(UUID uniqueId) {
+    modify(() -> {
+      super.invitePlayer(uniqueId);
+      return listener -> listener.onPlayerInvited(this, uniqueId);
+    });
+  }
+
+  @Override
+  public void uninviteGroup(String groupId) {
+    modify(() -> {
+      super.uninviteGroup(groupId);
+      return listener -> listener.onGroupUninvited(this, groupId);
+    });
+  }
+
+  @Override
+  public void uninvitePlayer(UUID uniqueId) {
+    modify(() -> {
+      super.uninvitePlayer(uniqueId);
+      return listener -> listener.onPlayerUninvited(this, uniqueId);
+    });
+  }
+
+  @Override
+  public void setCreator(UUID uniqueId) {
+    modify(() -> {
+      UUID previousCreator = getCreator();
+      super.setCreator(uniqueId);
+      return listener -> listener.onCreatorChanged(this, previousCreator);
+    });
+  }
+
+  @Override
+  public void setLocation(LocalWorld world, Vector3d position, Vector2f rotation) {
+    modify(() -> {
+      UUID previousWorld = getWorldIdentifier();
+      Vector3d previousPosition = getPosition();
+      super.setLocation(world, position, rotation);
+      return listener -> listener.onLocationChanged(this, previousWorld, previousPosition);
+    });
+  }
+
+  @Override
+  public void setType(Type type) {
+    modify(() -> {
+      Type previousType = getType();
+      super.setType(type);
+      return listener -> listener.onTypeChanged(this, previousType);
+    });
+  }
+
+  @Override
+  public void setWelcomeMessage(String welcomeMessage) {
+    modify(() -> {
+      super.setWelcomeMessage(welcomeMessage);
+      return listener -> listener.onWelcomeMessageChanged(this);
+    });
+  }
+
+  /**
+   * Runs the given modification and notifies all listeners with the notification it returns. The modification and
+   * the notification of the guarded listener, if any, are done while holding the guard's lock, as the values the
+   * notification carries must be read together with the modification.
+   *
+   * @param modification modifies this warp and returns the notification of a single listener
+   */
+  private void modify(Supplier<Consumer<WarpListener>> modification) {
+    Guard guard = this.guard;
+    Consumer<WarpListener> notification;
+    if (guard == null) {
+      notification = modification.get();
+    } else {
+      guard.lock.lock();
+      try {
+        notification = modification.get();
+        notification.accept(guard.listener);
+      } finally {
+        guard.lock.unlock();
+      }
+    }
+    notifyListeners(notification);
+  }
+
+  private void notifyListeners(Consumer<WarpListener> notification) {
+    for (WarpListener listener : listeners) {
+      notification.accept(listener);
+    }
+  }
+
+  /**
+   * A listener that is notified while holding a lock.
+   */
+  private static class Guard {
+
+    private final WarpListener listener;
+    private final Lock lock;
+
+    Guard(WarpListener listener, Lock lock) {
+      this.listener = listener;
+      this.lock = lock;
+    }
+  }
+}
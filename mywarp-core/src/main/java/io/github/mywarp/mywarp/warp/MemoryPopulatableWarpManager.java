@@ -21,29 +21,92 @@ package io.github.mywarp.mywarp.warp;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * Stores managed warp in memory.
+ *
+ * <p>Besides their names, which are also indexed ignoring case both sorted and hashed, warps are indexed by their
+ * creator, world, position, type and invited players and groups. Additionally, warps are counted per creator, world
+ * and type, so limits can be checked without visiting any warp, and ranked by popularity. The indexes are updated
+ * whenever a managed warp is modified, so modifications must go through the warps returned by this manager.</p>
+ *
+ * <p>Instances are thread-safe: they may be read from any thread while being modified or populated.</p>
  */
 public class MemoryPopulatableWarpManager implements PopulatableWarpManager {
 
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
   private final Map<String, Warp> warpMap = new HashMap<String, Warp>();
+  private final WarpIndex<UUID> creatorIndex = WarpIndex.of(Warp::getCreator);
+  private final WarpIndex<UUID> worldIndex = WarpIndex.of(Warp::getWorldIdentifier);
+  private final WarpIndex<Warp.Type> typeIndex = WarpIndex.of(Warp::getType);
+  private final WarpIndex<UUID> invitedPlayerIndex = WarpIndex.ofMultiple(Warp::getInvitedPlayers);
+  private final WarpIndex<String> invitedGroupIndex = WarpIndex.ofMultiple(Warp::getInvitedGroups);
+  private final SpatialIndex spatialIndex = new SpatialIndex();
+  private final NameIndex nameIndex = new NameIndex();
+  private final WarpIndex<String> foldedNameIndex = WarpIndex.of(warp -> NameIndex.fold(warp.getName()));
+  private final WarpCounter counter = new WarpCounter();
+  private final PopularityIndex popularityIndex = new PopularityIndex();
+  private final IndexUpdater indexUpdater = new IndexUpdater();
 
   @Override
   public void add(Warp warp) {
-    checkArgument(!containsByName(warp.getName()), "A warp with the name '%s' does already exist!", warp.getName());
-    warpMap.put(warp.getName(), warp);
+    write(() -> {
+      checkArgument(!warpMap.containsKey(warp.getName()), "A warp with the name '%s' does already exist!",
+                    warp.getName());
+      index(warp);
+    });
+  }
+
+  @Override
+  public void addAll(Collection<Warp> warps) {
+    write(() -> {
+      Set<String> names = new HashSet<String>();
+      for (Warp warp : warps) {
+        checkArgument(!warpMap.containsKey(warp.getName()), "A warp with the name '%s' does already exist!",
+                      warp.getName());
+        checkArgument(names.add(warp.getName()), "The name '%s' is used by multiple warps!", warp.getName());
+      }
+      warps.forEach(this::index);
+    });
   }
 
   @Override
   public void remove(Warp warp) {
-    warpMap.remove(warp.getName());
+    write(() -> {
+      Warp indexed = warpMap.remove(warp.getName());
+      if (indexed != null) {
+        creatorIndex.remove(indexed);
+        worldIndex.remove(indexed);
+        typeIndex.remove(indexed);
+        invitedPlayerIndex.remove(indexed);
+        invitedGroupIndex.remove(indexed);
+        spatialIndex.remove(indexed.getWorldIdentifier(), indexed.getPosition(), indexed);
+        nameIndex.remove(indexed);
+        foldedNameIndex.remove(indexed);
+        counter.remove(indexed);
+        popularityIndex.remove(indexed);
+      }
+    });
   }
 
   @Override
@@ -53,36 +116,383 @@ public class MemoryPopulatableWarpManager implements PopulatableWarpManager {
 
   @Override
   public boolean containsByName(String name) {
-    return warpMap.containsKey(name);
+    return read(() -> warpMap.containsKey(name));
   }
 
   @Override
   public Optional<Warp> getByName(String name) {
-    return Optional.ofNullable(warpMap.get(name));
+    return read(() -> Optional.ofNullable(warpMap.get(name)));
   }
 
   @Override
   public Collection<Warp> getAll(Predicate<Warp> predicate) {
-    return warpMap.values().stream().filter(predicate).collect(Collectors.toList());
+    return read(() -> {
+      List<Warp> ret = new ArrayList<Warp>();
+      for (Warp warp : warpMap.values()) {
+        if (predicate.test(warp)) {
+          ret.add(warp);
+        }
+      }
+      return ret;
+    });
   }
 
   @Override
   public int getNumberOfWarps(Predicate<Warp> predicate) {
-    return getAll(predicate).size();
+    return read(() -> {
+      int count = 0;
+      for (Warp warp : warpMap.values()) {
+        if (predicate.test(warp)) {
+          count++;
+        }
+      }
+      return count;
+    });
+  }
+
+  @Override
+  public List<Warp> getAll(WarpQuery query) {
+    if (query.isOrderedByPopularity()) {
+      return getMostPopular(query);
+    }
+    if (query.isOrderedByDistance() && query.getLimit() < Integer.MAX_VALUE) {
+      // search outwards from the reference point until enough matches are found
+      return read(() -> spatialIndex.getNearest(query.getReferenceWorld().get(), query.getReferencePoint().get(), query,
+                                                query.getLimit()));
+    }
+
+    Optional<Comparator<Warp>> order = query.getOrder();
+    // without an order, the first matches found can be returned
+    int limit = order.isPresent() ? Integer.MAX_VALUE : query.getLimit();
+
+    List<Warp> matches = read(() -> {
+      List<Warp> ret = new ArrayList<Warp>();
+      for (Warp warp : candidates(query)) {
+        if (ret.size() >= limit) {
+          break;
+        }
+        if (query.test(warp)) {
+          ret.add(warp);
+        }
+      }
+      return ret;
+    });
+
+    if (!order.isPresent()) {
+      return matches;
+    }
+    if (matches.size() > query.getLimit()) {
+      return Ordering.from(order.get()).leastOf(matches, query.getLimit());
+    }
+    matches.sort(order.get());
+    return matches;
+  }
+
+  /**
+   * Gets the warps matching the given query ordered by popularity. If no index narrows the query, the popularity
+   * ranking is walked until enough matches are found. Otherwise the candidates are sorted by their rank.
+   *
+   * @param query the query
+   * @return the most popular warps matching the query
+   */
+  private List<Warp> getMostPopular(WarpQuery query) {
+    if (read(popularityIndex::isOutdated)) {
+      write(popularityIndex::refresh);
+    }
+    return read(() -> {
+      Iterable<Warp> candidates = candidates(query);
+      List<Warp> ret = new ArrayList<Warp>();
+      if (candidates == warpMap.values()) {
+        for (Warp warp : popularityIndex.getRanked()) {
+          if (ret.size() >= query.getLimit()) {
+            break;
+          }
+          if (query.test(warp)) {
+            ret.add(warp);
+          }
+        }
+        return ret;
+      }
+      for (Warp warp : candidates) {
+        if (query.test(warp)) {
+          ret.add(warp);
+        }
+      }
+      if (ret.size() > query.getLimit()) {
+        return Ordering.from(popularityIndex.comparator()).leastOf(ret, query.getLimit());
+      }
+      ret.sort(popularityIndex.comparator());
+      return ret;
+    });
+  }
+
+  @Override
+  public int getNumberOfWarps(WarpQuery query) {
+    if (query.isCreatorWorldAndTypeOnly()) {
+      return read(() -> Math.min(counter.count(query.getCreator().get(), query.getWorlds(), query.getTypes()),
+                                 query.getLimit()));
+    }
+    return read(() -> {
+      int count = 0;
+      for (Warp warp : candidates(query)) {
+        if (count >= query.getLimit()) {
+          break;
+        }
+        if (query.test(warp)) {
+          count++;
+        }
+      }
+      return count;
+    });
   }
 
   @Override
   public int getNumberOfAllWarps() {
-    return warpMap.size();
+    return read(warpMap::size);
   }
 
   @Override
   public void populate(Iterable<Warp> warps) {
-    warps.forEach(this::add);
+    write(() -> warps.forEach(warp -> {
+      checkArgument(!warpMap.containsKey(warp.getName()), "A warp with the name '%s' does already exist!",
+                    warp.getName());
+      index(warp);
+    }));
   }
 
   @Override
   public void depopulate() {
-    warpMap.clear();
+    write(() -> {
+      warpMap.clear();
+      creatorIndex.clear();
+      worldIndex.clear();
+      typeIndex.clear();
+      invitedPlayerIndex.clear();
+      invitedGroupIndex.clear();
+      spatialIndex.clear();
+      nameIndex.clear();
+      foldedNameIndex.clear();
+      counter.clear();
+      popularityIndex.clear();
+    });
+  }
+
+  /**
+   * Gets the smallest set of warps that contains all warps matching the given query. Each criterion backed by an index
+   * is considered and the one that matches the fewest warps is used. Must be called with the read lock held.
+   *
+   * @param query the query
+   * @return all candidates for the query
+   */
+  private Iterable<Warp> candidates(WarpQuery query) {
+    Iterable<Warp> candidates = warpMap.values();
+    int size = warpMap.size();
+
+    Optional<String> nameIgnoringCase = query.getNameIgnoringCase();
+    if (nameIgnoringCase.isPresent()) {
+      // at most a few warps share a name ignoring case, so no other index can be more selective
+      return foldedNameIndex.get(NameIndex.fold(nameIgnoringCase.get()));
+    }
+    Optional<UUID> creator = query.getCreator();
+    if (creator.isPresent() && creatorIndex.count(creator.get()) < size) {
+      candidates = creatorIndex.get(creator.get());
+      size = creatorIndex.count(creator.get());
+    }
+    Optional<UUID> referenceWorld = query.getReferenceWorld();
+    if (referenceWorld.isPresent() && worldIndex.count(referenceWorld.get()) < size) {
+      candidates = worldIndex.get(referenceWorld.get());
+      size = worldIndex.count(referenceWorld.get());
+    }
+    if (!query.getWorlds().isEmpty() && worldIndex.count(query.getWorlds()) < size) {
+      candidates = worldIndex.get(query.getWorlds());
+      size = worldIndex.count(query.getWorlds());
+    }
+    if (!query.getTypes().isEmpty() && typeIndex.count(query.getTypes()) < size) {
+      candidates = typeIndex.get(query.getTypes());
+      size = typeIndex.count(query.getTypes());
+    }
+    Optional<UUID> invitedPlayer = query.getInvitedPlayer();
+    if (invitedPlayer.isPresent() && invitedPlayerIndex.count(invitedPlayer.get()) < size) {
+      candidates = invitedPlayerIndex.get(invitedPlayer.get());
+      size = invitedPlayerIndex.count(invitedPlayer.get());
+    }
+    Optional<String> invitedGroup = query.getInvitedGroup();
+    if (invitedGroup.isPresent() && invitedGroupIndex.count(invitedGroup.get()) < size) {
+      candidates = invitedGroupIndex.get(invitedGroup.get());
+      size = invitedGroupIndex.count(invitedGroup.get());
+    }
+    Optional<UUID> accessingPlayer = query.getAccessingPlayer();
+    if (accessingPlayer.isPresent()) {
+      Optional<Set<Warp>> accessible = accessibleBy(accessingPlayer.get(), query.getAccessingGroups(), size);
+      if (accessible.isPresent()) {
+        candidates = accessible.get();
+        size = accessible.get().size();
+      }
+    }
+    Optional<String> namePrefix = query.getNamePrefix();
+    if (namePrefix.isPresent() && nameIndex.countByPrefix(namePrefix.get(), size) < size) {
+      candidates = nameIndex.getByPrefix(namePrefix.get());
+      size = nameIndex.countByPrefix(namePrefix.get(), size);
+    }
+    Optional<Vector3d> areaCenter = query.getAreaCenter();
+    if (areaCenter.isPresent() && size > 0) {
+      // checked last, as collecting the warps in an area is more expensive than looking up an index
+      List<Warp> inArea = spatialIndex.getWithin(query.getAreaWorld().get(), areaCenter.get(), query.getAreaRadius());
+      if (inArea.size() < size) {
+        candidates = inArea;
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Gets all warps that are public, created by or invited the given player or one of the player's groups, if there are
+   * fewer than {@code max} of them. Their number is estimated from the indexes before any warp is collected. Must be
+   * called with the read lock held.
+   *
+   * @param player          the unique identifier of the player
+   * @param groupMembership a Predicate that evaluates to {@code true} if the player is a member of the tested group
+   * @param max             the number of warps from which on an empty Optional is returned
+   * @return an Optional containing all warps the player can access
+   */
+  private Optional<Set<Warp>> accessibleBy(UUID player, Predicate<String> groupMembership, int max) {
+    int estimate = typeIndex.count(Warp.Type.PUBLIC) + creatorIndex.count(player) + invitedPlayerIndex.count(player);
+    if (estimate >= max) {
+      return Optional.empty();
+    }
+    List<String> groups = new ArrayList<String>();
+    for (String groupId : invitedGroupIndex.keys()) {
+      if (groupMembership.test(groupId)) {
+        groups.add(groupId);
+        estimate += invitedGroupIndex.count(groupId);
+      }
+    }
+    if (estimate >= max) {
+      return Optional.empty();
+    }
+    Set<Warp> ret = new HashSet<Warp>(typeIndex.get(Warp.Type.PUBLIC));
+    ret.addAll(creatorIndex.get(player));
+    ret.addAll(invitedPlayerIndex.get(player));
+    Iterables.addAll(ret, invitedGroupIndex.get(groups));
+    return Optional.of(ret);
+  }
+
+  /**
+   * Registers a listener on the given warp so changes are reflected in the indexes and stores it. Must be called with
+   * the write lock held.
+   *
+   * @param warp the warp
+   */
+  private void index(Warp warp) {
+    ListenableWarp indexed = ListenableWarp.of(warp);
+    indexed.setGuardedListener(indexUpdater, lock.writeLock());
+    warpMap.put(indexed.getName(), indexed);
+    creatorIndex.add(indexed);
+    worldIndex.add(indexed);
+    typeIndex.add(indexed);
+    invitedPlayerIndex.add(indexed);
+    invitedGroupIndex.add(indexed);
+    spatialIndex.add(indexed);
+    nameIndex.add(indexed);
+    foldedNameIndex.add(indexed);
+    counter.add(indexed);
+    popularityIndex.add(indexed);
+  }
+
+  private <T> T read(Supplier<T> supplier) {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return supplier.get();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  private void write(Runnable runnable) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      runnable.run();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Updates the indexes whenever a property of a managed warp is changed. The listener is registered as guarded
+   * listener, so the write lock is held while the change is made and readers never see a warp whose indexes are out of
+   * date.
+   */
+  private class IndexUpdater implements WarpListener {
+
+    /**
+     * Returns whether the given warp is still managed. Warps that have been removed must not be indexed again when
+     * they are modified afterwards.
+     *
+     * @param warp the warp
+     * @return {@code true} if the warp is managed
+     */
+    private boolean isManaged(Warp warp) {
+      return warpMap.get(warp.getName()) == warp;
+    }
+
+    @Override
+    public void onVisit(Warp warp) {
+      popularityIndex.update(warp);
+    }
+
+    @Override
+    public void onGroupInvited(Warp warp, String groupId) {
+      if (isManaged(warp)) {
+        invitedGroupIndex.add(groupId, warp);
+      }
+    }
+
+    @Override
+    public void onPlayerInvited(Warp warp, UUID uniqueId) {
+      if (isManaged(warp)) {
+        invitedPlayerIndex.add(uniqueId, warp);
+      }
+    }
+
+    @Override
+    public void onGroupUninvited(Warp warp, String groupId) {
+      invitedGroupIndex.remove(groupId, warp);
+    }
+
+    @Override
+    public void onPlayerUninvited(Warp warp, UUID uniqueId) {
+      invitedPlayerIndex.remove(uniqueId, warp);
+    }
+
+    @Override
+    public void onCreatorChanged(Warp warp, UUID previousCreator) {
+      if (isManaged(warp)) {
+        creatorIndex.move(previousCreator, warp.getCreator(), warp);
+        counter.remove(previousCreator, warp.getWorldIdentifier(), warp.getType());
+        counter.add(warp);
+      }
+    }
+
+    @Override
+    public void onLocationChanged(Warp warp, UUID previousWorld, Vector3d previousPosition) {
+      if (isManaged(warp)) {
+        worldIndex.move(previousWorld, warp.getWorldIdentifier(), warp);
+        spatialIndex.remove(previousWorld, previousPosition, warp);
+        spatialIndex.add(warp);
+        counter.remove(warp.getCreator(), previousWorld, warp.getType());
+        counter.add(warp);
+      }
+    }
+
+    @Override
+    public void onTypeChanged(Warp warp, Warp.Type previousType) {
+      if (isManaged(warp)) {
+        typeIndex.move(previousType, warp.getType(), warp);
+        counter.remove(warp.getCreator(), warp.getWorldIdentifier(), previousType);
+        counter.add(warp);
+      }
+    }
   }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Indexes warps by their name, ignoring case, in alphabetical order. Warps whose name starts with a certain prefix can
+ * be looked up in logarithmic time.
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+final class NameIndex {
+
+  // keys are the folded name followed by the original name, so names that only differ in case are kept apart
+  private final NavigableMap<String, Warp> entries = new TreeMap<String, Warp>();
+
+  /**
+   * Indexes the given warp.
+   *
+   * @param warp the warp
+   */
+  void add(Warp warp) {
+    entries.put(toKey(warp.getName()), warp);
+  }
+
+  /**
+   * Removes the given warp.
+   *
+   * @param warp the warp
+   */
+  void remove(Warp warp) {
+    entries.remove(toKey(warp.getName()));
+  }
+
+  /**
+   * Gets an unmodifiable view of all warps whose name starts with the given prefix, ignoring case, in alphabetical
+   * order.
+   *
+   * @param prefix the prefix
+   * @return all warps whose name starts with the prefix
+   */
+  Collection<Warp> getByPrefix(String prefix) {
+    return range(fold(prefix)).values();
+  }
+
+  /**
+   * Counts the warps whose name starts with the given prefix, ignoring case. Counting stops once {@code max} warps
+   * have been counted.
+   *
+   * @param prefix the prefix
+   * @param max    the maximum number to count
+   * @return the number of warps whose name starts with the prefix, but at most {@code max}
+   */
+  int countByPrefix(String prefix, int max) {
+    int count = 0;
+    for (String ignored : range(fold(prefix)).keySet()) {
+      if (count >= max) {
+        break;
+      }
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Removes all warps from this index.
+   */
+  void clear() {
+    entries.clear();
+  }
+
+  private NavigableMap<String, Warp> range(String foldedPrefix) {
+    if (foldedPrefix.isEmpty()) {
+      return entries;
+    }
+    // the first string that is greater than every string starting with the prefix
+    int last = foldedPrefix.length() - 1;
+    char lastChar = foldedPrefix.charAt(last);
+    if (lastChar == Character.MAX_VALUE) {
+      return entries.tailMap(foldedPrefix, true);
+    }
+    String end = foldedPrefix.substring(0, last) + (char) (lastChar + 1);
+    return entries.subMap(foldedPrefix, true, end, false);
+  }
+
+  private static String toKey(String name) {
+    return fold(name) + '\0' + name;
+  }
+
+  /**
+   * Folds the case of the given string. Two strings are equal after folding if {@link String#regionMatches(boolean,
+   * int, String, int, int)} considers them equal when ignoring case.
+   *
+   * @param string the string
+   * @return the folded string
+   */
+  static String fold(String string) {
+    char[] chars = string.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import com.google.common.collect.ComparisonChain;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Ranks warps by popularity in the order defined by {@link Warp.PopularityComparator}.
+ *
+ * <p>Scores are computed once per scoring epoch of one minute rather than on every comparison. A warp is ranked anew
+ * when it is visited, all warps are ranked anew when the epoch is over. As scores depend on the number of whole days a
+ * warp exists, rankings within an epoch equal those of a PopularityComparator created at the beginning of the
+ * epoch.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+final class PopularityIndex {
+
+  private final Map<Warp, Double> scores = new IdentityHashMap<Warp, Double>();
+  private final NavigableSet<Warp> ranking = new TreeSet<Warp>(this::compare);
+  private Instant epoch = currentEpoch();
+
+  /**
+   * Ranks the given warp.
+   *
+   * @param warp the warp
+   */
+  void add(Warp warp) {
+    scores.put(warp, Warp.PopularityComparator.popularityScore(warp, epoch));
+    ranking.add(warp);
+  }
+
+  /**
+   * Removes the given warp from the ranking.
+   *
+   * @param warp the warp
+   */
+  void remove(Warp warp) {
+    if (scores.containsKey(warp)) {
+      ranking.remove(warp);
+      scores.remove(warp);
+    }
+  }
+
+  /**
+   * Ranks the given warp anew, because the number of its visits changed. Does nothing if the warp is not ranked.
+   *
+   * @param warp the warp
+   */
+  void update(Warp warp) {
+    if (scores.containsKey(warp)) {
+      remove(warp);
+      add(warp);
+    }
+  }
+
+  /**
+   * Returns whether the current scoring epoch is over and {@link #refresh()} needs to be called before the ranking is
+   * read.
+   *
+   * @return {@code true} if the ranking is outdated
+   */
+  boolean isOutdated() {
+    return !epoch.equals(currentEpoch());
+  }
+
+  /**
+   * Ranks all warps anew if the current scoring epoch is over.
+   */
+  void refresh() {
+    Instant current = currentEpoch();
+    if (epoch.equals(current)) {
+      return;
+    }
+    epoch = current;
+    ranking.clear();
+    for (Map.Entry<Warp, Double> entry : scores.entrySet()) {
+      entry.setValue(Warp.PopularityComparator.popularityScore(entry.getKey(), epoch));
+    }
+    ranking.addAll(scores.keySet());
+  }
+
+  /**
+   * Gets all ranked warps, most popular first.
+   *
+   * @return the ranked warps
+   */
+  Iterable<Warp> getRanked() {
+    return Collections.unmodifiableSet(ranking);
+  }
+
+  /**
+   * Gets a Comparator that orders ranked warps by their rank, most popular first. The Comparator must only be used to
+   * compare warps that are ranked by this index.
+   *
+   * @return the Comparator
+   */
+  Comparator<Warp> comparator() {
+    return this::compare;
+  }
+
+  /**
+   * Removes all warps from the ranking.
+   */
+  void clear() {
+    scores.clear();
+    ranking.clear();
+  }
+
+  private int compare(Warp w1, Warp w2) {
+    return ComparisonChain.start().compare(scores.get(w2).doubleValue(), scores.get(w1).doubleValue())
+        .compare(w2.getCreationDate(), w1.getCreationDate()).compare(w1.getName(), w2.getName()).result();
+  }
+
+  private static Instant currentEpoch() {
+    return Instant.now().truncatedTo(ChronoUnit.MINUTES);
+  }
+}
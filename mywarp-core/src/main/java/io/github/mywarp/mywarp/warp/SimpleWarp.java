@@ -36,13 +36,16 @@ import java.util.UUID;
 
 /**
  * A simple implementation that natively stores its properties.
+ *
+ * <p>Invited players and groups are stored as immutable sets that are replaced whenever an invitation changes. Reading
+ * them therefore never copies and checking an invitation never allocates, while invitations change rarely.</p>
  */
 class SimpleWarp extends AbstractWarp {
 
   private final String name;
   private final Instant creationDate;
-  private final Set<UUID> invitedPlayers;
-  private final Set<String> invitedGroups;
+  private volatile ImmutableSet<UUID> invitedPlayers;
+  private volatile ImmutableSet<String> invitedGroups;
 
   private volatile UUID creator;
   private volatile Warp.Type type;
@@ -74,9 +77,9 @@ class SimpleWarp extends AbstractWarp {
     this.name = checkNotNull(name);
     this.creationDate = checkNotNull(creationDate);
     checkArgument(!checkNotNull(invitedPlayers).contains(null), "'invitedPlayers' must not contain null.");
-    this.invitedPlayers = invitedPlayers;
+    this.invitedPlayers = ImmutableSet.copyOf(invitedPlayers);
     checkArgument(!checkNotNull(invitedGroups).contains(null), "'invitedGroups' must not contain null.");
-    this.invitedGroups = invitedGroups;
+    this.invitedGroups = ImmutableSet.copyOf(invitedGroups);
     this.creator = checkNotNull(creator);
     this.type = checkNotNull(type);
     this.worldIdentifier = checkNotNull(worldIdentifier);
@@ -97,23 +100,33 @@ class SimpleWarp extends AbstractWarp {
   }
 
   @Override
-  public void inviteGroup(String groupId) {
-    invitedGroups.add(groupId);
+  public synchronized void inviteGroup(String groupId) {
+    invitedGroups = with(invitedGroups, checkNotNull(groupId));
+  }
+
+  @Override
+  public synchronized void invitePlayer(UUID uniqueId) {
+    invitedPlayers = with(invitedPlayers, checkNotNull(uniqueId));
+  }
+
+  @Override
+  public synchronized void uninviteGroup(String groupId) {
+    invitedGroups = without(invitedGroups, groupId);
   }
 
   @Override
-  public void invitePlayer(UUID uniqueId) {
-    invitedPlayers.add(uniqueId);
+  public synchronized void uninvitePlayer(UUID uniqueId) {
+    invitedPlayers = without(invitedPlayers, uniqueId);
   }
 
   @Override
-  public void uninviteGroup(String groupId) {
-    invitedGroups.remove(groupId);
+  public boolean isPlayerInvited(UUID uniqueId) {
+    return invitedPlayers.contains(uniqueId);
   }
 
   @Override
-  public void uninvitePlayer(UUID uniqueId) {
-    invitedPlayers.remove(uniqueId);
+  public boolean isGroupInvited(String groupId) {
+    return invitedGroups.contains(groupId);
   }
 
   @Override
@@ -128,12 +141,12 @@ class SimpleWarp extends AbstractWarp {
 
   @Override
   public ImmutableSet<String> getInvitedGroups() {
-    return ImmutableSet.copyOf(invitedGroups);
+    return invitedGroups;
   }
 
   @Override
   public ImmutableSet<UUID> getInvitedPlayers() {
-    return ImmutableSet.copyOf(invitedPlayers);
+    return invitedPlayers;
   }
 
   @Override
@@ -200,4 +213,24 @@ class SimpleWarp extends AbstractWarp {
            + ", worldIdentifier=" + worldIdentifier + ", position=" + position + ", rotation=" + rotation + ", visits="
            + visits + ", welcomeMessage='" + welcomeMessage + '\'' + '}';
   }
+
+  private static <E> ImmutableSet<E> with(ImmutableSet<E> set, E element) {
+    if (set.contains(element)) {
+      return set;
+    }
+    return ImmutableSet.<E>builder().addAll(set).add(element).build();
+  }
+
+  private static <E> ImmutableSet<E> without(ImmutableSet<E> set, E element) {
+    if (!set.contains(element)) {
+      return set;
+    }
+    ImmutableSet.Builder<E> builder = ImmutableSet.builder();
+    for (E contained : set) {
+      if (!contained.equals(element)) {
+        builder.add(contained);
+      }
+    }
+    return builder.build();
+  }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import com.flowpowered.math.vector.Vector3d;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Indexes warps by their position. Each world is divided into a grid of square cells on the x and z axis and every
+ * warp is stored in the cell that contains its position.
+ *
+ * <p>Instances are not thread-safe. Warps must be removed with the world and position they were added with, so callers
+ * must remove warps before their location changes and add them again afterwards.</p>
+ */
+final class SpatialIndex {
+
+  /**
+   * The binary logarithm of the length of a cell's edge, in blocks.
+   */
+  private static final int CELL_SHIFT = 6;
+  private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+  private final Map<UUID, Grid> grids = new HashMap<UUID, Grid>();
+
+  /**
+   * Indexes the given warp under its current world and position.
+   *
+   * @param warp the warp
+   */
+  void add(Warp warp) {
+    Grid grid = grids.get(warp.getWorldIdentifier());
+    if (grid == null) {
+      grid = new Grid();
+      grids.put(warp.getWorldIdentifier(), grid);
+    }
+    grid.add(warp.getPosition(), warp);
+  }
+
+  /**
+   * Removes the given warp, which was indexed under the given world and position.
+   *
+   * @param world    the identifier of the world the warp was indexed under
+   * @param position the position the warp was indexed under
+   * @param warp     the warp
+   */
+  void remove(UUID world, Vector3d position, Warp warp) {
+    Grid grid = grids.get(world);
+    if (grid != null && grid.remove(position, warp) && grid.isEmpty()) {
+      grids.remove(world);
+    }
+  }
+
+  /**
+   * Gets all warps located in the given world that might be within the given radius around the given center. The
+   * returned List may contain warps that are located outside of the radius, but never misses a warp inside.
+   *
+   * @param world  the identifier of the world
+   * @param center the center
+   * @param radius the radius
+   * @return all candidates within the radius
+   */
+  List<Warp> getWithin(UUID world, Vector3d center, double radius) {
+    Grid grid = grids.get(world);
+    if (grid == null) {
+      return new ArrayList<Warp>();
+    }
+    return grid.getWithin(center, radius);
+  }
+
+  /**
+   * Gets up to {@code count} warps located in the given world that fulfill the given {@code filter}, ordered by their
+   * distance to the given point, nearest first.
+   *
+   * @param world  the identifier of the world
+   * @param point  the point
+   * @param filter the filter warps must fulfill
+   * @param count  the maximum number of warps
+   * @return the nearest warps
+   */
+  List<Warp> getNearest(UUID world, Vector3d point, Predicate<Warp> filter, int count) {
+    Grid grid = grids.get(world);
+    if (grid == null || count <= 0) {
+      return new ArrayList<Warp>();
+    }
+    return grid.getNearest(point, filter, count);
+  }
+
+  /**
+   * Removes all warps from this index.
+   */
+  void clear() {
+    grids.clear();
+  }
+
+  private static int toCell(double coordinate) {
+    return (int) Math.floor(coordinate) >> CELL_SHIFT;
+  }
+
+  private static long toKey(int cellX, int cellZ) {
+    return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+  }
+
+  /**
+   * The cells of a single world.
+   */
+  private static final class Grid {
+
+    private final Map<Long, Set<Warp>> cells = new HashMap<Long, Set<Warp>>();
+
+    // the bounds of all cells ever occupied, they are not shrunk when warps are removed
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellZ = Integer.MAX_VALUE;
+    private int maxCellZ = Integer.MIN_VALUE;
+
+    void add(Vector3d position, Warp warp) {
+      int cellX = toCell(position.getX());
+      int cellZ = toCell(position.getZ());
+      Set<Warp> cell = cells.get(toKey(cellX, cellZ));
+      if (cell == null) {
+        cell = new HashSet<Warp>();
+        cells.put(toKey(cellX, cellZ), cell);
+      }
+      cell.add(warp);
+
+      minCellX = Math.min(minCellX, cellX);
+      maxCellX = Math.max(maxCellX, cellX);
+      minCellZ = Math.min(minCellZ, cellZ);
+      maxCellZ = Math.max(maxCellZ, cellZ);
+    }
+
+    boolean remove(Vector3d position, Warp warp) {
+      long key = toKey(toCell(position.getX()), toCell(position.getZ()));
+      Set<Warp> cell = cells.get(key);
+      if (cell == null || !cell.remove(warp)) {
+        return false;
+      }
+      if (cell.isEmpty()) {
+        cells.remove(key);
+      }
+      return true;
+    }
+
+    boolean isEmpty() {
+      return cells.isEmpty();
+    }
+
+    List<Warp> getWithin(Vector3d center, double radius) {
+      int fromX = toCell(center.getX() - radius);
+      int toX = toCell(center.getX() + radius);
+      int fromZ = toCell(center.getZ() - radius);
+      int toZ = toCell(center.getZ() + radius);
+
+      List<Warp> ret = new ArrayList<Warp>();
+      if ((long) (toX - fromX + 1) * (toZ - fromZ + 1) > cells.size()) {
+        // the area covers more cells than are occupied
+        for (Map.Entry<Long, Set<Warp>> entry : cells.entrySet()) {
+          int cellX = (int) (entry.getKey() >> 32);
+          int cellZ = (int) entry.getKey().longValue();
+          if (cellX >= fromX && cellX <= toX && cellZ >= fromZ && cellZ <= toZ) {
+            ret.addAll(entry.getValue());
+          }
+        }
+        return ret;
+      }
+
+      for (int cellX = fromX; cellX <= toX; cellX++) {
+        for (int cellZ = fromZ; cellZ <= toZ; cellZ++) {
+          Set<Warp> cell = cells.get(toKey(cellX, cellZ));
+          if (cell != null) {
+            ret.addAll(cell);
+          }
+        }
+      }
+      return ret;
+    }
+
+    List<Warp> getNearest(Vector3d point, Predicate<Warp> filter, int count) {
+      Comparator<Warp> byDistance = Comparator.comparingDouble(warp -> warp.getPosition().distanceSquared(point));
+      // holds the nearest warps found so far, the farthest one at the head
+      PriorityQueue<Warp> nearest = new PriorityQueue<Warp>(Math.min(count, 64) + 1, byDistance.reversed());
+
+      int centerX = toCell(point.getX());
+      int centerZ = toCell(point.getZ());
+      int maxRing = Math.max(Math.max(centerX - minCellX, maxCellX - centerX),
+                             Math.max(centerZ - minCellZ, maxCellZ - centerZ));
+
+      // search rings of cells around the center until no closer warp can be found
+      for (int ring = 0; ring <= maxRing; ring++) {
+        if (nearest.size() == count) {
+          // warps in this ring are at least this far away on the x or z axis
+          double minDistance = (ring - 1) * (double) CELL_SIZE;
+          double farthest = nearest.peek().getPosition().distanceSquared(point);
+          if (minDistance > 0 && minDistance * minDistance > farthest) {
+            break;
+          }
+        }
+
+        if (8L * ring > cells.size()) {
+          // the ring covers more cells than are occupied, so check all remaining cells directly
+          for (Map.Entry<Long, Set<Warp>> entry : cells.entrySet()) {
+            int cellX = (int) (entry.getKey() >> 32);
+            int cellZ = (int) entry.getKey().longValue();
+            if (Math.max(Math.abs(cellX - centerX), Math.abs(cellZ - centerZ)) >= ring) {
+              offer(entry.getValue(), filter, count, nearest, byDistance);
+            }
+          }
+          break;
+        }
+
+        for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+          boolean edge = cellX == centerX - ring || cellX == centerX + ring;
+          for (int cellZ = centerZ - ring; cellZ <= centerZ + ring; cellZ += edge || ring == 0 ? 1 : 2 * ring) {
+            Set<Warp> cell = cells.get(toKey(cellX, cellZ));
+            if (cell != null) {
+              offer(cell, filter, count, nearest, byDistance);
+            }
+          }
+        }
+      }
+
+      List<Warp> ret = new ArrayList<Warp>(nearest);
+      ret.sort(byDistance);
+      return ret;
+    }
+
+    private static void offer(Set<Warp> cell, Predicate<Warp> filter, int count, PriorityQueue<Warp> nearest,
+                              Comparator<Warp> byDistance) {
+      for (Warp warp : cell) {
+        if (nearest.size() == count && byDistance.compare(warp, nearest.peek()) >= 0) {
+          continue;
+        }
+        if (!filter.test(warp)) {
+          continue;
+        }
+        nearest.offer(warp);
+        if (nearest.size() > count) {
+          nearest.poll();
+        }
+      }
+    }
+  }
+}
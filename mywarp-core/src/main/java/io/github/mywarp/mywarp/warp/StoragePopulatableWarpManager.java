@@ -19,17 +19,12 @@
 
 package io.github.mywarp.mywarp.warp;
 
-import com.flowpowered.math.vector.Vector2f;
 import com.flowpowered.math.vector.Vector3d;
 
-import io.github.mywarp.mywarp.platform.LocalEntity;
-import io.github.mywarp.mywarp.platform.LocalWorld;
-import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
 import io.github.mywarp.mywarp.warp.storage.WarpStorage;
 
+import java.util.Collection;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * Stores all warps managed in a {@link WarpStorage}. Calls are all delegated to an underling PopulatableWarpManager as
@@ -39,6 +34,7 @@ public class StoragePopulatableWarpManager extends ForwardingPopulatableWarpMana
 
   private final PopulatableWarpManager delegate;
   private final WarpStorage storage;
+  private final StorageWriter storageWriter = new StorageWriter();
 
   /**
    * Creates an instance that stores warps in the given {@code storage}. Further management is delegated to the given
@@ -59,9 +55,17 @@ public class StoragePopulatableWarpManager extends ForwardingPopulatableWarpMana
 
   @Override
   public void add(Warp warp) {
-    warp = new PersistentWarp(warp);
-    delegate().add(warp);
-    storage.addWarp(warp);
+    ListenableWarp listenable = ListenableWarp.of(warp);
+    listenable.addListener(storageWriter);
+    delegate().add(listenable);
+    storage.addWarp(listenable);
+  }
+
+  @Override
+  public void addAll(Collection<Warp> warps) {
+    Collection<Warp> listenableWarps = ListenableWarp.of(warps, storageWriter);
+    delegate().addAll(listenableWarps);
+    storage.addWarps(listenableWarps);
   }
 
   @Override
@@ -72,88 +76,57 @@ public class StoragePopulatableWarpManager extends ForwardingPopulatableWarpMana
 
   @Override
   public void populate(Iterable<Warp> warps) {
-    delegate().populate(
-        StreamSupport.stream(warps.spliterator(), false).map(PersistentWarp::new).collect(Collectors.toList()));
+    delegate().populate(ListenableWarp.of(warps, storageWriter));
   }
 
   /**
-   * A Warp that persists its values using a {@link StoragePopulatableWarpManager}.
+   * Persists the values of a warp using the parent's {@link WarpStorage} whenever the warp is modified.
    */
-  private class PersistentWarp extends ForwardingWarp {
-
-    private final Warp delegate;
-
-    private PersistentWarp(Warp delegate) {
-      this.delegate = delegate;
-    }
-
-    @Override
-    protected Warp delegate() {
-      return delegate;
-    }
+  private class StorageWriter implements WarpListener {
 
     @Override
-    public TeleportHandler.TeleportStatus visit(LocalEntity entity, TeleportHandler handler) {
-      TeleportHandler.TeleportStatus status = delegate().visit(entity, handler);
-
-      if (status.isPositionModified()) {
-        storage.updateVisits(delegate());
-      }
-      return status;
+    public void onVisit(Warp warp) {
+      storage.updateVisits(warp);
     }
 
     @Override
-    public void inviteGroup(String groupId) {
-      super.inviteGroup(groupId);
-      storage.inviteGroup(delegate(), groupId);
-
+    public void onGroupInvited(Warp warp, String groupId) {
+      storage.inviteGroup(warp, groupId);
     }
 
     @Override
-    public void invitePlayer(UUID uniqueId) {
-      super.invitePlayer(uniqueId);
-      storage.invitePlayer(delegate(), uniqueId);
-
+    public void onPlayerInvited(Warp warp, UUID uniqueId) {
+      storage.invitePlayer(warp, uniqueId);
     }
 
     @Override
-    public void uninviteGroup(String groupId) {
-      super.uninviteGroup(groupId);
-      storage.uninviteGroup(delegate(), groupId);
-
+    public void onGroupUninvited(Warp warp, String groupId) {
+      storage.uninviteGroup(warp, groupId);
     }
 
     @Override
-    public void uninvitePlayer(UUID uniqueId) {
-      super.uninvitePlayer(uniqueId);
-      storage.uninvitePlayer(delegate(), uniqueId);
-
+    public void onPlayerUninvited(Warp warp, UUID uniqueId) {
+      storage.uninvitePlayer(warp, uniqueId);
     }
 
     @Override
-    public void setCreator(UUID uniqueId) {
-      super.setCreator(uniqueId);
-      storage.updateCreator(delegate());
-
+    public void onCreatorChanged(Warp warp, UUID previousCreator) {
+      storage.updateCreator(warp);
     }
 
     @Override
-    public void setLocation(LocalWorld world, Vector3d position, Vector2f rotation) {
-      super.setLocation(world, position, rotation);
-      storage.updateLocation(delegate());
-
+    public void onLocationChanged(Warp warp, UUID previousWorld, Vector3d previousPosition) {
+      storage.updateLocation(warp);
     }
 
     @Override
-    public void setType(Type type) {
-      super.setType(type);
-      storage.updateType(delegate());
+    public void onTypeChanged(Warp warp, Warp.Type previousType) {
+      storage.updateType(warp);
     }
 
     @Override
-    public void setWelcomeMessage(String welcomeMessage) {
-      super.setWelcomeMessage(welcomeMessage);
-      storage.updateWelcomeMessage(delegate());
+    public void onWelcomeMessageChanged(Warp warp) {
+      storage.updateWelcomeMessage(warp);
     }
   }
 }
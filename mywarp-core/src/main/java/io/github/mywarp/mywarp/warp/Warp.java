@@ -32,6 +32,8 @@ import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -257,29 +259,42 @@ public interface Warp extends Comparable<Warp> {
    * <p>Warps with a higher popularity score are preferred over Warps with lower score. If the score is equal, newer
    * Warps are preferred over older Warps. If both Warps were created at the same millisecond, the alphabetically
    * first is preferred.</p>
+   *
+   * <p>Scores are computed relative to the time the comparator is created, once per Warp. Instances are therefore
+   * not thread-safe and should be used for a single sort only. Managers may answer queries sorted by an instance of
+   * this class from a ranking they maintain.</p>
    */
   class PopularityComparator implements Comparator<Warp> {
 
     private static final double GRAVITY_CONSTANT = 0.8;
 
+    private final Instant now = Instant.now();
+    private final Map<Warp, Double> scores = new IdentityHashMap<Warp, Double>();
+
     @Override
     public int compare(Warp w1, Warp w2) {
-      return ComparisonChain.start().compare(popularityScore(w2), popularityScore(w1))
+      return ComparisonChain.start().compare(score(w2), score(w1))
           .compare(w2.getCreationDate(), w1.getCreationDate()).compare(w1.getName(), w2.getName()).result();
     }
 
+    private double score(Warp warp) {
+      return scores.computeIfAbsent(warp, w -> popularityScore(w, now));
+    }
+
     /**
-     * Computes the popularity score of the given {@code warp}. The score depends on the number of visits of the
-     * Warp as well as the warp's age.
+     * Computes the popularity score of the given {@code warp} at the given instant. The score depends on the number of
+     * visits of the Warp as well as the warp's age.
      *
+     * @param warp the warp
+     * @param now  the instant
      * @return the popularity score of this Warp
      */
     //FIXME
-    private double popularityScore(Warp warp) {
+    static double popularityScore(Warp warp, Instant now) {
       // a basic implementation of the hacker news ranking algorithm detailed
       // at http://amix.dk/blog/post/19574: Older warps receive lower scores
       // due to the influence of the gravity constant.
-      double daysExisting = Duration.between(warp.getCreationDate(), Instant.now()).toMillis() / (1000 * 60 * 60 * 24L);
+      double daysExisting = Duration.between(warp.getCreationDate(), now).toMillis() / (1000 * 60 * 60 * 24L);
       return warp.getVisits() / Math.pow(daysExisting, GRAVITY_CONSTANT);
     }
   }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Counts warps per creator, world and type, so that the number of warps a player created on some worlds with some
+ * types can be determined without visiting these warps.
+ *
+ * <p>Instances are not thread-safe. Callers must move warps whose creator, world or type changes from the old to the
+ * new combination.</p>
+ */
+final class WarpCounter {
+
+  private static final Set<Warp.Type> ALL_TYPES = Collections.unmodifiableSet(EnumSet.allOf(Warp.Type.class));
+
+  private final Map<UUID, Map<UUID, int[]>> counts = new HashMap<UUID, Map<UUID, int[]>>();
+
+  /**
+   * Counts the given warp under its current creator, world and type.
+   *
+   * @param warp the warp
+   */
+  void add(Warp warp) {
+    add(warp.getCreator(), warp.getWorldIdentifier(), warp.getType());
+  }
+
+  /**
+   * Counts a warp under the given creator, world and type.
+   *
+   * @param creator the creator
+   * @param world   the world
+   * @param type    the type
+   */
+  void add(UUID creator, UUID world, Warp.Type type) {
+    counts.computeIfAbsent(creator, k -> new HashMap<UUID, int[]>())
+        .computeIfAbsent(world, k -> new int[Warp.Type.values().length])[type.ordinal()]++;
+  }
+
+  /**
+   * Stops counting the given warp under its current creator, world and type.
+   *
+   * @param warp the warp
+   */
+  void remove(Warp warp) {
+    remove(warp.getCreator(), warp.getWorldIdentifier(), warp.getType());
+  }
+
+  /**
+   * Stops counting a warp under the given creator, world and type.
+   *
+   * @param creator the creator
+   * @param world   the world
+   * @param type    the type
+   */
+  void remove(UUID creator, UUID world, Warp.Type type) {
+    Map<UUID, int[]> worlds = counts.get(creator);
+    if (worlds == null) {
+      return;
+    }
+    int[] types = worlds.get(world);
+    if (types == null || types[type.ordinal()] == 0) {
+      return;
+    }
+    types[type.ordinal()]--;
+    if (isEmpty(types)) {
+      worlds.remove(world);
+      if (worlds.isEmpty()) {
+        counts.remove(creator);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of warps of the given creator that exist on any of the given worlds and have any of the given
+   * types. An empty set of worlds or types matches every world or type.
+   *
+   * @param creator the creator
+   * @param worlds  the worlds
+   * @param types   the types
+   * @return the number of matching warps
+   */
+  int count(UUID creator, Set<UUID> worlds, Set<Warp.Type> types) {
+    Map<UUID, int[]> byWorld = counts.get(creator);
+    if (byWorld == null) {
+      return 0;
+    }
+    Set<Warp.Type> countedTypes = types.isEmpty() ? ALL_TYPES : types;
+    int ret = 0;
+    if (worlds.isEmpty()) {
+      for (int[] byType : byWorld.values()) {
+        ret += count(byType, countedTypes);
+      }
+    } else {
+      for (UUID world : worlds) {
+        int[] byType = byWorld.get(world);
+        if (byType != null) {
+          ret += count(byType, countedTypes);
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Removes all counts.
+   */
+  void clear() {
+    counts.clear();
+  }
+
+  private static int count(int[] byType, Set<Warp.Type> types) {
+    int ret = 0;
+    for (Warp.Type type : types) {
+      ret += byType[type.ordinal()];
+    }
+    return ret;
+  }
+
+  private static boolean isEmpty(int[] byType) {
+    for (int count : byType) {
+      if (count > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
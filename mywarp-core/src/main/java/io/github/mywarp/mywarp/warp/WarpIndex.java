@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Indexes warps by a property, such as their creator or world. A warp may be indexed under multiple keys.
+ *
+ * <p>Instances are not thread-safe. Warps are indexed under the keys returned by the key function when they are
+ * added, so callers must move warps whose property changes from the old to the new key.</p>
+ *
+ * @param <K> the type of keys
+ */
+final class WarpIndex<K> {
+
+  private final Map<K, Set<Warp>> entries = new HashMap<K, Set<Warp>>();
+  private final Function<Warp, ? extends Iterable<K>> keyFunction;
+
+  private WarpIndex(Function<Warp, ? extends Iterable<K>> keyFunction) {
+    this.keyFunction = keyFunction;
+  }
+
+  /**
+   * Creates an index that indexes each warp under the single key returned by {@code keyFunction}.
+   *
+   * @param keyFunction the function that returns the key of a warp
+   * @param <K>         the type of keys
+   * @return a new index
+   */
+  static <K> WarpIndex<K> of(Function<Warp, K> keyFunction) {
+    return new WarpIndex<K>(warp -> Collections.singleton(keyFunction.apply(warp)));
+  }
+
+  /**
+   * Creates an index that indexes each warp under all keys returned by {@code keysFunction}.
+   *
+   * @param keysFunction the function that returns the keys of a warp
+   * @param <K>          the type of keys
+   * @return a new index
+   */
+  static <K> WarpIndex<K> ofMultiple(Function<Warp, ? extends Iterable<K>> keysFunction) {
+    return new WarpIndex<K>(keysFunction);
+  }
+
+  /**
+   * Indexes the given warp under all its current keys.
+   *
+   * @param warp the warp
+   */
+  void add(Warp warp) {
+    for (K key : keyFunction.apply(warp)) {
+      add(key, warp);
+    }
+  }
+
+  /**
+   * Removes the given warp from all its current keys.
+   *
+   * @param warp the warp
+   */
+  void remove(Warp warp) {
+    for (K key : keyFunction.apply(warp)) {
+      remove(key, warp);
+    }
+  }
+
+  /**
+   * Indexes the given warp under the given key.
+   *
+   * @param key  the key
+   * @param warp the warp
+   */
+  void add(K key, Warp warp) {
+    Set<Warp> warps = entries.get(key);
+    if (warps == null) {
+      warps = new HashSet<Warp>();
+      entries.put(key, warps);
+    }
+    warps.add(warp);
+  }
+
+  /**
+   * Removes the given warp from the given key.
+   *
+   * @param key  the key
+   * @param warp the warp
+   */
+  void remove(K key, Warp warp) {
+    Set<Warp> warps = entries.get(key);
+    if (warps != null && warps.remove(warp) && warps.isEmpty()) {
+      entries.remove(key);
+    }
+  }
+
+  /**
+   * Moves the given warp from the {@code oldKey} to the {@code newKey}.
+   *
+   * @param oldKey the key the warp is currently indexed under
+   * @param newKey the key the warp should be indexed under
+   * @param warp   the warp
+   */
+  void move(K oldKey, K newKey, Warp warp) {
+    if (!oldKey.equals(newKey)) {
+      remove(oldKey, warp);
+      add(newKey, warp);
+    }
+  }
+
+  /**
+   * Gets an unmodifiable view of all warps indexed under the given key.
+   *
+   * @param key the key
+   * @return all warps indexed under the key
+   */
+  Set<Warp> get(K key) {
+    Set<Warp> warps = entries.get(key);
+    return warps != null ? Collections.unmodifiableSet(warps) : ImmutableSet.<Warp>of();
+  }
+
+  /**
+   * Gets an unmodifiable view of all warps indexed under any of the given keys. If a warp is indexed under multiple of
+   * the keys, it is contained multiple times.
+   *
+   * @param keys the keys
+   * @return all warps indexed under the keys
+   */
+  Iterable<Warp> get(Iterable<K> keys) {
+    return Iterables.concat(Iterables.transform(keys, this::get));
+  }
+
+  /**
+   * Gets an unmodifiable view of all keys at least one warp is indexed under.
+   *
+   * @return all keys
+   */
+  Set<K> keys() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Gets the number of warps indexed under the given key.
+   *
+   * @param key the key
+   * @return the number of warps
+   */
+  int count(K key) {
+    Set<Warp> warps = entries.get(key);
+    return warps != null ? warps.size() : 0;
+  }
+
+  /**
+   * Gets the number of warps indexed under any of the given keys. If a warp is indexed under multiple of the keys, it
+   * is counted multiple times.
+   *
+   * @param keys the keys
+   * @return the number of warps
+   */
+  int count(Iterable<K> keys) {
+    int count = 0;
+    for (K key : keys) {
+      count += count(key);
+    }
+    return count;
+  }
+
+  /**
+   * Removes all warps from this index.
+   */
+  void clear() {
+    entries.clear();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import com.flowpowered.math.vector.Vector3d;
+
+import java.util.UUID;
+
+/**
+ * Listens for modifications of a {@link ListenableWarp}. Listeners are called after the modification was made to the
+ * warp, from the thread that made it.
+ *
+ * <p>All methods do nothing by default, so implementations only need to override the methods for the modifications
+ * they are interested in.</p>
+ */
+interface WarpListener {
+
+  /**
+   * Called when the warp was visited.
+   *
+   * @param warp the warp
+   */
+  default void onVisit(Warp warp) {
+  }
+
+  /**
+   * Called when a group was invited to the warp.
+   *
+   * @param warp    the warp
+   * @param groupId the identifier of the group
+   */
+  default void onGroupInvited(Warp warp, String groupId) {
+  }
+
+  /**
+   * Called when a player was invited to the warp.
+   *
+   * @param warp     the warp
+   * @param uniqueId the unique identifier of the player
+   */
+  default void onPlayerInvited(Warp warp, UUID uniqueId) {
+  }
+
+  /**
+   * Called when a group was uninvited from the warp.
+   *
+   * @param warp    the warp
+   * @param groupId the identifier of the group
+   */
+  default void onGroupUninvited(Warp warp, String groupId) {
+  }
+
+  /**
+   * Called when a player was uninvited from the warp.
+   *
+   * @param warp     the warp
+   * @param uniqueId the unique identifier of the player
+   */
+  default void onPlayerUninvited(Warp warp, UUID uniqueId) {
+  }
+
+  /**
+   * Called when the creator of the warp was changed.
+   *
+   * @param warp            the warp
+   * @param previousCreator the unique identifier of the previous creator
+   */
+  default void onCreatorChanged(Warp warp, UUID previousCreator) {
+  }
+
+  /**
+   * Called when the location of the warp was changed.
+   *
+   * @param warp             the warp
+   * @param previousWorld    the identifier of the previous world
+   * @param previousPosition the previous position
+   */
+  default void onLocationChanged(Warp warp, UUID previousWorld, Vector3d previousPosition) {
+  }
+
+  /**
+   * Called when the type of the warp was changed.
+   *
+   * @param warp         the warp
+   * @param previousType the previous type
+   */
+  default void onTypeChanged(Warp warp, Warp.Type previousType) {
+  }
+
+  /**
+   * Called when the welcome message of the warp was changed.
+   *
+   * @param warp the warp
+   */
+  default void onWelcomeMessageChanged(Warp warp) {
+  }
+}
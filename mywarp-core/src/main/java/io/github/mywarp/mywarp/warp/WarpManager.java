@@ -20,6 +20,7 @@
 package io.github.mywarp.mywarp.warp;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -39,6 +40,16 @@ public interface WarpManager {
    */
   void add(Warp warp);
 
+  /**
+   * Adds all given {@code warps} to this manager. Implementations should prefer a single bulk operation over adding
+   * each Warp individually.
+   *
+   * @param warps the Warps to add
+   * @throws IllegalArgumentException if this manager already contains a warp with the name of one of the given ones or
+   *                                  if the names of the given Warps are not unique
+   */
+  void addAll(Collection<Warp> warps);
+
   /**
    * Removes the given {@code warp} from this manager.
    *
@@ -86,6 +97,26 @@ public interface WarpManager {
    */
   int getNumberOfWarps(Predicate<Warp> predicate);
 
+  /**
+   * Gets a List with all Warps on this manager that match the given {@code query}. The List is ordered and limited as
+   * defined by the query.
+   *
+   * <p>Implementations should use the criteria of the query to avoid testing every warp they manage.</p>
+   *
+   * @param query the query to match
+   * @return all Warps that match the query
+   */
+  List<Warp> getAll(WarpQuery query);
+
+  /**
+   * Gets the number of Warps managed by this manager that match the given {@code query}. The number never exceeds the
+   * limit of the query.
+   *
+   * @param query the query to match
+   * @return the number of Warps that match the query
+   */
+  int getNumberOfWarps(WarpQuery query);
+
   /**
    * Gets the number of all Warps managed by this manger.
    *
@@ -0,0 +1,662 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+/**
+ * A declarative query for warps managed by a {@link WarpManager}.
+ *
+ * <p>Unlike an opaque {@link Predicate}, a query exposes its criteria so managers can answer it from indexes instead
+ * of testing every warp they contain. A warp matches a query if it fulfills all of the query's criteria. Criteria
+ * that cannot be expressed declaratively can still be added via {@link Builder#filter(Predicate)}, but managers will
+ * always test them against every candidate.</p>
+ *
+ * <p>Instances are immutable and can be created via {@link #builder()}.</p>
+ */
+public final class WarpQuery implements Predicate<Warp> {
+
+  private static final Predicate<Warp> ANY = warp -> true;
+  private static final Predicate<String> NO_GROUP = groupId -> false;
+  private static final WarpQuery ALL = builder().build();
+
+  @Nullable
+  private final UUID creator;
+  private final ImmutableSet<UUID> worlds;
+  private final ImmutableSet<Warp.Type> types;
+  @Nullable
+  private final String namePrefix;
+  @Nullable
+  private final String nameIgnoringCase;
+  @Nullable
+  private final String nameSubstring;
+  @Nullable
+  private final UUID areaWorld;
+  @Nullable
+  private final Vector3d areaCenter;
+  private final double areaRadius;
+  @Nullable
+  private final UUID invitedPlayer;
+  @Nullable
+  private final String invitedGroup;
+  @Nullable
+  private final UUID accessingPlayer;
+  private final Predicate<String> accessingGroups;
+  @Nullable
+  private final UUID referenceWorld;
+  @Nullable
+  private final Vector3d referencePoint;
+  private final Predicate<Warp> filter;
+  @Nullable
+  private final Comparator<Warp> order;
+  private final int limit;
+
+  private WarpQuery(Builder builder) {
+    this.creator = builder.creator;
+    this.worlds = builder.worlds;
+    this.types = builder.types;
+    this.namePrefix = builder.namePrefix;
+    this.nameIgnoringCase = builder.nameIgnoringCase;
+    this.nameSubstring = builder.nameSubstring;
+    this.areaWorld = builder.areaWorld;
+    this.areaCenter = builder.areaCenter;
+    this.areaRadius = builder.areaRadius;
+    this.invitedPlayer = builder.invitedPlayer;
+    this.invitedGroup = builder.invitedGroup;
+    this.accessingPlayer = builder.accessingPlayer;
+    this.accessingGroups = builder.accessingGroups;
+    this.referenceWorld = builder.referenceWorld;
+    this.referencePoint = builder.referencePoint;
+    this.filter = builder.filter;
+    this.order = builder.order;
+    this.limit = builder.limit;
+  }
+
+  /**
+   * Gets a query that matches all warps.
+   *
+   * @return a query matching all warps
+   */
+  public static WarpQuery all() {
+    return ALL;
+  }
+
+  /**
+   * Creates a new builder without any criteria.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Creates a new builder that is initialized with all criteria, the order and the limit of this query.
+   *
+   * @return a new builder
+   */
+  public Builder toBuilder() {
+    Builder builder = new Builder();
+    builder.creator = creator;
+    builder.worlds = worlds;
+    builder.types = types;
+    builder.namePrefix = namePrefix;
+    builder.nameIgnoringCase = nameIgnoringCase;
+    builder.nameSubstring = nameSubstring;
+    builder.areaWorld = areaWorld;
+    builder.areaCenter = areaCenter;
+    builder.areaRadius = areaRadius;
+    builder.invitedPlayer = invitedPlayer;
+    builder.invitedGroup = invitedGroup;
+    builder.accessingPlayer = accessingPlayer;
+    builder.accessingGroups = accessingGroups;
+    builder.referenceWorld = referenceWorld;
+    builder.referencePoint = referencePoint;
+    builder.filter = filter;
+    builder.order = order;
+    builder.limit = limit;
+    return builder;
+  }
+
+  /**
+   * Returns whether the given {@code warp} fulfills all criteria of this query. Order and limit are not considered.
+   *
+   * @param warp the warp to test
+   * @return {@code true} if the warp matches this query
+   */
+  @Override
+  public boolean test(Warp warp) {
+    if (creator != null && !warp.isCreator(creator)) {
+      return false;
+    }
+    if (!worlds.isEmpty() && !worlds.contains(warp.getWorldIdentifier())) {
+      return false;
+    }
+    if (!types.isEmpty() && !types.contains(warp.getType())) {
+      return false;
+    }
+    if (namePrefix != null && !warp.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length())) {
+      return false;
+    }
+    if (nameIgnoringCase != null && !warp.getName().equalsIgnoreCase(nameIgnoringCase)) {
+      return false;
+    }
+    if (nameSubstring != null && !StringUtils.containsIgnoreCase(warp.getName(), nameSubstring)) {
+      return false;
+    }
+    if (areaCenter != null && (!warp.getWorldIdentifier().equals(areaWorld)
+                               || warp.getPosition().distanceSquared(areaCenter) > areaRadius * areaRadius)) {
+      return false;
+    }
+    if (invitedPlayer != null && !warp.isPlayerInvited(invitedPlayer)) {
+      return false;
+    }
+    if (invitedGroup != null && !warp.isGroupInvited(invitedGroup)) {
+      return false;
+    }
+    if (accessingPlayer != null && !isAccessible(warp)) {
+      return false;
+    }
+    if (referenceWorld != null && !warp.getWorldIdentifier().equals(referenceWorld)) {
+      return false;
+    }
+    return filter.test(warp);
+  }
+
+  private boolean isAccessible(Warp warp) {
+    if (warp.isType(Warp.Type.PUBLIC) || warp.isCreator(accessingPlayer) || warp.isPlayerInvited(accessingPlayer)) {
+      return true;
+    }
+    for (String groupId : warp.getInvitedGroups()) {
+      if (accessingGroups.test(groupId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets an Optional containing the unique identifier of the creator that matching warps must have.
+   *
+   * @return an Optional containing the required creator
+   */
+  public Optional<UUID> getCreator() {
+    return Optional.ofNullable(creator);
+  }
+
+  /**
+   * Gets the identifiers of the worlds matching warps must be located in. If the returned set is empty, warps may be
+   * located in any world.
+   *
+   * @return the allowed worlds
+   */
+  public ImmutableSet<UUID> getWorlds() {
+    return worlds;
+  }
+
+  /**
+   * Gets the types matching warps must have. If the returned set is empty, warps may have any type.
+   *
+   * @return the allowed types
+   */
+  public ImmutableSet<Warp.Type> getTypes() {
+    return types;
+  }
+
+  /**
+   * Gets an Optional containing the string the names of matching warps must start with, ignoring case.
+   *
+   * @return an Optional containing the required name prefix
+   */
+  public Optional<String> getNamePrefix() {
+    return Optional.ofNullable(namePrefix);
+  }
+
+  /**
+   * Gets an Optional containing the name matching warps must have, ignoring case.
+   *
+   * @return an Optional containing the required name
+   */
+  public Optional<String> getNameIgnoringCase() {
+    return Optional.ofNullable(nameIgnoringCase);
+  }
+
+  /**
+   * Gets an Optional containing the string the names of matching warps must contain, ignoring case.
+   *
+   * @return an Optional containing the required name substring
+   */
+  public Optional<String> getNameSubstring() {
+    return Optional.ofNullable(nameSubstring);
+  }
+
+  /**
+   * Gets an Optional containing the identifier of the world that contains the area matching warps must be located in.
+   * The Optional is present if, and only if, {@link #getAreaCenter()} is present.
+   *
+   * @return an Optional containing the world of the required area
+   */
+  public Optional<UUID> getAreaWorld() {
+    return Optional.ofNullable(areaWorld);
+  }
+
+  /**
+   * Gets an Optional containing the center of the area matching warps must be located in.
+   *
+   * @return an Optional containing the center of the required area
+   */
+  public Optional<Vector3d> getAreaCenter() {
+    return Optional.ofNullable(areaCenter);
+  }
+
+  /**
+   * Gets the radius of the area matching warps must be located in. The value is only meaningful if {@link
+   * #getAreaCenter()} is present.
+   *
+   * @return the radius of the required area
+   */
+  public double getAreaRadius() {
+    return areaRadius;
+  }
+
+  /**
+   * Gets an Optional containing the unique identifier of a player who must be invited to matching warps.
+   *
+   * @return an Optional containing the required invited player
+   */
+  public Optional<UUID> getInvitedPlayer() {
+    return Optional.ofNullable(invitedPlayer);
+  }
+
+  /**
+   * Gets an Optional containing the identifier of a group that must be invited to matching warps.
+   *
+   * @return an Optional containing the required invited group
+   */
+  public Optional<String> getInvitedGroup() {
+    return Optional.ofNullable(invitedGroup);
+  }
+
+  /**
+   * Gets an Optional containing the unique identifier of a player matching warps must be accessible by.
+   *
+   * @return an Optional containing the accessing player
+   * @see Builder#accessibleBy(UUID, Predicate)
+   */
+  public Optional<UUID> getAccessingPlayer() {
+    return Optional.ofNullable(accessingPlayer);
+  }
+
+  /**
+   * Gets a Predicate that evaluates to {@code true} if the accessing player is a member of the tested group. If {@link
+   * #getAccessingPlayer()} is empty, the Predicate evaluates to {@code false} for every group.
+   *
+   * @return a Predicate that tests the groups of the accessing player
+   */
+  public Predicate<String> getAccessingGroups() {
+    return accessingGroups;
+  }
+
+  /**
+   * Gets an Optional containing the identifier of the world that contains the reference point. The Optional is present
+   * if, and only if, {@link #getReferencePoint()} is present.
+   *
+   * @return an Optional containing the world of the reference point
+   */
+  public Optional<UUID> getReferenceWorld() {
+    return Optional.ofNullable(referenceWorld);
+  }
+
+  /**
+   * Gets an Optional containing the point matching warps are ordered by distance to, unless another order is set
+   * explicitly.
+   *
+   * @return an Optional containing the reference point
+   * @see Builder#closestTo(UUID, Vector3d)
+   */
+  public Optional<Vector3d> getReferencePoint() {
+    return Optional.ofNullable(referencePoint);
+  }
+
+  /**
+   * Returns whether matching warps are ordered by their distance to the reference point, nearest first.
+   *
+   * @return {@code true} if warps are ordered by distance
+   */
+  public boolean isOrderedByDistance() {
+    return referencePoint != null && order == null;
+  }
+
+  /**
+   * Returns whether matching warps are ordered by popularity, that is by a {@link Warp.PopularityComparator}.
+   *
+   * @return {@code true} if warps are ordered by popularity
+   */
+  public boolean isOrderedByPopularity() {
+    return order instanceof Warp.PopularityComparator;
+  }
+
+  /**
+   * Gets an Optional containing the Comparator that defines the order of matching warps. If the Optional is empty,
+   * matching warps are returned in no particular order.
+   *
+   * @return an Optional containing the order
+   */
+  public Optional<Comparator<Warp>> getOrder() {
+    if (isOrderedByDistance()) {
+      Vector3d point = referencePoint;
+      return Optional.of(Comparator.comparingDouble(warp -> warp.getPosition().distanceSquared(point)));
+    }
+    return Optional.ofNullable(order);
+  }
+
+  /**
+   * Returns whether this query restricts matching warps only by their creator and optionally by their worlds and
+   * types, so that the number of matching warps can be read from counters maintained per creator, world and type.
+   *
+   * @return {@code true} if this query only uses creator, world and type criteria
+   */
+  boolean isCreatorWorldAndTypeOnly() {
+    return creator != null && namePrefix == null && nameIgnoringCase == null && nameSubstring == null
+           && areaCenter == null && invitedPlayer == null && invitedGroup == null && accessingPlayer == null
+           && referenceWorld == null && filter == ANY;
+  }
+
+  /**
+   * Gets the maximum number of warps returned for this query.
+   *
+   * @return the maximum number of warps
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Builds {@link WarpQuery WarpQueries}. Each criterion can be set once; setting it again replaces the previous value.
+   */
+  public static final class Builder {
+
+    @Nullable
+    private UUID creator;
+    private ImmutableSet<UUID> worlds = ImmutableSet.of();
+    private ImmutableSet<Warp.Type> types = ImmutableSet.of();
+    @Nullable
+    private String namePrefix;
+    @Nullable
+    private String nameIgnoringCase;
+    @Nullable
+    private String nameSubstring;
+    @Nullable
+    private UUID areaWorld;
+    @Nullable
+    private Vector3d areaCenter;
+    private double areaRadius;
+    @Nullable
+    private UUID invitedPlayer;
+    @Nullable
+    private String invitedGroup;
+    @Nullable
+    private UUID accessingPlayer;
+    private Predicate<String> accessingGroups = NO_GROUP;
+    @Nullable
+    private UUID referenceWorld;
+    @Nullable
+    private Vector3d referencePoint;
+    private Predicate<Warp> filter = ANY;
+    @Nullable
+    private Comparator<Warp> order;
+    private int limit = Integer.MAX_VALUE;
+
+    private Builder() {
+    }
+
+    /**
+     * Only matches warps created by the player identified by the given unique identifier.
+     *
+     * @param creator the unique identifier of the creator
+     * @return this Builder
+     */
+    public Builder creator(UUID creator) {
+      this.creator = checkNotNull(creator);
+      return this;
+    }
+
+    /**
+     * Only matches warps located in one of the worlds identified by the given identifiers.
+     *
+     * @param worlds the identifiers of the worlds
+     * @return this Builder
+     * @throws IllegalArgumentException if {@code worlds} is empty
+     */
+    public Builder worlds(Iterable<UUID> worlds) {
+      ImmutableSet<UUID> copy = ImmutableSet.copyOf(worlds);
+      checkArgument(!copy.isEmpty(), "At least one world is required.");
+      this.worlds = copy;
+      return this;
+    }
+
+    /**
+     * Only matches warps located in the world identified by the given identifier.
+     *
+     * @param world the identifier of the world
+     * @return this Builder
+     */
+    public Builder world(UUID world) {
+      return worlds(ImmutableSet.of(world));
+    }
+
+    /**
+     * Only matches warps that have one of the given types.
+     *
+     * @param types the types
+     * @return this Builder
+     * @throws IllegalArgumentException if {@code types} is empty
+     */
+    public Builder types(Iterable<Warp.Type> types) {
+      ImmutableSet<Warp.Type> copy = ImmutableSet.copyOf(types);
+      checkArgument(!copy.isEmpty(), "At least one type is required.");
+      this.types = copy;
+      return this;
+    }
+
+    /**
+     * Only matches warps that have one of the given types.
+     *
+     * @param types the types
+     * @return this Builder
+     * @throws IllegalArgumentException if {@code types} is empty
+     */
+    public Builder types(Warp.Type... types) {
+      return types(Arrays.asList(types));
+    }
+
+    /**
+     * Only matches warps whose name starts with the given prefix, ignoring case.
+     *
+     * @param namePrefix the prefix
+     * @return this Builder
+     */
+    public Builder namePrefix(String namePrefix) {
+      this.namePrefix = checkNotNull(namePrefix);
+      return this;
+    }
+
+    /**
+     * Only matches warps whose name equals the given name, ignoring case. Unless warp names are case insensitive, more
+     * than one warp may match.
+     *
+     * @param name the name
+     * @return this Builder
+     */
+    public Builder nameIgnoringCase(String name) {
+      this.nameIgnoringCase = checkNotNull(name);
+      return this;
+    }
+
+    /**
+     * Only matches warps whose name contains the given substring, ignoring case.
+     *
+     * @param nameSubstring the substring
+     * @return this Builder
+     */
+    public Builder nameContains(String nameSubstring) {
+      this.nameSubstring = checkNotNull(nameSubstring);
+      return this;
+    }
+
+    /**
+     * Only matches warps located in the world identified by the given identifier whose distance to {@code center} is
+     * at most {@code radius}.
+     *
+     * @param world  the identifier of the world
+     * @param center the center of the area
+     * @param radius the radius of the area
+     * @return this Builder
+     * @throws IllegalArgumentException if {@code radius} is negative
+     */
+    public Builder within(UUID world, Vector3d center, double radius) {
+      checkArgument(radius >= 0, "The radius must not be negative.");
+      this.areaWorld = checkNotNull(world);
+      this.areaCenter = checkNotNull(center);
+      this.areaRadius = radius;
+      return this;
+    }
+
+    /**
+     * Only matches warps the player identified by the given unique identifier is invited to.
+     *
+     * @param invitedPlayer the unique identifier of the player
+     * @return this Builder
+     */
+    public Builder invitedPlayer(UUID invitedPlayer) {
+      this.invitedPlayer = checkNotNull(invitedPlayer);
+      return this;
+    }
+
+    /**
+     * Only matches warps the group identified by the given identifier is invited to.
+     *
+     * @param invitedGroup the identifier of the group
+     * @return this Builder
+     */
+    public Builder invitedGroup(String invitedGroup) {
+      this.invitedGroup = checkNotNull(invitedGroup);
+      return this;
+    }
+
+    /**
+     * Only matches warps that are public, created by the player identified by the given unique identifier, the player
+     * is invited to or one of the player's groups is invited to.
+     *
+     * <p>Managers may answer such queries by combining the warps indexed by type, creator and invitations rather than
+     * testing every warp, so that the cost depends on the number of warps the player can access.</p>
+     *
+     * @param player          the unique identifier of the player
+     * @param groupMembership a Predicate that evaluates to {@code true} if the player is a member of the tested group
+     * @return this Builder
+     */
+    public Builder accessibleBy(UUID player, Predicate<String> groupMembership) {
+      this.accessingPlayer = checkNotNull(player);
+      this.accessingGroups = checkNotNull(groupMembership);
+      return this;
+    }
+
+    /**
+     * Only matches warps located in the world identified by the given identifier and orders them by their distance to
+     * the given point, nearest first. An order set via {@link #sortedBy(Comparator)} takes precedence over the
+     * distance.
+     *
+     * <p>Combined with a {@link #limit(int) limit}, managers may answer such queries by searching outwards from the
+     * point rather than ordering every matching warp.</p>
+     *
+     * @param world the identifier of the world
+     * @param point the point
+     * @return this Builder
+     */
+    public Builder closestTo(UUID world, Vector3d point) {
+      this.referenceWorld = checkNotNull(world);
+      this.referencePoint = checkNotNull(point);
+      return this;
+    }
+
+    /**
+     * Only matches warps that fulfill the given predicate in addition to all other criteria. Calling this method
+     * multiple times combines all predicates.
+     *
+     * <p>The predicate is tested against every warp that fulfills all other criteria, so narrowing the query with
+     * declarative criteria first is always preferable.</p>
+     *
+     * @param predicate the predicate
+     * @return this Builder
+     */
+    public Builder filter(Predicate<Warp> predicate) {
+      this.filter = filter.and(predicate);
+      return this;
+    }
+
+    /**
+     * Orders matching warps with the given Comparator.
+     *
+     * @param order the Comparator
+     * @return this Builder
+     */
+    public Builder sortedBy(Comparator<Warp> order) {
+      this.order = checkNotNull(order);
+      return this;
+    }
+
+    /**
+     * Returns at most the given number of matching warps. If an order is set, the first warps in this order are
+     * returned.
+     *
+     * @param limit the maximum number of warps
+     * @return this Builder
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public Builder limit(int limit) {
+      checkArgument(limit >= 0, "The limit must not be negative.");
+      this.limit = limit;
+      return this;
+    }
+
+    /**
+     * Builds the query.
+     *
+     * @return the query
+     */
+    public WarpQuery build() {
+      return new WarpQuery(this);
+    }
+  }
+}
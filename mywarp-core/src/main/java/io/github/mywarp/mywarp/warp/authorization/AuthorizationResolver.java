@@ -22,6 +22,7 @@ package io.github.mywarp.mywarp.warp.authorization;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.LocalEntity;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 
 import java.util.function.Predicate;
 
@@ -66,7 +67,7 @@ public class AuthorizationResolver {
    * @see #isModifiable(Warp, Actor)
    */
   public Predicate<Warp> isModifiable(final Actor actor) {
-    return input -> isModifiable(input, actor);
+    return strategy.isModifiable(actor);
   }
 
   /**
@@ -91,7 +92,21 @@ public class AuthorizationResolver {
    * @see #isUsable(Warp, LocalEntity)
    */
   public Predicate<Warp> isUsable(final LocalEntity entity) {
-    return input -> isUsable(input, entity);
+    return strategy.isUsable(entity);
+  }
+
+  /**
+   * Restricts the given query to warps usable by the given entity.
+   *
+   * <p>Unlike filtering the query with {@link #isUsable(LocalEntity)}, this method also adds declarative criteria
+   * (if any) that allow managers to only consider warps the entity can access, rather than testing every warp.</p>
+   *
+   * @param query  the query to restrict
+   * @param entity the entity
+   * @return the restricted query
+   */
+  public WarpQuery.Builder restrictToUsable(WarpQuery.Builder query, LocalEntity entity) {
+    return strategy.restrictToUsable(query, entity).filter(strategy.isUsable(entity));
   }
 
   /**
@@ -113,6 +128,20 @@ public class AuthorizationResolver {
    * @see #isViewable(Warp, Actor)
    */
   public Predicate<Warp> isViewable(final Actor actor) {
-    return input -> isViewable(input, actor);
+    return strategy.isViewable(actor);
+  }
+
+  /**
+   * Restricts the given query to warps viewable by the given Actor.
+   *
+   * <p>Unlike filtering the query with {@link #isViewable(Actor)}, this method also adds declarative criteria (if
+   * any) that allow managers to only consider warps the Actor can access, rather than testing every warp.</p>
+   *
+   * @param query the query to restrict
+   * @param actor the Actor
+   * @return the restricted query
+   */
+  public WarpQuery.Builder restrictToViewable(WarpQuery.Builder query, Actor actor) {
+    return strategy.restrictToViewable(query, actor).filter(strategy.isViewable(actor));
   }
 }
@@ -22,10 +22,18 @@ package io.github.mywarp.mywarp.warp.authorization;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.LocalEntity;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
+
+import java.util.function.Predicate;
 
 /**
  * A strategy to resolve a user's authentication for a certain Warp.
  *
+ * <p>Besides checking single warps, strategies create predicates that check many warps for the same user. Strategies
+ * should override these methods to resolve everything that only depends on the user, such as permissions, once when
+ * the predicate is created instead of once per tested warp. Predicates reflect the user's permissions at the time they
+ * are created and are thus meant to be used for a single query.</p>
+ *
  * @see AuthorizationResolver
  */
 public interface AuthorizationStrategy {
@@ -57,4 +65,66 @@ public interface AuthorizationStrategy {
    */
   boolean isViewable(Warp warp, Actor actor);
 
+  /**
+   * Returns a predicate that evaluates to {@code true} if the tested {@code Warp} is modifiable by the given Actor.
+   *
+   * @param actor the Actor
+   * @return a predicate that checks if the tested warp is modifiable by the given Actor
+   * @see #isModifiable(Warp, Actor)
+   */
+  default Predicate<Warp> isModifiable(Actor actor) {
+    return warp -> isModifiable(warp, actor);
+  }
+
+  /**
+   * Returns a predicate that evaluates to {@code true} if the tested {@code Warp} is usable by the given entity.
+   *
+   * @param entity the entity
+   * @return a predicate that checks if the tested warp is usable by the given entity
+   * @see #isUsable(Warp, LocalEntity)
+   */
+  default Predicate<Warp> isUsable(LocalEntity entity) {
+    return warp -> isUsable(warp, entity);
+  }
+
+  /**
+   * Returns a predicate that evaluates to {@code true} if the tested {@code Warp} is viewable by the given Actor.
+   *
+   * @param actor the Actor
+   * @return a predicate that checks if the tested warp is viewable by the given Actor
+   * @see #isViewable(Warp, Actor)
+   */
+  default Predicate<Warp> isViewable(Actor actor) {
+    return warp -> isViewable(warp, actor);
+  }
+
+  /**
+   * Restricts the given query with declarative criteria that every warp usable by the given entity fulfills, so that
+   * managers can look up candidates in their indexes. Warps matching the restricted query are not necessarily usable.
+   *
+   * <p>The default implementation returns the query unchanged.</p>
+   *
+   * @param query  the query to restrict
+   * @param entity the entity
+   * @return the restricted query
+   */
+  default WarpQuery.Builder restrictToUsable(WarpQuery.Builder query, LocalEntity entity) {
+    return query;
+  }
+
+  /**
+   * Restricts the given query with declarative criteria that every warp viewable by the given Actor fulfills, so that
+   * managers can look up candidates in their indexes. Warps matching the restricted query are not necessarily
+   * viewable.
+   *
+   * <p>The default implementation returns the query unchanged.</p>
+   *
+   * @param query the query to restrict
+   * @param actor the Actor
+   * @return the restricted query
+   */
+  default WarpQuery.Builder restrictToViewable(WarpQuery.Builder query, Actor actor) {
+    return query;
+  }
+
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.authorization;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.eventbus.Subscribe;
+
+import io.github.mywarp.mywarp.platform.Actor;
+import io.github.mywarp.mywarp.platform.LocalEntity;
+import io.github.mywarp.mywarp.platform.LocalPlayer;
+import io.github.mywarp.mywarp.util.ExpiringPlayerCache;
+import io.github.mywarp.mywarp.util.PlayerCache;
+import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
+import io.github.mywarp.mywarp.warp.event.WarpDeletionEvent;
+import io.github.mywarp.mywarp.warp.event.WarpInvitesEvent;
+import io.github.mywarp.mywarp.warp.event.WarpUpdateEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Caches, per player, whether warps are viewable and usable as resolved by the delegate.
+ *
+ * <p>Results are cached by warp name and invalidated when a warp is deleted, invited to or uninvited from or when its
+ * creator, location or type changes. This instance must therefore be registered on the EventBus that receives warp
+ * events. All results of a player are dropped once they reach the given expiry.</p>
+ *
+ * <p>The delegate may itself rely on per-player caches, such as cached world access or group memberships. A result
+ * cached here may therefore be based on data that was already cached by such a layer, so a change to a player's
+ * permissions that no event reveals can take up to the sum of both expiries to become visible. Platforms should
+ * register this cache together with all layers below it with the same {@link PlayerCache} notifications, so that all
+ * layers of a player are dropped at once whenever a change is likely.</p>
+ *
+ * <p>Only players are cached, results for any other Actor are always resolved by the delegate. Instances are
+ * thread-safe.</p>
+ */
+public class CachingAuthorizationStrategy extends ForwardingAuthorizationStrategy implements PlayerCache {
+
+  private final ExpiringPlayerCache<PlayerAuthorizations> authorizations;
+  private final AuthorizationStrategy delegate;
+
+  /**
+   * Creates an instance that caches results of the given {@code delegate} for at most the given {@code expiry}.
+   *
+   * @param delegate the strategy whose results are cached
+   * @param expiry   the duration after which all results of a player are dropped
+   */
+  public CachingAuthorizationStrategy(AuthorizationStrategy delegate, Duration expiry) {
+    this.delegate = delegate;
+    this.authorizations = new ExpiringPlayerCache<PlayerAuthorizations>(expiry);
+  }
+
+  @Override
+  protected AuthorizationStrategy delegate() {
+    return delegate;
+  }
+
+  @Override
+  public boolean isUsable(Warp warp, LocalEntity entity) {
+    if (!(entity instanceof LocalPlayer)) {
+      return super.isUsable(warp, entity);
+    }
+    LocalPlayer player = (LocalPlayer) entity;
+    return authorizationsOf(player).usable.computeIfAbsent(warp.getName(), name -> super.isUsable(warp, player));
+  }
+
+  @Override
+  public boolean isViewable(Warp warp, Actor actor) {
+    if (!(actor instanceof LocalPlayer)) {
+      return super.isViewable(warp, actor);
+    }
+    LocalPlayer player = (LocalPlayer) actor;
+    return authorizationsOf(player).viewable.computeIfAbsent(warp.getName(), name -> super.isViewable(warp, player));
+  }
+
+  @Override
+  public Predicate<Warp> isModifiable(Actor actor) {
+    return delegate.isModifiable(actor);
+  }
+
+  @Override
+  public Predicate<Warp> isUsable(LocalEntity entity) {
+    if (!(entity instanceof LocalPlayer)) {
+      return delegate.isUsable(entity);
+    }
+    Map<String, Boolean> usable = authorizationsOf((LocalPlayer) entity).usable;
+    // the delegate's predicate is only created if any tested warp is not yet cached
+    Supplier<Predicate<Warp>> uncached = Suppliers.memoize(() -> delegate.isUsable(entity));
+    return warp -> usable.computeIfAbsent(warp.getName(), name -> uncached.get().test(warp));
+  }
+
+  @Override
+  public Predicate<Warp> isViewable(Actor actor) {
+    if (!(actor instanceof LocalPlayer)) {
+      return delegate.isViewable(actor);
+    }
+    Map<String, Boolean> viewable = authorizationsOf((LocalPlayer) actor).viewable;
+    Supplier<Predicate<Warp>> uncached = Suppliers.memoize(() -> delegate.isViewable(actor));
+    return warp -> viewable.computeIfAbsent(warp.getName(), name -> uncached.get().test(warp));
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToUsable(WarpQuery.Builder query, LocalEntity entity) {
+    return delegate.restrictToUsable(query, entity);
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToViewable(WarpQuery.Builder query, Actor actor) {
+    return delegate.restrictToViewable(query, actor);
+  }
+
+  @Override
+  public void invalidate(UUID uniqueId) {
+    authorizations.invalidate(uniqueId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    authorizations.invalidateAll();
+  }
+
+  /**
+   * Called when a warp is deleted.
+   *
+   * @param event the event
+   */
+  @Subscribe
+  public void onWarpDeletion(WarpDeletionEvent event) {
+    invalidate(event.getWarp());
+  }
+
+  /**
+   * Called when a warp is updated.
+   *
+   * @param event the event
+   */
+  @Subscribe
+  public void onWarpUpdate(WarpUpdateEvent event) {
+    switch (event.getType()) {
+      case CREATOR:
+      case LOCATION:
+      case TYPE:
+        invalidate(event.getWarp());
+        break;
+      default:
+        // visits and welcome messages do not affect authorizations
+        break;
+    }
+  }
+
+  /**
+   * Called when a player or group is invited to or uninvited from a warp.
+   *
+   * @param event the event
+   */
+  @Subscribe
+  public void onWarpInvites(WarpInvitesEvent event) {
+    invalidate(event.getWarp());
+  }
+
+  private void invalidate(Warp warp) {
+    authorizations.forEachValue(playerAuthorizations -> {
+      playerAuthorizations.viewable.remove(warp.getName());
+      playerAuthorizations.usable.remove(warp.getName());
+    });
+  }
+
+  private PlayerAuthorizations authorizationsOf(LocalPlayer player) {
+    return authorizations.get(player.getUniqueId(), PlayerAuthorizations::new);
+  }
+
+  /**
+   * The cached results of a single player, keyed by warp name.
+   */
+  private static class PlayerAuthorizations {
+
+    private final Map<String, Boolean> viewable = new ConcurrentHashMap<String, Boolean>();
+    private final Map<String, Boolean> usable = new ConcurrentHashMap<String, Boolean>();
+  }
+}
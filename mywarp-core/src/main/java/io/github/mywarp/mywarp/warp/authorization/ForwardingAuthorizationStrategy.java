@@ -29,6 +29,10 @@ import io.github.mywarp.mywarp.warp.Warp;
  * Forwards all method calls to another AuthorizationStrategy. Subclasses should override one or more methods to modify
  * the behavior of the backing AuthorizationStrategy as desired per the <a href="http://en.wikipedia
  * .org/wiki/Decorator_pattern">decorator pattern</a>.
+ *
+ * <p>Predicates that check multiple warps and query restrictions are not forwarded: unless overridden, predicates call
+ * the methods that check a single warp and queries are not restricted, so subclasses that only override the methods
+ * checking a single warp are never bypassed.</p>
  */
 abstract class ForwardingAuthorizationStrategy extends ForwardingObject implements AuthorizationStrategy {
 
@@ -22,6 +22,9 @@ package io.github.mywarp.mywarp.warp.authorization;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.LocalEntity;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
+
+import java.util.function.Predicate;
 
 /**
  * Resolves a user's authentication based on permissions.
@@ -60,4 +63,44 @@ public class PermissionAuthorizationStrategy extends ForwardingAuthorizationStra
   public boolean isViewable(Warp warp, Actor actor) {
     return actor.hasPermission("mywarp.override.view") || delegate.isViewable(warp, actor);
   }
+
+  @Override
+  public Predicate<Warp> isModifiable(Actor actor) {
+    if (actor.hasPermission("mywarp.override.modify")) {
+      return warp -> true;
+    }
+    return delegate.isModifiable(actor);
+  }
+
+  @Override
+  public Predicate<Warp> isUsable(LocalEntity entity) {
+    if (entity instanceof Actor && ((Actor) entity).hasPermission("mywarp.override.use")) {
+      return warp -> true;
+    }
+    return delegate.isUsable(entity);
+  }
+
+  @Override
+  public Predicate<Warp> isViewable(Actor actor) {
+    if (actor.hasPermission("mywarp.override.view")) {
+      return warp -> true;
+    }
+    return delegate.isViewable(actor);
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToUsable(WarpQuery.Builder query, LocalEntity entity) {
+    if (entity instanceof Actor && ((Actor) entity).hasPermission("mywarp.override.use")) {
+      return query;
+    }
+    return delegate.restrictToUsable(query, entity);
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToViewable(WarpQuery.Builder query, Actor actor) {
+    if (actor.hasPermission("mywarp.override.view")) {
+      return query;
+    }
+    return delegate.restrictToViewable(query, actor);
+  }
 }
@@ -23,6 +23,12 @@ import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.LocalEntity;
 import io.github.mywarp.mywarp.platform.LocalPlayer;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Resolves a user's authentication for a certain warp based on properties of the warp: <ul> <li>A warp is
@@ -39,6 +45,10 @@ public class WarpPropertiesAuthorizationStrategy implements AuthorizationStrateg
 
   @Override
   public boolean isUsable(Warp warp, LocalEntity entity) {
+    // checked first as it is the cheapest check
+    if (warp.isType(Warp.Type.PUBLIC)) {
+      return true;
+    }
     if (entity instanceof Actor && isModifiable(warp, (Actor) entity)) {
       return true;
     }
@@ -55,8 +65,7 @@ public class WarpPropertiesAuthorizationStrategy implements AuthorizationStrateg
         }
       }
     }
-
-    return warp.isType(Warp.Type.PUBLIC);
+    return false;
   }
 
   @Override
@@ -68,4 +77,61 @@ public class WarpPropertiesAuthorizationStrategy implements AuthorizationStrateg
     //for everybody else a warp is visible only if it is public
     return warp.isType(Warp.Type.PUBLIC);
   }
+
+  @Override
+  public Predicate<Warp> isModifiable(Actor actor) {
+    if (!(actor instanceof LocalPlayer)) {
+      return warp -> false;
+    }
+    UUID uniqueId = ((LocalPlayer) actor).getUniqueId();
+    return warp -> warp.isCreator(uniqueId);
+  }
+
+  @Override
+  public Predicate<Warp> isUsable(LocalEntity entity) {
+    if (!(entity instanceof LocalPlayer)) {
+      return warp -> warp.isType(Warp.Type.PUBLIC);
+    }
+    LocalPlayer player = (LocalPlayer) entity;
+    UUID uniqueId = player.getUniqueId();
+    // each group is resolved once, no matter how many of the tested warps it is invited to
+    Map<String, Boolean> groups = new ConcurrentHashMap<String, Boolean>();
+    return warp -> {
+      if (warp.isType(Warp.Type.PUBLIC) || warp.isCreator(uniqueId) || warp.isPlayerInvited(uniqueId)) {
+        return true;
+      }
+      for (String groupId : warp.getInvitedGroups()) {
+        if (groups.computeIfAbsent(groupId, player::hasGroup)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  @Override
+  public Predicate<Warp> isViewable(Actor actor) {
+    if (actor instanceof LocalEntity) {
+      return isUsable((LocalEntity) actor);
+    }
+    return warp -> warp.isType(Warp.Type.PUBLIC);
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToUsable(WarpQuery.Builder query, LocalEntity entity) {
+    if (!(entity instanceof LocalPlayer)) {
+      return query;
+    }
+    LocalPlayer player = (LocalPlayer) entity;
+    Map<String, Boolean> groups = new ConcurrentHashMap<String, Boolean>();
+    return query.accessibleBy(player.getUniqueId(), groupId -> groups.computeIfAbsent(groupId, player::hasGroup));
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToViewable(WarpQuery.Builder query, Actor actor) {
+    if (actor instanceof LocalEntity) {
+      return restrictToUsable(query, (LocalEntity) actor);
+    }
+    return query;
+  }
 }
@@ -22,18 +22,36 @@ package io.github.mywarp.mywarp.warp.authorization;
 import io.github.mywarp.mywarp.platform.Actor;
 import io.github.mywarp.mywarp.platform.Game;
 import io.github.mywarp.mywarp.platform.LocalEntity;
+import io.github.mywarp.mywarp.platform.LocalPlayer;
 import io.github.mywarp.mywarp.platform.LocalWorld;
 import io.github.mywarp.mywarp.platform.Settings;
+import io.github.mywarp.mywarp.util.ExpiringPlayerCache;
+import io.github.mywarp.mywarp.util.PlayerCache;
 import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpQuery;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Resolves a user's authentication to use a warp bases on the users permission to access the world that contains the
  * warp.
+ *
+ * <p>The permission node of each world is computed once, when the world is first tested. Which worlds a player can
+ * access is cached per player and dropped once it reaches the given expiry, so testing the world of a warp is usually
+ * a single map lookup. Changes to a player's permissions are not visible as events: the platform should call {@link
+ * #invalidate(UUID)} when it notices them and {@link #invalidateWorld(UUID)} when a world is unloaded.</p>
  */
-public class WorldAccessAuthorizationStrategy extends ForwardingAuthorizationStrategy {
+public class WorldAccessAuthorizationStrategy extends ForwardingAuthorizationStrategy implements PlayerCache {
+
+  private static final String PERMISSION_PREFIX = "mywarp.world-access.";
 
+  private final Map<UUID, String> permissionNodes = new ConcurrentHashMap<UUID, String>();
+  private final ExpiringPlayerCache<Map<UUID, Boolean>> accessibleWorlds;
   private final AuthorizationStrategy delegate;
   private final Game game;
   private final Settings settings;
@@ -45,11 +63,14 @@ public class WorldAccessAuthorizationStrategy extends ForwardingAuthorizationStr
    * @param delegate the strategy to delegate further tests to
    * @param game     the configured Game instance
    * @param settings the configured Settings instance
+   * @param expiry   the duration after which the accessible worlds of a player are tested again
    */
-  public WorldAccessAuthorizationStrategy(AuthorizationStrategy delegate, Game game, Settings settings) {
+  public WorldAccessAuthorizationStrategy(AuthorizationStrategy delegate, Game game, Settings settings,
+                                          Duration expiry) {
     this.delegate = delegate;
     this.game = game;
     this.settings = settings;
+    this.accessibleWorlds = new ExpiringPlayerCache<Map<UUID, Boolean>>(expiry);
   }
 
   @Override
@@ -73,6 +94,67 @@ public class WorldAccessAuthorizationStrategy extends ForwardingAuthorizationStr
     return delegate().isViewable(warp, actor);
   }
 
+  @Override
+  public Predicate<Warp> isUsable(LocalEntity entity) {
+    if (!(entity instanceof Actor) || !settings.isControlWorldAccess()) {
+      return delegate().isUsable(entity);
+    }
+    return canAccessWorld((Actor) entity).and(delegate().isUsable(entity));
+  }
+
+  @Override
+  public Predicate<Warp> isViewable(Actor actor) {
+    if (!settings.isControlWorldAccess()) {
+      return delegate().isViewable(actor);
+    }
+    return canAccessWorld(actor).and(delegate().isViewable(actor));
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToUsable(WarpQuery.Builder query, LocalEntity entity) {
+    // this strategy only ever denies warps the delegate allows, so the delegate's restriction holds
+    return delegate().restrictToUsable(query, entity);
+  }
+
+  @Override
+  public WarpQuery.Builder restrictToViewable(WarpQuery.Builder query, Actor actor) {
+    return delegate().restrictToViewable(query, actor);
+  }
+
+  @Override
+  public void invalidate(UUID uniqueId) {
+    accessibleWorlds.invalidate(uniqueId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    accessibleWorlds.invalidateAll();
+  }
+
+  /**
+   * Drops the permission node and the cached access of all players for the world identified by the given unique
+   * identifier. Platforms should call this method when the world is unloaded, so that warps in the world are no longer
+   * tested against a world that does not exist.
+   *
+   * @param worldId the unique identifier of the world
+   */
+  public void invalidateWorld(UUID worldId) {
+    permissionNodes.remove(worldId);
+    accessibleWorlds.forEachValue(worlds -> worlds.remove(worldId));
+  }
+
+  /**
+   * Returns a predicate that evaluates to {@code true} if the given actor can access the world of the tested warp.
+   * The actor's permission is checked at most once per world.
+   *
+   * @param actor the Actor
+   * @return a predicate that checks if the world of the tested warp may be accessed
+   */
+  private Predicate<Warp> canAccessWorld(Actor actor) {
+    Map<UUID, Boolean> accessibleWorlds = accessibleWorldsOf(actor);
+    return warp -> canAccessWorld(actor, accessibleWorlds, warp.getWorldIdentifier());
+  }
+
   /**
    * Returns whether the given actor can access the world of the given warp.
    *
@@ -81,11 +163,58 @@ public class WorldAccessAuthorizationStrategy extends ForwardingAuthorizationStr
    * @return {@code true} if the warp's world may not be accessed
    */
   private boolean cannotAccessWorld(Actor actor, Warp warp) {
-    if (!settings.isControlWorldAccess()) {
-      return false;
+    return settings.isControlWorldAccess()
+           && !canAccessWorld(actor, accessibleWorldsOf(actor), warp.getWorldIdentifier());
+  }
+
+  /**
+   * Returns whether the given actor can access the world identified by the given unique identifier. Results are read
+   * from and added to {@code accessibleWorlds}.
+   *
+   * @param actor            the Actor
+   * @param accessibleWorlds whether the Actor can access a world, by the world's unique identifier
+   * @param worldId          the unique identifier of the world
+   * @return {@code true} if the world may be accessed
+   */
+  private boolean canAccessWorld(Actor actor, Map<UUID, Boolean> accessibleWorlds, UUID worldId) {
+    Boolean ret = accessibleWorlds.get(worldId);
+    if (ret == null) {
+      Optional<String> permissionNode = permissionNodeOf(worldId);
+      //if the world does not exist, it is not restricted - but may be loaded later, so this is not cached
+      if (!permissionNode.isPresent()) {
+        return true;
+      }
+      ret = actor.hasPermission(permissionNode.get());
+      accessibleWorlds.put(worldId, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Gets an Optional containing the permission node that grants access to the world identified by the given unique
+   * identifier, if the world exists.
+   *
+   * @param worldId the unique identifier of the world
+   * @return an Optional containing the permission node
+   */
+  private Optional<String> permissionNodeOf(UUID worldId) {
+    String ret = permissionNodes.get(worldId);
+    if (ret != null) {
+      return Optional.of(ret);
+    }
+    Optional<LocalWorld> world = game.getWorld(worldId);
+    if (!world.isPresent()) {
+      return Optional.empty();
+    }
+    ret = PERMISSION_PREFIX + world.get().getName();
+    permissionNodes.put(worldId, ret);
+    return Optional.of(ret);
+  }
+
+  private Map<UUID, Boolean> accessibleWorldsOf(Actor actor) {
+    if (!(actor instanceof LocalPlayer)) {
+      return new ConcurrentHashMap<UUID, Boolean>();
     }
-    //if the Warp's world does not exist, the Actor cannot access it
-    Optional<LocalWorld> world = game.getWorld(warp.getWorldIdentifier());
-    return world.isPresent() && !actor.hasPermission("mywarp.world-access." + world.get().getName());
+    return accessibleWorlds.get(((LocalPlayer) actor).getUniqueId(), ConcurrentHashMap::new);
   }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.event;
+
+import com.google.common.collect.ImmutableList;
+
+import io.github.mywarp.mywarp.warp.Warp;
+
+import java.util.Collection;
+
+/**
+ * Indicates that multiple warps were created at once, e.g. by an import. This event is fired instead of a {@link
+ * WarpAdditionEvent} for each of the warps.
+ */
+public class WarpsAdditionEvent {
+
+  private final ImmutableList<Warp> warps;
+
+  /**
+   * Constructs this event for the given Warps.
+   *
+   * @param warps the Warps
+   */
+  public WarpsAdditionEvent(Collection<Warp> warps) {
+    this.warps = ImmutableList.copyOf(warps);
+  }
+
+  /**
+   * Gets the Warps.
+   *
+   * @return the Warps
+   */
+  public ImmutableList<Warp> getWarps() {
+    return warps;
+  }
+
+}
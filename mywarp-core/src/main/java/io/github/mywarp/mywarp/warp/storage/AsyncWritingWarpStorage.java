@@ -21,29 +21,43 @@ package io.github.mywarp.mywarp.warp.storage;
 
 import io.github.mywarp.mywarp.warp.Warp;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * A {@code WarpStorage} that works on top of another {@code WarpStorage} and executes every <b>writing</b> task
- * asynchronous on a specified {@link Executor}.
+ * asynchronous on an {@link Executor}. The {@code Executor} is selected individually for every warp, so writes of
+ * unrelated warps may run in parallel if the selected {@code Executor}s differ.
  */
 public class AsyncWritingWarpStorage extends ForwardingWarpStorage {
 
+  /**
+   * The key used to select the {@code Executor} for writes that affect multiple warps.
+   */
+  static final String BULK_KEY = "";
+
   private final WarpStorage warpStorage;
-  private final Executor executor;
+  private final Function<String, Executor> executors;
 
   /**
    * Creates an instance. Every call is delegated to the given {@code warpStorage}, writing methods are executed in the
-   * given {@code executor}, reading methods still run in the thread that calls the method.
+   * {@code Executor} that the given {@code executors} function returns for the name of the affected warp, reading
+   * methods still run in the thread that calls the method.
    *
    * @param warpStorage the {@code WarpStorage} whose writing methods should be executed asynchronous
-   * @param executor    the {@code Executor} that executes writing methods
+   * @param executors   the function that selects the {@code Executor} that executes writing methods of a warp by the
+   *                    warp's name
    */
-  public AsyncWritingWarpStorage(WarpStorage warpStorage, Executor executor) {
+  public AsyncWritingWarpStorage(WarpStorage warpStorage, Function<String, Executor> executors) {
     this.warpStorage = warpStorage;
-    this.executor = executor;
+    this.executors = executors;
   }
 
   @Override
@@ -51,14 +65,28 @@ public class AsyncWritingWarpStorage extends ForwardingWarpStorage {
     return warpStorage;
   }
 
+  private Executor executor(Warp warp) {
+    return executors.apply(warp.getName());
+  }
+
   @Override
   public void addWarp(final Warp warp) {
-    executor.execute(() -> delegate().addWarp(warp));
+    executor(warp).execute(() -> delegate().addWarp(warp));
+  }
+
+  @Override
+  public void addWarps(final Collection<Warp> warps) {
+    // warps that share an executor are added in bulk, so later writes of each warp still run after its addition
+    Map<Executor, List<Warp>> warpsByExecutor = new IdentityHashMap<>();
+    for (Warp warp : warps) {
+      warpsByExecutor.computeIfAbsent(executor(warp), executor -> new ArrayList<>()).add(warp);
+    }
+    warpsByExecutor.forEach((executor, group) -> executor.execute(() -> delegate().addWarps(group)));
   }
 
   @Override
   public void removeWarp(final Warp warp) {
-    executor.execute(() -> delegate().removeWarp(warp));
+    executor(warp).execute(() -> delegate().removeWarp(warp));
   }
 
   @Override
@@ -66,48 +94,58 @@ public class AsyncWritingWarpStorage extends ForwardingWarpStorage {
     return delegate().getWarps();
   }
 
+  @Override
+  public void getWarps(int chunkSize, Consumer<List<Warp>> consumer) {
+    delegate().getWarps(chunkSize, consumer);
+  }
+
   @Override
   public void inviteGroup(final Warp warp, final String groupId) {
-    executor.execute(() -> delegate().inviteGroup(warp, groupId));
+    executor(warp).execute(() -> delegate().inviteGroup(warp, groupId));
   }
 
   @Override
   public void invitePlayer(final Warp warp, final UUID uniqueId) {
-    executor.execute(() -> delegate().invitePlayer(warp, uniqueId));
+    executor(warp).execute(() -> delegate().invitePlayer(warp, uniqueId));
   }
 
   @Override
   public void uninviteGroup(final Warp warp, final String groupId) {
-    executor.execute(() -> delegate().uninviteGroup(warp, groupId));
+    executor(warp).execute(() -> delegate().uninviteGroup(warp, groupId));
   }
 
   @Override
   public void uninvitePlayer(final Warp warp, final UUID uniqueId) {
-    executor.execute(() -> delegate().uninvitePlayer(warp, uniqueId));
+    executor(warp).execute(() -> delegate().uninvitePlayer(warp, uniqueId));
   }
 
   @Override
   public void updateCreator(final Warp warp) {
-    executor.execute(() -> delegate().updateCreator(warp));
+    executor(warp).execute(() -> delegate().updateCreator(warp));
   }
 
   @Override
   public void updateLocation(final Warp warp) {
-    executor.execute(() -> delegate().updateLocation(warp));
+    executor(warp).execute(() -> delegate().updateLocation(warp));
   }
 
   @Override
   public void updateType(final Warp warp) {
-    executor.execute(() -> delegate().updateType(warp));
+    executor(warp).execute(() -> delegate().updateType(warp));
   }
 
   @Override
   public void updateVisits(final Warp warp) {
-    executor.execute(() -> delegate().updateVisits(warp));
+    executor(warp).execute(() -> delegate().updateVisits(warp));
+  }
+
+  @Override
+  public void updateVisits(final Collection<Warp> warps) {
+    executors.apply(BULK_KEY).execute(() -> delegate().updateVisits(warps));
   }
 
   @Override
   public void updateWelcomeMessage(final Warp warp) {
-    executor.execute(() -> delegate().updateWelcomeMessage(warp));
+    executor(warp).execute(() -> delegate().updateWelcomeMessage(warp));
   }
 }
@@ -23,13 +23,18 @@ import com.google.common.collect.ForwardingObject;
 
 import io.github.mywarp.mywarp.warp.Warp;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * A WarpStorage that forwards all its method calls to another WarpStorage. Subclasses should override one or more
  * methods to modify the behavior of the backing WarpStorage as desired per the <a
  * href="http://en.wikipedia.org/wiki/Decorator_pattern">decorator pattern</a>.
+ *
+ * <p>{@link #write(WriteBatch)} is not forwarded, so a batch is split into calls of the individual writing methods of
+ * the subclass. Subclasses that can hand batches on unchanged should override it.</p>
  */
 abstract class ForwardingWarpStorage extends ForwardingObject implements WarpStorage {
 
@@ -41,6 +46,11 @@ abstract class ForwardingWarpStorage extends ForwardingObject implements WarpSto
     delegate().addWarp(warp);
   }
 
+  @Override
+  public void addWarps(Collection<Warp> warps) {
+    delegate().addWarps(warps);
+  }
+
   @Override
   public void removeWarp(Warp warp) {
     delegate().removeWarp(warp);
@@ -51,6 +61,11 @@ abstract class ForwardingWarpStorage extends ForwardingObject implements WarpSto
     return delegate().getWarps();
   }
 
+  @Override
+  public void getWarps(int chunkSize, Consumer<List<Warp>> consumer) {
+    delegate().getWarps(chunkSize, consumer);
+  }
+
   @Override
   public void inviteGroup(Warp warp, String groupId) {
     delegate().inviteGroup(warp, groupId);
@@ -91,6 +106,11 @@ abstract class ForwardingWarpStorage extends ForwardingObject implements WarpSto
     delegate().updateVisits(warp);
   }
 
+  @Override
+  public void updateVisits(Collection<Warp> warps) {
+    delegate().updateVisits(warps);
+  }
+
   @Override
   public void updateWelcomeMessage(Warp warp) {
     delegate().updateWelcomeMessage(warp);
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.storage.StorageMetrics.Operation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@code WarpStorage} that records every call to another {@code WarpStorage} in {@link StorageMetrics}. To measure
+ * the time the underlying database needs, instances should directly wrap the {@code WarpStorage} that accesses the
+ * database and be wrapped by all decorators that defer calls.
+ */
+public class InstrumentedWarpStorage extends ForwardingWarpStorage {
+
+  private final WarpStorage warpStorage;
+  private final StorageMetrics metrics;
+
+  /**
+   * Creates an instance that delegates every call to the given {@code warpStorage} and records it in the given {@code
+   * metrics}.
+   *
+   * @param warpStorage the {@code WarpStorage} whose calls should be recorded
+   * @param metrics     the metrics that record calls
+   */
+  public InstrumentedWarpStorage(WarpStorage warpStorage, StorageMetrics metrics) {
+    this.warpStorage = warpStorage;
+    this.metrics = metrics;
+  }
+
+  @Override
+  protected WarpStorage delegate() {
+    return warpStorage;
+  }
+
+  @Override
+  public List<Warp> getWarps() {
+    return measure(Operation.GET_WARPS, () -> delegate().getWarps());
+  }
+
+  @Override
+  public void getWarps(final int chunkSize, final Consumer<List<Warp>> consumer) {
+    measure(Operation.GET_WARPS, () -> delegate().getWarps(chunkSize, consumer));
+  }
+
+  @Override
+  public void addWarp(final Warp warp) {
+    measure(Operation.ADD_WARP, () -> delegate().addWarp(warp));
+  }
+
+  @Override
+  public void addWarps(final Collection<Warp> warps) {
+    measure(Operation.ADD_WARPS, () -> delegate().addWarps(warps));
+  }
+
+  @Override
+  public void removeWarp(final Warp warp) {
+    measure(Operation.REMOVE_WARP, () -> delegate().removeWarp(warp));
+  }
+
+  @Override
+  public void inviteGroup(final Warp warp, final String groupId) {
+    measure(Operation.INVITE_GROUP, () -> delegate().inviteGroup(warp, groupId));
+  }
+
+  @Override
+  public void invitePlayer(final Warp warp, final UUID uniqueId) {
+    measure(Operation.INVITE_PLAYER, () -> delegate().invitePlayer(warp, uniqueId));
+  }
+
+  @Override
+  public void uninviteGroup(final Warp warp, final String groupId) {
+    measure(Operation.UNINVITE_GROUP, () -> delegate().uninviteGroup(warp, groupId));
+  }
+
+  @Override
+  public void uninvitePlayer(final Warp warp, final UUID uniqueId) {
+    measure(Operation.UNINVITE_PLAYER, () -> delegate().uninvitePlayer(warp, uniqueId));
+  }
+
+  @Override
+  public void updateCreator(final Warp warp) {
+    measure(Operation.UPDATE_CREATOR, () -> delegate().updateCreator(warp));
+  }
+
+  @Override
+  public void updateLocation(final Warp warp) {
+    measure(Operation.UPDATE_LOCATION, () -> delegate().updateLocation(warp));
+  }
+
+  @Override
+  public void updateType(final Warp warp) {
+    measure(Operation.UPDATE_TYPE, () -> delegate().updateType(warp));
+  }
+
+  @Override
+  public void updateVisits(final Warp warp) {
+    measure(Operation.UPDATE_VISITS, () -> delegate().updateVisits(warp));
+  }
+
+  @Override
+  public void updateVisits(final Collection<Warp> warps) {
+    measure(Operation.UPDATE_VISITS_BULK, () -> delegate().updateVisits(warps));
+  }
+
+  @Override
+  public void updateWelcomeMessage(final Warp warp) {
+    measure(Operation.UPDATE_WELCOME_MESSAGE, () -> delegate().updateWelcomeMessage(warp));
+  }
+
+  @Override
+  public void write(final WriteBatch batch) {
+    measure(Operation.WRITE_BATCH, () -> delegate().write(batch));
+  }
+
+  private void measure(Operation operation, Runnable call) {
+    measure(operation, () -> {
+      call.run();
+      return null;
+    });
+  }
+
+  private <T> T measure(Operation operation, Supplier<T> call) {
+    long startTime = metrics.start(operation);
+    boolean failed = true;
+    try {
+      T ret = call.get();
+      failed = false;
+      return ret;
+    } finally {
+      metrics.stop(operation, startTime, failed);
+    }
+  }
+}
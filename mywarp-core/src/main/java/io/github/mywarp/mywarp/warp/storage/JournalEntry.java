@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.ImmutableList;
+
+import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.WarpBuilder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * A single write to a {@link WarpStorage} as it is recorded in a {@link WriteAheadJournal}. An entry holds a snapshot
+ * of every affected warp, so it can be applied to a {@code WarpStorage} once the original {@code Warp} instances are
+ * long gone.
+ *
+ * <p>Applying an entry more than once has the same effect as applying it once, except for invitations that fail as
+ * the invitation already exists.</p>
+ */
+final class JournalEntry {
+
+  private final Kind kind;
+  private final ImmutableList<Warp> warps;
+  @Nullable
+  private final UUID invitedPlayer;
+  @Nullable
+  private final String invitedGroup;
+
+  private JournalEntry(Kind kind, Collection<Warp> warps, @Nullable UUID invitedPlayer,
+                       @Nullable String invitedGroup) {
+    this.kind = kind;
+    this.warps = ImmutableList.copyOf(warps);
+    this.invitedPlayer = invitedPlayer;
+    this.invitedGroup = invitedGroup;
+  }
+
+  /**
+   * Creates an entry that affects the given {@code warp}.
+   *
+   * @param kind the kind of write
+   * @param warp the affected warp
+   * @return a new entry
+   */
+  static JournalEntry of(Kind kind, Warp warp) {
+    return new JournalEntry(kind, ImmutableList.of(warp), null, null);
+  }
+
+  /**
+   * Creates an entry that affects all given {@code warps}.
+   *
+   * @param kind  the kind of write
+   * @param warps the affected warps
+   * @return a new entry
+   */
+  static JournalEntry of(Kind kind, Collection<Warp> warps) {
+    return new JournalEntry(kind, warps, null, null);
+  }
+
+  /**
+   * Creates an entry that invites or uninvites the given {@code player} to or from the given {@code warp}.
+   *
+   * @param kind   either {@link Kind#INVITE_PLAYER} or {@link Kind#UNINVITE_PLAYER}
+   * @param warp   the affected warp
+   * @param player the unique identifier of the player
+   * @return a new entry
+   */
+  static JournalEntry ofPlayer(Kind kind, Warp warp, UUID player) {
+    return new JournalEntry(kind, ImmutableList.of(warp), player, null);
+  }
+
+  /**
+   * Creates an entry that invites or uninvites the given {@code group} to or from the given {@code warp}.
+   *
+   * @param kind  either {@link Kind#INVITE_GROUP} or {@link Kind#UNINVITE_GROUP}
+   * @param warp  the affected warp
+   * @param group the identifier of the group
+   * @return a new entry
+   */
+  static JournalEntry ofGroup(Kind kind, Warp warp, String group) {
+    return new JournalEntry(kind, ImmutableList.of(warp), null, group);
+  }
+
+  /**
+   * Applies this entry to the given {@code storage}.
+   *
+   * @param storage the storage
+   */
+  void applyTo(WarpStorage storage) {
+    switch (kind) {
+      case ADD:
+        // the warps might have been added before the journal was interrupted
+        warps.forEach(storage::removeWarp);
+        storage.addWarps(warps);
+        break;
+      case REMOVE:
+        warps.forEach(storage::removeWarp);
+        break;
+      case INVITE_PLAYER:
+        storage.invitePlayer(warps.get(0), invitedPlayer);
+        break;
+      case UNINVITE_PLAYER:
+        storage.uninvitePlayer(warps.get(0), invitedPlayer);
+        break;
+      case INVITE_GROUP:
+        storage.inviteGroup(warps.get(0), invitedGroup);
+        break;
+      case UNINVITE_GROUP:
+        storage.uninviteGroup(warps.get(0), invitedGroup);
+        break;
+      case UPDATE_CREATOR:
+        warps.forEach(storage::updateCreator);
+        break;
+      case UPDATE_LOCATION:
+        warps.forEach(storage::updateLocation);
+        break;
+      case UPDATE_TYPE:
+        warps.forEach(storage::updateType);
+        break;
+      case UPDATE_VISITS:
+        storage.updateVisits(warps);
+        break;
+      case UPDATE_WELCOME_MESSAGE:
+        warps.forEach(storage::updateWelcomeMessage);
+        break;
+      default:
+        throw new AssertionError(kind);
+    }
+  }
+
+  /**
+   * Gets the number of warps affected by this entry.
+   *
+   * @return the number of affected warps
+   */
+  int size() {
+    return warps.size();
+  }
+
+  /**
+   * Writes this entry to the given {@code output}.
+   *
+   * @param output the output
+   * @throws IOException on an I/O error
+   */
+  void writeTo(DataOutput output) throws IOException {
+    output.writeByte(kind.ordinal());
+    output.writeInt(warps.size());
+    for (Warp warp : warps) {
+      writeWarp(output, warp);
+    }
+    if (invitedPlayer != null) {
+      writeUniqueId(output, invitedPlayer);
+    }
+    if (invitedGroup != null) {
+      output.writeUTF(invitedGroup);
+    }
+  }
+
+  /**
+   * Reads an entry from the given {@code input}.
+   *
+   * @param input the input
+   * @return the entry
+   * @throws IOException on an I/O error or if the input does not contain a valid entry
+   */
+  static JournalEntry readFrom(DataInput input) throws IOException {
+    int ordinal = input.readByte();
+    if (ordinal < 0 || ordinal >= Kind.values().length) {
+      throw new IOException("Unknown kind of journal entry: " + ordinal);
+    }
+    Kind kind = Kind.values()[ordinal];
+
+    int size = input.readInt();
+    ImmutableList.Builder<Warp> builder = ImmutableList.builder();
+    for (int i = 0; i < size; i++) {
+      builder.add(readWarp(input));
+    }
+    List<Warp> warps = builder.build();
+
+    switch (kind) {
+      case INVITE_PLAYER:
+      case UNINVITE_PLAYER:
+        return new JournalEntry(kind, warps, readUniqueId(input), null);
+      case INVITE_GROUP:
+      case UNINVITE_GROUP:
+        return new JournalEntry(kind, warps, null, input.readUTF());
+      default:
+        return new JournalEntry(kind, warps, null, null);
+    }
+  }
+
+  private static void writeWarp(DataOutput output, Warp warp) throws IOException {
+    output.writeUTF(warp.getName());
+    writeUniqueId(output, warp.getCreator());
+    writeUniqueId(output, warp.getWorldIdentifier());
+    Vector3d position = warp.getPosition();
+    output.writeDouble(position.getX());
+    output.writeDouble(position.getY());
+    output.writeDouble(position.getZ());
+    Vector2f rotation = warp.getRotation();
+    output.writeFloat(rotation.getX());
+    output.writeFloat(rotation.getY());
+    output.writeLong(warp.getCreationDate().toEpochMilli());
+    output.writeUTF(warp.getType().name());
+    output.writeInt(warp.getVisits());
+    output.writeUTF(warp.getWelcomeMessage());
+    output.writeInt(warp.getInvitedPlayers().size());
+    for (UUID player : warp.getInvitedPlayers()) {
+      writeUniqueId(output, player);
+    }
+    output.writeInt(warp.getInvitedGroups().size());
+    for (String group : warp.getInvitedGroups()) {
+      output.writeUTF(group);
+    }
+  }
+
+  private static Warp readWarp(DataInput input) throws IOException {
+    WarpBuilder builder =
+        new WarpBuilder(input.readUTF(), readUniqueId(input), readUniqueId(input),
+                        new Vector3d(input.readDouble(), input.readDouble(), input.readDouble()),
+                        new Vector2f(input.readFloat(), input.readFloat()));
+    builder.setCreationDate(Instant.ofEpochMilli(input.readLong()));
+    try {
+      builder.setType(Warp.Type.valueOf(input.readUTF()));
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Unknown warp type.", e);
+    }
+    builder.setVisits(input.readInt());
+    builder.setWelcomeMessage(input.readUTF());
+    int invitedPlayers = input.readInt();
+    for (int i = 0; i < invitedPlayers; i++) {
+      builder.addInvitedPlayer(readUniqueId(input));
+    }
+    int invitedGroups = input.readInt();
+    for (int i = 0; i < invitedGroups; i++) {
+      builder.addInvitedGroup(input.readUTF());
+    }
+    return builder.build();
+  }
+
+  private static void writeUniqueId(DataOutput output, UUID uniqueId) throws IOException {
+    output.writeLong(uniqueId.getMostSignificantBits());
+    output.writeLong(uniqueId.getLeastSignificantBits());
+  }
+
+  private static UUID readUniqueId(DataInput input) throws IOException {
+    return new UUID(input.readLong(), input.readLong());
+  }
+
+  /**
+   * The kinds of writes. The ordinal is part of the journal's file format, so new kinds must be appended.
+   */
+  enum Kind {
+    ADD, REMOVE, INVITE_PLAYER, UNINVITE_PLAYER, INVITE_GROUP, UNINVITE_GROUP, UPDATE_CREATOR, UPDATE_LOCATION,
+    UPDATE_TYPE, UPDATE_VISITS, UPDATE_WELCOME_MESSAGE
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.storage.JournalEntry.Kind;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A {@code WarpStorage} that works on top of another {@code WarpStorage} and executes every <b>writing</b> task
+ * asynchronous on an {@link Executor}, like {@link AsyncWritingWarpStorage} does. Every write is recorded in a {@link
+ * WriteAheadJournal} in the thread that calls the method, before it is handed to the {@code Executor}.
+ *
+ * <p>A journaled write is committed by the same task that executes it, once the write has returned without throwing
+ * an exception. Writes that fail or whose tasks are discarded, e.g. because the executor is shut down before it runs
+ * them, remain uncommitted and are replayed from the journal on the next start.</p>
+ *
+ * <p>Visits are not journaled. They are the most frequent write and the storage persists the absolute number of
+ * visits, so a lost update is corrected by the next update of the same warp.</p>
+ */
+public class JournalingWarpStorage extends ForwardingWarpStorage {
+
+  private final WarpStorage warpStorage;
+  private final WriteAheadJournal journal;
+  private final Function<String, Executor> executors;
+
+  /**
+   * Creates an instance. Every call is delegated to the given {@code warpStorage}, writing methods are recorded in the
+   * given {@code journal} and executed in the {@code Executor} that the given {@code executors} function returns for
+   * the name of the affected warp, reading methods still run in the thread that calls the method.
+   *
+   * @param warpStorage the {@code WarpStorage} whose writing methods should be journaled and executed asynchronous
+   * @param journal     the journal that records writes
+   * @param executors   the function that selects the {@code Executor} that executes writing methods of a warp by the
+   *                    warp's name
+   */
+  public JournalingWarpStorage(WarpStorage warpStorage, WriteAheadJournal journal,
+                               Function<String, Executor> executors) {
+    this.warpStorage = warpStorage;
+    this.journal = journal;
+    this.executors = executors;
+  }
+
+  @Override
+  protected WarpStorage delegate() {
+    return warpStorage;
+  }
+
+  @Override
+  public void addWarp(final Warp warp) {
+    write(JournalEntry.of(Kind.ADD, warp), warp, () -> delegate().addWarp(warp));
+  }
+
+  @Override
+  public void addWarps(final Collection<Warp> warps) {
+    long id = journal.append(JournalEntry.of(Kind.ADD, warps));
+    // warps that share an executor are added in bulk, the entry is committed once every bulk addition succeeded
+    Map<Executor, List<Warp>> warpsByExecutor = new IdentityHashMap<>();
+    for (Warp warp : warps) {
+      warpsByExecutor.computeIfAbsent(executors.apply(warp.getName()), executor -> new ArrayList<>()).add(warp);
+    }
+    if (warpsByExecutor.isEmpty()) {
+      journal.commit(id);
+      return;
+    }
+    AtomicInteger remaining = new AtomicInteger(warpsByExecutor.size());
+    warpsByExecutor.forEach((executor, group) -> executor.execute(() -> {
+      delegate().addWarps(group);
+      if (remaining.decrementAndGet() == 0) {
+        journal.commit(id);
+      }
+    }));
+  }
+
+  @Override
+  public void removeWarp(final Warp warp) {
+    write(JournalEntry.of(Kind.REMOVE, warp), warp, () -> delegate().removeWarp(warp));
+  }
+
+  @Override
+  public void inviteGroup(final Warp warp, final String groupId) {
+    write(JournalEntry.ofGroup(Kind.INVITE_GROUP, warp, groupId), warp, () -> delegate().inviteGroup(warp, groupId));
+  }
+
+  @Override
+  public void invitePlayer(final Warp warp, final UUID uniqueId) {
+    write(JournalEntry.ofPlayer(Kind.INVITE_PLAYER, warp, uniqueId), warp,
+          () -> delegate().invitePlayer(warp, uniqueId));
+  }
+
+  @Override
+  public void uninviteGroup(final Warp warp, final String groupId) {
+    write(JournalEntry.ofGroup(Kind.UNINVITE_GROUP, warp, groupId), warp,
+          () -> delegate().uninviteGroup(warp, groupId));
+  }
+
+  @Override
+  public void uninvitePlayer(final Warp warp, final UUID uniqueId) {
+    write(JournalEntry.ofPlayer(Kind.UNINVITE_PLAYER, warp, uniqueId), warp,
+          () -> delegate().uninvitePlayer(warp, uniqueId));
+  }
+
+  @Override
+  public void updateCreator(final Warp warp) {
+    write(JournalEntry.of(Kind.UPDATE_CREATOR, warp), warp, () -> delegate().updateCreator(warp));
+  }
+
+  @Override
+  public void updateLocation(final Warp warp) {
+    write(JournalEntry.of(Kind.UPDATE_LOCATION, warp), warp, () -> delegate().updateLocation(warp));
+  }
+
+  @Override
+  public void updateType(final Warp warp) {
+    write(JournalEntry.of(Kind.UPDATE_TYPE, warp), warp, () -> delegate().updateType(warp));
+  }
+
+  @Override
+  public void updateVisits(final Warp warp) {
+    executors.apply(warp.getName()).execute(() -> delegate().updateVisits(warp));
+  }
+
+  @Override
+  public void updateVisits(final Collection<Warp> warps) {
+    executors.apply(AsyncWritingWarpStorage.BULK_KEY).execute(() -> delegate().updateVisits(warps));
+  }
+
+  @Override
+  public void updateWelcomeMessage(final Warp warp) {
+    write(JournalEntry.of(Kind.UPDATE_WELCOME_MESSAGE, warp), warp, () -> delegate().updateWelcomeMessage(warp));
+  }
+
+  /**
+   * Records the given {@code entry} and hands the given {@code write} to the executor selected for the given {@code
+   * warp}. The entry is committed once the write returned without throwing an exception.
+   *
+   * @param entry the entry that describes the write
+   * @param warp  the warp affected by the write
+   * @param write the write
+   */
+  private void write(JournalEntry entry, Warp warp, Runnable write) {
+    long id = journal.append(entry);
+    executors.apply(warp.getName()).execute(() -> {
+      write.run();
+      journal.commit(id);
+    });
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+import io.github.mywarp.mywarp.warp.storage.StorageMetrics.Operation;
+import io.github.mywarp.mywarp.warp.storage.StorageMetrics.OperationSnapshot;
+
+import org.slf4j.Logger;
+
+import java.util.Map;
+
+/**
+ * A {@code MetricsSink} that writes every operation that was called in an interval to the log.
+ */
+public class LoggingMetricsSink implements MetricsSink {
+
+  private static final Logger log = MyWarpLogger.getLogger(LoggingMetricsSink.class);
+
+  @Override
+  public void report(StorageMetrics.Snapshot snapshot) {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<Operation, OperationSnapshot> entry : snapshot.getOperations().entrySet()) {
+      OperationSnapshot operation = entry.getValue();
+      if (operation.getCount() == 0 && operation.getInFlight() == 0) {
+        continue;
+      }
+      builder.append(String.format("%n  %s: %d calls, %d errors, %d in flight, mean %.2f ms, p50 %d ms, p95 %d ms, "
+                                   + "p99 %d ms", entry.getKey(), operation.getCount(), operation.getErrors(),
+                                   operation.getInFlight(), operation.getMean().toNanos() / 1000000d,
+                                   operation.getPercentile(0.5).toMillis(), operation.getPercentile(0.95).toMillis(),
+                                   operation.getPercentile(0.99).toMillis()));
+    }
+    if (builder.length() == 0 && snapshot.getQueued() == 0) {
+      log.debug("No storage operations since the last report.");
+      return;
+    }
+    log.info("Storage metrics, {} task(s) waiting:{}", snapshot.getQueued(), builder);
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+/**
+ * Receives the {@link StorageMetrics} of regular intervals, e.g. to export them to a monitoring system.
+ *
+ * @see StorageMetricsReporter
+ */
+public interface MetricsSink {
+
+  /**
+   * Reports the given {@code snapshot}, which holds the calls made since the last report.
+   *
+   * @param snapshot the snapshot
+   */
+  void report(StorageMetrics.Snapshot snapshot);
+
+}
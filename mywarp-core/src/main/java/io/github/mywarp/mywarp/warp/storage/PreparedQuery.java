@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+
+import org.jooq.Binding;
+import org.jooq.BindingSetStatementContext;
+import org.jooq.Configuration;
+import org.jooq.Converter;
+import org.jooq.DataType;
+import org.jooq.Param;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+import org.jooq.types.UInteger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A query whose SQL is rendered only once. Executing it only binds the given values to a {@link PreparedStatement},
+ * so neither the query tree needs to be build nor the SQL needs to be rendered again. The {@code PreparedStatement} is
+ * kept open in the given {@link StatementCache} and reused for subsequent executions on the same {@link Connection}.
+ *
+ * <p>The query is created from a template {@code Query} that uses a distinctly named {@link Param} (see {@link
+ * DSL#param(String, org.jooq.Field)}) for every value that should be bound. Values are bound in the order in which the
+ * corresponding parameters appear in the rendered SQL, using the {@link Binding} of the parameter. Constants that
+ * should not be bound must be inlined (see {@link DSL#inline(Object)}).</p>
+ *
+ * <p>The rendered SQL depends on the dialect and the settings of the {@code Configuration} used to create an
+ * instance, so instances must only be executed with {@code Configuration}s that share these properties. As {@code
+ * PreparedStatement}s are reused per {@code Connection}, a {@code Connection} must not be used by multiple threads at
+ * once.</p>
+ */
+class PreparedQuery {
+
+  private final String sql;
+  private final ImmutableList<DataType<?>> parameterTypes;
+  private final StatementCache statements;
+
+  /**
+   * Creates an instance that renders the given {@code template} with the given {@code configuration}.
+   *
+   * @param configuration the {@code Configuration} used to render the SQL
+   * @param template      the template query
+   * @param statements    the cache that keeps prepared statements open
+   */
+  PreparedQuery(Configuration configuration, Query template, StatementCache statements) {
+    this.statements = statements;
+    this.sql = DSL.using(configuration).render(template);
+
+    ImmutableList.Builder<DataType<?>> builder = ImmutableList.builder();
+    for (Param<?> param : template.getParams().values()) {
+      if (!param.isInline()) {
+        builder.add(param.getDataType());
+      }
+    }
+    this.parameterTypes = builder.build();
+  }
+
+  /**
+   * Executes this query with the given {@code values}.
+   *
+   * @param configuration the {@code Configuration} used to execute the query
+   * @param values        the values to bind
+   * @return the number of affected rows
+   * @throws IllegalArgumentException if the number of values does not match the number of parameters
+   */
+  int execute(Configuration configuration, Object... values) {
+    return DSL.using(configuration).connectionResult(connection -> {
+      PreparedStatement statement = prepare(connection);
+      bind(configuration, statement, values);
+      return statement.executeUpdate();
+    });
+  }
+
+  /**
+   * Executes this query once for every set of values in the given list as a single batch.
+   *
+   * @param configuration the {@code Configuration} used to execute the query
+   * @param valueSets     the sets of values to bind
+   * @throws IllegalArgumentException if the number of values in a set does not match the number of parameters
+   */
+  void executeBatch(Configuration configuration, List<Object[]> valueSets) {
+    if (valueSets.isEmpty()) {
+      return;
+    }
+    DSL.using(configuration).connection(connection -> {
+      PreparedStatement statement = prepare(connection);
+      for (Object[] values : valueSets) {
+        bind(configuration, statement, values);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    });
+  }
+
+  /**
+   * Executes this query with the given {@code values} and gets an Optional containing the first value of the first
+   * record returned as surrogate key, if there is one.
+   *
+   * @param configuration the {@code Configuration} used to execute the query
+   * @param values        the values to bind
+   * @return an Optional containing the fetched key
+   * @throws IllegalArgumentException if the number of values does not match the number of parameters
+   */
+  Optional<UInteger> fetchOptionalKey(Configuration configuration, Object... values) {
+    return DSL.using(configuration).connectionResult(connection -> {
+      PreparedStatement statement = prepare(connection);
+      bind(configuration, statement, values);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? Optional.of(UInteger.valueOf(resultSet.getLong(1))) : Optional.<UInteger>empty();
+      }
+    });
+  }
+
+  private PreparedStatement prepare(Connection connection) throws SQLException {
+    return statements.prepare(connection, sql);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void bind(Configuration configuration, PreparedStatement statement, Object[] values) throws SQLException {
+    checkArgument(values.length == parameterTypes.size(), "Expected %s values, but got %s.", parameterTypes.size(),
+                  values.length);
+    for (int i = 0; i < values.length; i++) {
+      Binding<?, Object> binding = (Binding<?, Object>) parameterTypes.get(i).getBinding();
+      binding.set(new SetStatementContext<>(configuration, statement, i + 1, values[i]));
+    }
+  }
+
+  /**
+   * The context used to bind a single value to a {@code PreparedStatement}.
+   *
+   * @param <U> the type of the value
+   */
+  private static class SetStatementContext<U> implements BindingSetStatementContext<U> {
+
+    private final Configuration configuration;
+    private final PreparedStatement statement;
+    private final int index;
+    private final U value;
+    private final Map<Object, Object> data = new HashMap<>();
+
+    SetStatementContext(Configuration configuration, PreparedStatement statement, int index, U value) {
+      this.configuration = configuration;
+      this.statement = statement;
+      this.index = index;
+      this.value = value;
+    }
+
+    @Override
+    public PreparedStatement statement() {
+      return statement;
+    }
+
+    @Override
+    public int index() {
+      return index;
+    }
+
+    @Override
+    public U value() {
+      return value;
+    }
+
+    @Override
+    public <T> BindingSetStatementContext<T> convert(Converter<? extends T, ? super U> converter) {
+      return new SetStatementContext<>(configuration, statement, index, converter.to(value));
+    }
+
+    @Override
+    public Configuration configuration() {
+      return configuration;
+    }
+
+    @Override
+    public Settings settings() {
+      return configuration.settings();
+    }
+
+    @Override
+    public SQLDialect dialect() {
+      return configuration.dialect();
+    }
+
+    @Override
+    public SQLDialect family() {
+      return configuration.family();
+    }
+
+    @Override
+    public Map<Object, Object> data() {
+      return data;
+    }
+
+    @Override
+    public Object data(Object key) {
+      return data.get(key);
+    }
+
+    @Override
+    public Object data(Object key, Object value) {
+      return data.put(key, value);
+    }
+  }
+}
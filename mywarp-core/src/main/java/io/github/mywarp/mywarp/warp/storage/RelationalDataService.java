@@ -21,6 +21,8 @@ package io.github.mywarp.mywarp.warp.storage;
 
 import java.io.Closeable;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import javax.sql.DataSource;
@@ -45,6 +47,36 @@ public interface RelationalDataService extends Closeable {
    */
   ExecutorService getExecutorService();
 
+  /**
+   * Gets an {@code Executor} that should execute database calls concerning the given {@code key}. Tasks submitted for
+   * equal keys are executed in the order of submission, tasks submitted for different keys may be executed in
+   * parallel.
+   *
+   * <p>The default implementation returns the {@code ExecutorService} returned by {@link #getExecutorService()},
+   * which is only correct if the later executes tasks sequentially.</p>
+   *
+   * @param key the key, typically the name of the warp that is concerned by database calls
+   * @return an {@code Executor}
+   */
+  default Executor getExecutor(Object key) {
+    return getExecutorService();
+  }
+
+  /**
+   * Executes the given {@code task} once all database calls that have been submitted before, regardless of the key
+   * they have been submitted for, have been executed. Tasks that read the whole database should be executed this way
+   * so they cannot overtake writes that are still queued.
+   *
+   * <p>The default implementation submits the task to the {@code ExecutorService} returned by {@link
+   * #getExecutorService()}, which is only correct if the later executes tasks sequentially.</p>
+   *
+   * @param task the task
+   * @return a future that completes once the task has been executed
+   */
+  default CompletableFuture<Void> executeAfterPending(Runnable task) {
+    return CompletableFuture.runAsync(task, getExecutorService());
+  }
+
   @Override
   void close();
 }
@@ -19,42 +19,56 @@
 
 package io.github.mywarp.mywarp.warp.storage;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static io.github.mywarp.mywarp.warp.storage.generated.Tables.GROUP;
 import static io.github.mywarp.mywarp.warp.storage.generated.Tables.PLAYER;
 import static io.github.mywarp.mywarp.warp.storage.generated.Tables.WARP;
 import static io.github.mywarp.mywarp.warp.storage.generated.Tables.WARP_GROUP_MAP;
 import static io.github.mywarp.mywarp.warp.storage.generated.Tables.WARP_PLAYER_MAP;
 import static io.github.mywarp.mywarp.warp.storage.generated.Tables.WORLD;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.param;
 import static org.jooq.impl.DSL.select;
 import static org.jooq.impl.DSL.selectOne;
-import static org.jooq.impl.DSL.val;
 
 import com.flowpowered.math.vector.Vector2f;
 import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import io.github.mywarp.mywarp.warp.Warp;
 import io.github.mywarp.mywarp.warp.Warp.Type;
 import io.github.mywarp.mywarp.warp.WarpBuilder;
+import io.github.mywarp.mywarp.warp.storage.WriteBatch.Update;
 import io.github.mywarp.mywarp.warp.storage.generated.tables.Player;
 
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
-import org.jooq.Insert;
+import org.jooq.Field;
 import org.jooq.InsertOnDuplicateStep;
-import org.jooq.InsertSetMoreStep;
+import org.jooq.Query;
 import org.jooq.Record;
-import org.jooq.Record14;
-import org.jooq.Result;
+import org.jooq.Record3;
 import org.jooq.Table;
 import org.jooq.TableField;
+import org.jooq.TransactionalRunnable;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.SQLStateClass;
 import org.jooq.impl.DSL;
 import org.jooq.types.UInteger;
 
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -64,12 +78,74 @@ import javax.annotation.Nullable;
  *
  * <p>This implementation is guaranteed to work with SQLite, MySQL, MariaDB and H2, but might also work on other
  * relational database management systems.</p>
+ *
+ * <p>Surrogate keys of players, worlds, groups and warps are cached once they have been read or written, so that
+ * statements can bind them directly instead of resolving them with subqueries.</p>
  */
 @SuppressWarnings("checkstyle:indentation")
 class RelationalWarpStorage implements WarpStorage {
 
+  /**
+   * The maximal number of warps updated by a single bulk statement. Each warp binds three values, so this keeps
+   * statements below the limit of 999 bind values that applies to SQLite.
+   */
+  private static final int BULK_CHUNK_SIZE = 300;
+
+  /**
+   * The maximal number of warps added within a single transaction when adding warps in bulk.
+   */
+  private static final int ADDITION_CHUNK_SIZE = 500;
+
+  /**
+   * The maximal number of surrogate keys cached per table.
+   */
+  private static final int KEY_CACHE_SIZE = 100000;
+
+  /**
+   * The maximal number of attempts to run a transaction or statement that is rolled back due to conflicting
+   * concurrent transactions.
+   */
+  private static final int MAX_ATTEMPTS = 5;
+
+  /**
+   * The number of rows fetched from the database at once when streaming through large results.
+   */
+  private static final int FETCH_SIZE = 500;
+
+  /**
+   * The maximal number of prepared statements kept open for a single connection.
+   */
+  private static final int STATEMENT_CACHE_SIZE = 32;
+
+  private final SurrogateKeyCache<UUID> playerKeys = new SurrogateKeyCache<>(KEY_CACHE_SIZE);
+  private final SurrogateKeyCache<UUID> worldKeys = new SurrogateKeyCache<>(KEY_CACHE_SIZE);
+  private final SurrogateKeyCache<String> groupKeys = new SurrogateKeyCache<>(KEY_CACHE_SIZE);
+  private final SurrogateKeyCache<String> warpKeys = new SurrogateKeyCache<>(KEY_CACHE_SIZE);
+  private final List<SurrogateKeyCache<?>> keyCaches = ImmutableList.of(playerKeys, worldKeys, groupKeys, warpKeys);
+  private final StatementCache statements = new StatementCache(STATEMENT_CACHE_SIZE);
+
   private final Configuration configuration;
 
+  private final PreparedQuery insertWarp;
+  private final PreparedQuery deleteWarp;
+  private final PreparedQuery insertPlayerInvitation;
+  private final PreparedQuery deletePlayerInvitation;
+  private final PreparedQuery insertGroupInvitation;
+  private final PreparedQuery deleteGroupInvitation;
+  private final PreparedQuery updateCreator;
+  private final PreparedQuery updateLocation;
+  private final PreparedQuery updateType;
+  private final PreparedQuery updateVisits;
+  private final PreparedQuery updateWelcomeMessage;
+
+  private final PreparedQuery selectWarpKey;
+  private final PreparedQuery selectPlayerKey;
+  private final PreparedQuery insertPlayer;
+  private final PreparedQuery selectWorldKey;
+  private final PreparedQuery insertWorld;
+  private final PreparedQuery selectGroupKey;
+  private final PreparedQuery insertGroup;
+
   /**
    * Creates an instance that uses the given {@code Configuration}.
    *
@@ -77,6 +153,76 @@ class RelationalWarpStorage implements WarpStorage {
    */
   RelationalWarpStorage(Configuration configuration) {
     this.configuration = configuration;
+
+    DSLContext create = create(configuration);
+    // @formatter:off
+    insertWarp = prepare(create
+        .insertInto(WARP)
+        .set(WARP.NAME, param("name", WARP.NAME))
+        .set(WARP.PLAYER_ID, param("playerId", WARP.PLAYER_ID))
+        .set(WARP.TYPE, param("type", WARP.TYPE))
+        .set(WARP.X, param("x", WARP.X))
+        .set(WARP.Y, param("y", WARP.Y))
+        .set(WARP.Z, param("z", WARP.Z))
+        .set(WARP.PITCH, param("pitch", WARP.PITCH))
+        .set(WARP.YAW, param("yaw", WARP.YAW))
+        .set(WARP.WORLD_ID, param("worldId", WARP.WORLD_ID))
+        .set(WARP.CREATION_DATE, param("creationDate", WARP.CREATION_DATE))
+        .set(WARP.VISITS, param("visits", WARP.VISITS))
+        .set(WARP.WELCOME_MESSAGE, param("welcomeMessage", WARP.WELCOME_MESSAGE)));
+    deleteWarp = prepare(create
+        .delete(WARP)
+        .where(WARP.NAME.eq(param("name", WARP.NAME))));
+    insertPlayerInvitation = prepare(create
+        .insertInto(WARP_PLAYER_MAP)
+        .set(WARP_PLAYER_MAP.WARP_ID, param("warpId", WARP_PLAYER_MAP.WARP_ID))
+        .set(WARP_PLAYER_MAP.PLAYER_ID, param("playerId", WARP_PLAYER_MAP.PLAYER_ID)));
+    deletePlayerInvitation = prepare(create
+        .delete(WARP_PLAYER_MAP)
+        .where(WARP_PLAYER_MAP.WARP_ID.eq(param("warpId", WARP_PLAYER_MAP.WARP_ID))
+            .and(WARP_PLAYER_MAP.PLAYER_ID.eq(param("playerId", WARP_PLAYER_MAP.PLAYER_ID)))));
+    insertGroupInvitation = prepare(create
+        .insertInto(WARP_GROUP_MAP)
+        .set(WARP_GROUP_MAP.WARP_ID, param("warpId", WARP_GROUP_MAP.WARP_ID))
+        .set(WARP_GROUP_MAP.GROUP_ID, param("groupId", WARP_GROUP_MAP.GROUP_ID)));
+    deleteGroupInvitation = prepare(create
+        .delete(WARP_GROUP_MAP)
+        .where(WARP_GROUP_MAP.WARP_ID.eq(param("warpId", WARP_GROUP_MAP.WARP_ID))
+            .and(WARP_GROUP_MAP.GROUP_ID.eq(param("groupId", WARP_GROUP_MAP.GROUP_ID)))));
+    updateCreator = prepare(create
+        .update(WARP)
+        .set(WARP.PLAYER_ID, param("playerId", WARP.PLAYER_ID))
+        .where(WARP.NAME.eq(param("name", WARP.NAME))));
+    updateLocation = prepare(create
+        .update(WARP)
+        .set(WARP.X, param("x", WARP.X))
+        .set(WARP.Y, param("y", WARP.Y))
+        .set(WARP.Z, param("z", WARP.Z))
+        .set(WARP.PITCH, param("pitch", WARP.PITCH))
+        .set(WARP.YAW, param("yaw", WARP.YAW))
+        .set(WARP.WORLD_ID, param("worldId", WARP.WORLD_ID))
+        .where(WARP.NAME.eq(param("name", WARP.NAME))));
+    updateType = prepare(create
+        .update(WARP)
+        .set(WARP.TYPE, param("type", WARP.TYPE))
+        .where(WARP.NAME.eq(param("name", WARP.NAME))));
+    updateVisits = prepare(create
+        .update(WARP)
+        .set(WARP.VISITS, param("visits", WARP.VISITS))
+        .where(WARP.NAME.eq(param("name", WARP.NAME))));
+    updateWelcomeMessage = prepare(create
+        .update(WARP)
+        .set(WARP.WELCOME_MESSAGE, param("welcomeMessage", WARP.WELCOME_MESSAGE))
+        .where(WARP.NAME.eq(param("name", WARP.NAME))));
+    // @formatter:on
+
+    selectWarpKey = prepareSelectKey(WARP, WARP.NAME, WARP.WARP_ID);
+    selectPlayerKey = prepareSelectKey(PLAYER, PLAYER.UUID, PLAYER.PLAYER_ID);
+    insertPlayer = prepareInsertOrIgnore(PLAYER, PLAYER.UUID);
+    selectWorldKey = prepareSelectKey(WORLD, WORLD.UUID, WORLD.WORLD_ID);
+    insertWorld = prepareInsertOrIgnore(WORLD, WORLD.UUID);
+    selectGroupKey = prepareSelectKey(GROUP, GROUP.NAME, GROUP.GROUP_ID);
+    insertGroup = prepareInsertOrIgnore(GROUP, GROUP.NAME);
   }
 
   private DSLContext create(Configuration configuration) {
@@ -87,284 +233,239 @@ class RelationalWarpStorage implements WarpStorage {
   public void addWarp(final Warp warp) {
     final Vector3d position = warp.getPosition();
     final Vector2f rotation = warp.getRotation();
-    final List<UUID> playerIds = new ArrayList<>();
-    playerIds.add(warp.getCreator());
-    playerIds.addAll(warp.getInvitedPlayers());
 
-    // @formatter:off
-    create(configuration).transaction(configuration -> {
+    transaction(configuration -> {
+      //Insert the warp
+      insertWarp.execute(configuration, warp.getName(), findOrInsertPlayerKey(configuration, warp.getCreator()),
+                         warp.getType(), position.getX(), position.getY(), position.getZ(), rotation.getX(),
+                         rotation.getY(), findOrInsertWorldKey(configuration, warp.getWorldIdentifier()),
+                         warp.getCreationDate(), UInteger.valueOf(warp.getVisits()), warp.getWelcomeMessage());
 
-      //Insert all players
-      List<Insert<Record>> playerInserts = new ArrayList<>();
-      for (UUID playerId : playerIds) {
-        playerInserts.add(insertOrIgnore(configuration, PLAYER, PLAYER.UUID, playerId));
-      }
-      create(configuration).batch(playerInserts).execute();
+      UInteger warpKey = findWarpKey(configuration, warp.getName());
 
-      //Insert the world
-      insertOrIgnore(configuration, WORLD, WORLD.UUID, warp.getWorldIdentifier()).execute();
+      //insert all player- and group-invitations
+      List<Object[]> playerInvitations = new ArrayList<>();
+      for (UUID invited : warp.getInvitedPlayers()) {
+        playerInvitations.add(new Object[]{warpKey, findOrInsertPlayerKey(configuration, invited)});
+      }
+      insertPlayerInvitation.executeBatch(configuration, playerInvitations);
 
-      //Insert the warp
-      create(configuration)
-          .insertInto(WARP)
-          .set(WARP.NAME, warp.getName())
-          .set(WARP.PLAYER_ID,
-               select(PLAYER.PLAYER_ID)
-               .from(PLAYER)
-               .where(PLAYER.UUID.eq(warp.getCreator()))
-               .limit(1)
-          )
-          .set(WARP.TYPE, warp.getType())
-          .set(WARP.X, position.getX())
-          .set(WARP.Y, position.getY())
-          .set(WARP.Z, position.getZ())
-          .set(WARP.PITCH, rotation.getX())
-          .set(WARP.YAW, rotation.getY())
-          .set(WARP.WORLD_ID,
-               select(WORLD.WORLD_ID)
-               .from(WORLD)
-               .where(WORLD.UUID.eq(warp.getWorldIdentifier()))
-               .limit(1))
-          .set(WARP.CREATION_DATE, warp.getCreationDate())
-          .set(WARP.VISITS, UInteger.valueOf(warp.getVisits()))
-          .set(WARP.WELCOME_MESSAGE, warp.getWelcomeMessage())
-      .execute();
-
-      //Insert all groups
-      List<Insert<Record>> groupInserts = new ArrayList<>();
+      List<Object[]> groupInvitations = new ArrayList<>();
       for (String groupName : warp.getInvitedGroups()) {
-        groupInserts.add(insertOrIgnore(configuration, GROUP, GROUP.NAME, groupName));
+        groupInvitations.add(new Object[]{warpKey, findOrInsertGroupKey(configuration, groupName)});
       }
-      create(configuration).batch(groupInserts).execute();
+      insertGroupInvitation.executeBatch(configuration, groupInvitations);
+    });
+  }
 
-      //insert all player-invitations
-      List<InsertSetMoreStep<Record>> warpPlayerInserts = new ArrayList<>();
+  @Override
+  public void addWarps(final Collection<Warp> warps) {
+    for (List<Warp> chunk : Lists.partition(new ArrayList<>(warps), ADDITION_CHUNK_SIZE)) {
+      transaction(configuration -> addWarps(configuration, chunk));
+    }
+  }
+
+  /**
+   * Adds the given {@code warps} using the given {@code configuration}. Players, worlds and groups referenced by the
+   * warps are looked up and inserted in one pass before the warps and their invitations are inserted in batches.
+   *
+   * @param configuration the {@code Configuration} used to query the database
+   * @param warps         the warps to add
+   */
+  private void addWarps(Configuration configuration, List<Warp> warps) {
+    Set<UUID> players = new HashSet<>();
+    Set<UUID> worlds = new HashSet<>();
+    Set<String> groups = new HashSet<>();
+    for (Warp warp : warps) {
+      players.add(warp.getCreator());
+      players.addAll(warp.getInvitedPlayers());
+      worlds.add(warp.getWorldIdentifier());
+      groups.addAll(warp.getInvitedGroups());
+    }
+    Map<UUID, UInteger> playerKeys =
+        findOrInsertKeys(configuration, this.playerKeys, PLAYER, PLAYER.UUID, PLAYER.PLAYER_ID, insertPlayer, players);
+    Map<UUID, UInteger> worldKeys =
+        findOrInsertKeys(configuration, this.worldKeys, WORLD, WORLD.UUID, WORLD.WORLD_ID, insertWorld, worlds);
+    Map<String, UInteger> groupKeys =
+        findOrInsertKeys(configuration, this.groupKeys, GROUP, GROUP.NAME, GROUP.GROUP_ID, insertGroup, groups);
+
+    List<Object[]> warpRows = new ArrayList<>();
+    for (Warp warp : warps) {
+      Vector3d position = warp.getPosition();
+      Vector2f rotation = warp.getRotation();
+      warpRows.add(new Object[]{warp.getName(), playerKeys.get(warp.getCreator()), warp.getType(), position.getX(),
+                                position.getY(), position.getZ(), rotation.getX(), rotation.getY(),
+                                worldKeys.get(warp.getWorldIdentifier()), warp.getCreationDate(),
+                                UInteger.valueOf(warp.getVisits()), warp.getWelcomeMessage()});
+    }
+    insertWarp.executeBatch(configuration, warpRows);
+
+    Map<String, UInteger> warpKeys =
+        findKeys(configuration, this.warpKeys, WARP, WARP.NAME, WARP.WARP_ID,
+                 warps.stream().map(Warp::getName).collect(Collectors.toList()));
+
+    List<Object[]> playerInvitations = new ArrayList<>();
+    List<Object[]> groupInvitations = new ArrayList<>();
+    for (Warp warp : warps) {
+      UInteger warpKey = warpKeys.get(warp.getName());
       for (UUID invited : warp.getInvitedPlayers()) {
-        warpPlayerInserts.add(create(configuration)
-          .insertInto(WARP_PLAYER_MAP)
-          .set(WARP_PLAYER_MAP.WARP_ID,
-               select(WARP.WARP_ID)
-                .from(WARP)
-                .where(WARP.NAME.eq(warp.getName()))
-                .limit(1)
-          )
-          .set(WARP_PLAYER_MAP.PLAYER_ID,
-               select(PLAYER.PLAYER_ID)
-               .from(PLAYER)
-               .where(PLAYER.UUID.eq(invited))
-               .limit(1)
-          )
-        );
+        playerInvitations.add(new Object[]{warpKey, playerKeys.get(invited)});
       }
-      create(configuration).batch(warpPlayerInserts).execute();
-
-      //insert all group-invitations
-      List<InsertSetMoreStep<Record>> warpGroupInserts = new ArrayList<>();
       for (String groupName : warp.getInvitedGroups()) {
-        warpGroupInserts.add(create(configuration)
-          .insertInto(WARP_GROUP_MAP)
-          .set(WARP_GROUP_MAP.WARP_ID,
-               select(WARP.WARP_ID)
-                .from(WARP)
-                .where(WARP.NAME.eq(warp.getName()))
-                .limit(1)
-          )
-          .set(WARP_GROUP_MAP.GROUP_ID,
-               select(GROUP.GROUP_ID)
-               .from(GROUP)
-               .where(GROUP.NAME.eq(groupName))
-               .limit(1)
-          )
-        );
+        groupInvitations.add(new Object[]{warpKey, groupKeys.get(groupName)});
       }
-      create(configuration).batch(warpGroupInserts).execute();
-    });
-    // @formatter:on
+    }
+    insertPlayerInvitation.executeBatch(configuration, playerInvitations);
+    insertGroupInvitation.executeBatch(configuration, groupInvitations);
   }
 
   @Override
   public void removeWarp(final Warp warp) {
-    // @formatter:off
-    create(configuration)
-        .delete(WARP)
-        .where(WARP.NAME.eq(warp.getName()))
-    .execute();
-    // @formatter:on
+    retrying(() -> deleteWarp.execute(configuration, warp.getName()));
+    warpKeys.invalidate(warp.getName());
   }
 
   @Override
   public List<Warp> getWarps() {
-    // Alias for the player-table to represent the warp-creator
-    Player creatorTable = PLAYER.as("c");
+    List<Warp> ret = new ArrayList<>();
+    getWarps(FETCH_SIZE, ret::addAll);
+    return ret;
+  }
 
-    // query the database and group results by name - each map-entry
-    // contains all values for one single warp
-    // @formatter:off
-    Map<String, Result<Record14<String, UUID, Type, Double, Double, Double, Float, Float, UUID, Instant,
-        UInteger, String, UUID, String>>> groupedResults = create(configuration)
-            .select(WARP.NAME, creatorTable.UUID, WARP.TYPE, WARP.X, WARP.Y, WARP.Z, WARP.YAW,
-                    WARP.PITCH, WORLD.UUID, WARP.CREATION_DATE, WARP.VISITS,
-                    WARP.WELCOME_MESSAGE, PLAYER.UUID, GROUP.NAME)
-            .from(WARP
-                    .join(WORLD)
-                        .on(WARP.WORLD_ID.eq(WORLD.WORLD_ID))
-                    .join(creatorTable)
-                        .on(WARP.PLAYER_ID.eq(creatorTable.PLAYER_ID))
-                    .leftOuterJoin(WARP_PLAYER_MAP)
-                        .on(WARP_PLAYER_MAP.WARP_ID.eq(WARP.WARP_ID))
-                    .leftOuterJoin(PLAYER)
-                        .on(WARP_PLAYER_MAP.PLAYER_ID.eq(PLAYER.PLAYER_ID)))
-                    .leftOuterJoin(WARP_GROUP_MAP)
-                        .on(WARP_GROUP_MAP.WARP_ID.eq(WARP.WARP_ID))
-                    .leftOuterJoin(GROUP)
-                        .on(WARP_GROUP_MAP.GROUP_ID.eq(GROUP.GROUP_ID))
-            .fetch().intoGroups(WARP.NAME);
-    // @formatter:on
+  @Override
+  public void getWarps(int chunkSize, Consumer<List<Warp>> consumer) {
+    checkArgument(chunkSize > 0, "'chunkSize' must be at least one.");
 
-    // create warp-instances from the results
-    return groupedResults.values().stream().map(r -> {
-      Vector3d position = new Vector3d(r.getValue(0, WARP.X), r.getValue(0, WARP.Y), r.getValue(0, WARP.Z));
-      Vector2f rotation = new Vector2f(r.getValue(0, WARP.PITCH), r.getValue(0, WARP.YAW));
-
-      WarpBuilder
-          builder =
-          new WarpBuilder(r.getValue(0, WARP.NAME), r.getValue(0, creatorTable.UUID), r.getValue(0, WORLD.UUID),
-                          position, rotation);
-
-      // optional values
-      builder.setType(r.getValue(0, WARP.TYPE));
-      builder.setCreationDate(r.getValue(0, WARP.CREATION_DATE));
-      builder.setVisits(r.getValue(0, WARP.VISITS).intValue());
-      builder.setWelcomeMessage(r.getValue(0, WARP.WELCOME_MESSAGE));
-
-      for (@Nullable String groupName : r.getValues(GROUP.NAME)) {
-        if (groupName != null) {
-          builder.addInvitedGroup(groupName);
-        }
-      }
+    // all queries run within the same transaction and thus on the same connection and the same state of the database
+    create(configuration).transaction(configuration -> {
+      // Alias for the player-table to represent the warp-creator
+      Player creatorTable = PLAYER.as("c");
 
-      for (@Nullable UUID inviteeUniqueId : r.getValues(PLAYER.UUID)) {
-        if (inviteeUniqueId != null) {
-          builder.addInvitedPlayer(inviteeUniqueId);
+      // query warps and invitations separately (to avoid a cartesian product of player and group invitations) and
+      // merge them by the warp's surrogate key while streaming through the results
+      // @formatter:off
+      try (Cursor<? extends Record> warpCursor = create(configuration)
+              .select(WARP.WARP_ID, WARP.NAME, creatorTable.PLAYER_ID, creatorTable.UUID, WARP.TYPE, WARP.X, WARP.Y,
+                      WARP.Z, WARP.YAW, WARP.PITCH, WORLD.WORLD_ID, WORLD.UUID, WARP.CREATION_DATE, WARP.VISITS,
+                      WARP.WELCOME_MESSAGE)
+              .from(WARP
+                      .join(WORLD)
+                          .on(WARP.WORLD_ID.eq(WORLD.WORLD_ID))
+                      .join(creatorTable)
+                          .on(WARP.PLAYER_ID.eq(creatorTable.PLAYER_ID)))
+              .orderBy(WARP.WARP_ID)
+              .fetchSize(FETCH_SIZE)
+              .fetchLazy();
+           Cursor<Record3<UInteger, UInteger, UUID>> playerCursor = create(configuration)
+              .select(WARP_PLAYER_MAP.WARP_ID, PLAYER.PLAYER_ID, PLAYER.UUID)
+              .from(WARP_PLAYER_MAP
+                      .join(PLAYER)
+                          .on(WARP_PLAYER_MAP.PLAYER_ID.eq(PLAYER.PLAYER_ID)))
+              .orderBy(WARP_PLAYER_MAP.WARP_ID)
+              .fetchSize(FETCH_SIZE)
+              .fetchLazy();
+           Cursor<Record3<UInteger, UInteger, String>> groupCursor = create(configuration)
+              .select(WARP_GROUP_MAP.WARP_ID, GROUP.GROUP_ID, GROUP.NAME)
+              .from(WARP_GROUP_MAP
+                      .join(GROUP)
+                          .on(WARP_GROUP_MAP.GROUP_ID.eq(GROUP.GROUP_ID)))
+              .orderBy(WARP_GROUP_MAP.WARP_ID)
+              .fetchSize(FETCH_SIZE)
+              .fetchLazy()) {
+        // @formatter:on
+
+        WarpKeyedCursor<Record3<UInteger, UInteger, UUID>>
+            playerInvitations =
+            new WarpKeyedCursor<>(playerCursor, WARP_PLAYER_MAP.WARP_ID);
+        WarpKeyedCursor<Record3<UInteger, UInteger, String>>
+            groupInvitations =
+            new WarpKeyedCursor<>(groupCursor, WARP_GROUP_MAP.WARP_ID);
+
+        // create warp-instances from the results
+        List<Warp> chunk = new ArrayList<>();
+        for (Record r : warpCursor) {
+          Vector3d position = new Vector3d(r.getValue(WARP.X), r.getValue(WARP.Y), r.getValue(WARP.Z));
+          Vector2f rotation = new Vector2f(r.getValue(WARP.PITCH), r.getValue(WARP.YAW));
+
+          WarpBuilder
+              builder =
+              new WarpBuilder(r.getValue(WARP.NAME), r.getValue(creatorTable.UUID), r.getValue(WORLD.UUID), position,
+                              rotation);
+
+          // optional values
+          builder.setType(r.getValue(WARP.TYPE));
+          builder.setCreationDate(r.getValue(WARP.CREATION_DATE));
+          builder.setVisits(r.getValue(WARP.VISITS).intValue());
+          builder.setWelcomeMessage(r.getValue(WARP.WELCOME_MESSAGE));
+
+          // cache the surrogate keys
+          UInteger warpKey = r.getValue(WARP.WARP_ID);
+          warpKeys.put(r.getValue(WARP.NAME), warpKey);
+          playerKeys.put(r.getValue(creatorTable.UUID), r.getValue(creatorTable.PLAYER_ID));
+          worldKeys.put(r.getValue(WORLD.UUID), r.getValue(WORLD.WORLD_ID));
+
+          playerInvitations.forEachOf(warpKey, record -> {
+            builder.addInvitedPlayer(record.value3());
+            playerKeys.put(record.value3(), record.value2());
+          });
+          groupInvitations.forEachOf(warpKey, record -> {
+            builder.addInvitedGroup(record.value3());
+            groupKeys.put(record.value3(), record.value2());
+          });
+
+          chunk.add(builder.build());
+          if (chunk.size() == chunkSize) {
+            consumer.accept(chunk);
+            chunk = new ArrayList<>();
+          }
+        }
+        if (!chunk.isEmpty()) {
+          consumer.accept(chunk);
         }
       }
-
-      return builder.build();
-    }).collect(Collectors.toList());
+    });
   }
 
   @Override
   public void inviteGroup(final Warp warp, final String groupId) {
-    create(configuration).transaction(configuration -> {
-      // @formatter:off
-      insertOrIgnore(configuration, GROUP, GROUP.NAME, groupId).execute();
-
-      create(configuration)
-          .insertInto(WARP_GROUP_MAP)
-          .set(WARP_GROUP_MAP.WARP_ID,
-               select(WARP.WARP_ID)
-                .from(WARP)
-                .where(WARP.NAME.eq(warp.getName()))
-                .limit(1)
-          )
-          .set(WARP_GROUP_MAP.GROUP_ID,
-               select(GROUP.GROUP_ID)
-               .from(GROUP)
-               .where(GROUP.NAME.eq(groupId))
-               .limit(1)
-          )
-      .execute();
-      // @formatter:on
-    });
+    transaction(configuration -> insertGroupInvitation
+        .execute(configuration, findWarpKey(configuration, warp.getName()),
+                 findOrInsertGroupKey(configuration, groupId)));
   }
 
   @Override
   public void invitePlayer(final Warp warp, final UUID uniqueId) {
-    create(configuration).transaction(configuration -> {
-      // @formatter:off
-      insertOrIgnore(configuration, PLAYER, PLAYER.UUID, uniqueId).execute();
-
-      create(configuration)
-          .insertInto(WARP_PLAYER_MAP)
-          .set(WARP_PLAYER_MAP.WARP_ID,
-               select(WARP.WARP_ID)
-                .from(WARP)
-                .where(WARP.NAME.eq(warp.getName()))
-                .limit(1)
-          )
-          .set(WARP_PLAYER_MAP.PLAYER_ID,
-               select(PLAYER.PLAYER_ID)
-               .from(PLAYER)
-               .where(PLAYER.UUID.eq(uniqueId))
-               .limit(1)
-          )
-      .execute();
-      // @formatter:on
-    });
+    transaction(configuration -> insertPlayerInvitation
+        .execute(configuration, findWarpKey(configuration, warp.getName()),
+                 findOrInsertPlayerKey(configuration, uniqueId)));
   }
 
   @Override
   public void uninviteGroup(final Warp warp, final String groupId) {
-    // @formatter:off
-    create(configuration)
-        .delete(WARP_GROUP_MAP)
-        .where(
-            WARP_GROUP_MAP.WARP_ID.eq(
-              select(WARP.WARP_ID)
-              .from(WARP)
-              .where(WARP.NAME.eq(warp.getName()))
-              .limit(1))
-            .and(WARP_GROUP_MAP.GROUP_ID.eq(
-              select(GROUP.GROUP_ID)
-              .from(GROUP)
-              .where(GROUP.NAME.eq(groupId))
-              .limit(1))
-            )
-        )
-    .execute();
-    // @formatter:on
+    Optional<UInteger> groupKey = findKey(configuration, groupKeys, selectGroupKey, groupId);
+    if (!groupKey.isPresent()) {
+      // the group was never invited to any warp
+      return;
+    }
+    retrying(() -> deleteGroupInvitation
+        .execute(configuration, findWarpKey(configuration, warp.getName()), groupKey.get()));
   }
 
   @Override
   public void uninvitePlayer(final Warp warp, final UUID uniqueId) {
-    // @formatter:off
-    create(configuration)
-        .delete(WARP_PLAYER_MAP)
-        .where(
-            WARP_PLAYER_MAP.WARP_ID.eq(
-              select(WARP.WARP_ID)
-              .from(WARP)
-              .where(WARP.NAME.eq(warp.getName()))
-              .limit(1))
-            .and(WARP_PLAYER_MAP.PLAYER_ID.eq(
-              select(PLAYER.PLAYER_ID)
-              .from(PLAYER)
-              .where(PLAYER.UUID.eq(uniqueId))
-              .limit(1))
-            )
-        )
-    .execute();
-    // @formatter:on
+    Optional<UInteger> playerKey = findKey(configuration, playerKeys, selectPlayerKey, uniqueId);
+    if (!playerKey.isPresent()) {
+      // the player was never stored
+      return;
+    }
+    retrying(() -> deletePlayerInvitation
+        .execute(configuration, findWarpKey(configuration, warp.getName()), playerKey.get()));
   }
 
   @Override
   public void updateCreator(final Warp warp) {
-    create(configuration).transaction(configuration -> {
-      // @formatter:off
-      insertOrIgnore(configuration, PLAYER, PLAYER.UUID, warp.getCreator()).execute();
-
-      create(configuration)
-          .update(WARP)
-          .set(WARP.PLAYER_ID,
-              select(PLAYER.PLAYER_ID)
-              .from(PLAYER)
-              .where(PLAYER.UUID.eq(warp.getCreator()))
-              .limit(1)
-          )
-          .where(WARP.NAME.eq(warp.getName()))
-      .execute();
-      // @formatter:on
-    });
+    transaction(configuration -> updateCreator
+        .execute(configuration, findOrInsertPlayerKey(configuration, warp.getCreator()), warp.getName()));
   }
 
   @Override
@@ -372,89 +473,445 @@ class RelationalWarpStorage implements WarpStorage {
     final Vector3d position = warp.getPosition();
     final Vector2f rotation = warp.getRotation();
 
-    create(configuration).transaction(configuration -> {
-      // @formatter:off
-      insertOrIgnore(configuration, WORLD, WORLD.UUID, warp.getWorldIdentifier()).execute();
-
-      create(configuration)
-          .update(WARP)
-          .set(WARP.X, position.getX())
-          .set(WARP.Y, position.getY())
-          .set(WARP.Z, position.getZ())
-          .set(WARP.PITCH, rotation.getX())
-          .set(WARP.YAW, rotation.getY())
-          .set(WARP.WORLD_ID,
-               select(WORLD.WORLD_ID)
-               .from(WORLD)
-               .where(WORLD.UUID.eq(warp.getWorldIdentifier()))
-               .limit(1))
-          .where(WARP.NAME.eq(warp.getName()))
-      .execute();
-      // @formatter:on
-    });
+    transaction(configuration -> updateLocation
+        .execute(configuration, position.getX(), position.getY(), position.getZ(), rotation.getX(), rotation.getY(),
+                 findOrInsertWorldKey(configuration, warp.getWorldIdentifier()), warp.getName()));
   }
 
   @Override
   public void updateType(final Warp warp) {
-    // @formatter:off
-    create(configuration)
-        .update(WARP)
-        .set(WARP.TYPE, warp.getType())
-        .where(WARP.NAME.eq(warp.getName()))
-    .execute();
-    // @formatter:on
+    retrying(() -> updateType.execute(configuration, warp.getType(), warp.getName()));
   }
 
   @Override
   public void updateVisits(final Warp warp) {
-    // @formatter:off
-    create(configuration)
-        .update(WARP)
-        .set(WARP.VISITS, UInteger.valueOf(warp.getVisits()))
-        .where(WARP.NAME.eq(warp.getName()))
-    .execute();
-    // @formatter:on
+    retrying(() -> updateVisits.execute(configuration, UInteger.valueOf(warp.getVisits()), warp.getName()));
+  }
+
+  @Override
+  public void updateVisits(final Collection<Warp> warps) {
+    for (List<Warp> chunk : Lists.partition(new ArrayList<>(warps), BULK_CHUNK_SIZE)) {
+      Map<String, UInteger> visits = new HashMap<>();
+      for (Warp warp : chunk) {
+        visits.put(warp.getName(), UInteger.valueOf(warp.getVisits()));
+      }
+
+      // @formatter:off
+      retrying(() -> create(configuration)
+          .update(WARP)
+          .set(WARP.VISITS,
+               DSL.decode()
+               .value(WARP.NAME)
+               .mapValues(visits)
+               .otherwise(WARP.VISITS)
+          )
+          .where(WARP.NAME.in(visits.keySet()))
+      .execute());
+      // @formatter:on
+    }
   }
 
   @Override
   public void updateWelcomeMessage(final Warp warp) {
+    retrying(() -> updateWelcomeMessage.execute(configuration, warp.getWelcomeMessage(), warp.getName()));
+  }
+
+  @Override
+  public void write(final WriteBatch batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    transaction(configuration -> write(configuration, batch));
+  }
+
+  /**
+   * Executes the writes of the given {@code batch} using the given {@code configuration}. Writes of the same kind are
+   * sent as a single batched statement and all surrogate keys they reference are looked up in one pass.
+   *
+   * @param configuration the {@code Configuration} used to query the database
+   * @param batch         the batch of writes
+   */
+  private void write(Configuration configuration, WriteBatch batch) {
+    List<Object[]> removals = new ArrayList<>();
+    for (Warp warp : batch.getRemovals()) {
+      removals.add(new Object[]{warp.getName()});
+    }
+    deleteWarp.executeBatch(configuration, removals);
+    // removed warps might be added again by the same batch and receive new keys
+    batch.getRemovals().forEach(warp -> warpKeys.invalidate(warp.getName()));
+
+    if (!batch.getAdditions().isEmpty()) {
+      addWarps(configuration, batch.getAdditions());
+    }
+
+    Set<UUID> players = new HashSet<>();
+    Set<UUID> uninvitedPlayers = new HashSet<>();
+    Set<UUID> worlds = new HashSet<>();
+    Set<String> groups = new HashSet<>();
+    Set<String> uninvitedGroups = new HashSet<>();
+    Set<String> warps = new HashSet<>();
+    batch.getUpdates(Update.CREATOR).forEach(warp -> players.add(warp.getCreator()));
+    batch.getUpdates(Update.LOCATION).forEach(warp -> worlds.add(warp.getWorldIdentifier()));
+    for (Map.Entry<Warp, UUID> entry : batch.getPlayerInvitations()) {
+      warps.add(entry.getKey().getName());
+      players.add(entry.getValue());
+    }
+    for (Map.Entry<Warp, UUID> entry : batch.getPlayerUninvitations()) {
+      warps.add(entry.getKey().getName());
+      uninvitedPlayers.add(entry.getValue());
+    }
+    for (Map.Entry<Warp, String> entry : batch.getGroupInvitations()) {
+      warps.add(entry.getKey().getName());
+      groups.add(entry.getValue());
+    }
+    for (Map.Entry<Warp, String> entry : batch.getGroupUninvitations()) {
+      warps.add(entry.getKey().getName());
+      uninvitedGroups.add(entry.getValue());
+    }
+    Map<UUID, UInteger> playerKeys =
+        findOrInsertKeys(configuration, this.playerKeys, PLAYER, PLAYER.UUID, PLAYER.PLAYER_ID, insertPlayer, players);
+    // players and groups that were never stored are not invited to any warp, so there is nothing to uninvite
+    playerKeys.putAll(findKeys(configuration, this.playerKeys, PLAYER, PLAYER.UUID, PLAYER.PLAYER_ID,
+                               uninvitedPlayers));
+    Map<UUID, UInteger> worldKeys =
+        findOrInsertKeys(configuration, this.worldKeys, WORLD, WORLD.UUID, WORLD.WORLD_ID, insertWorld, worlds);
+    Map<String, UInteger> groupKeys =
+        findOrInsertKeys(configuration, this.groupKeys, GROUP, GROUP.NAME, GROUP.GROUP_ID, insertGroup, groups);
+    groupKeys.putAll(findKeys(configuration, this.groupKeys, GROUP, GROUP.NAME, GROUP.GROUP_ID, uninvitedGroups));
+    Map<String, UInteger> warpKeys = findKeys(configuration, this.warpKeys, WARP, WARP.NAME, WARP.WARP_ID, warps);
+
+    List<Object[]> rows = new ArrayList<>();
+    for (Warp warp : batch.getUpdates(Update.CREATOR)) {
+      rows.add(new Object[]{playerKeys.get(warp.getCreator()), warp.getName()});
+    }
+    updateCreator.executeBatch(configuration, rows);
+
+    rows = new ArrayList<>();
+    for (Warp warp : batch.getUpdates(Update.LOCATION)) {
+      Vector3d position = warp.getPosition();
+      Vector2f rotation = warp.getRotation();
+      rows.add(new Object[]{position.getX(), position.getY(), position.getZ(), rotation.getX(), rotation.getY(),
+                            worldKeys.get(warp.getWorldIdentifier()), warp.getName()});
+    }
+    updateLocation.executeBatch(configuration, rows);
+
+    rows = new ArrayList<>();
+    for (Warp warp : batch.getUpdates(Update.TYPE)) {
+      rows.add(new Object[]{warp.getType(), warp.getName()});
+    }
+    updateType.executeBatch(configuration, rows);
+
+    rows = new ArrayList<>();
+    for (Warp warp : batch.getUpdates(Update.WELCOME_MESSAGE)) {
+      rows.add(new Object[]{warp.getWelcomeMessage(), warp.getName()});
+    }
+    updateWelcomeMessage.executeBatch(configuration, rows);
+
+    insertPlayerInvitation.executeBatch(configuration, invitationRows(batch.getPlayerInvitations(), warpKeys,
+                                                                      playerKeys));
+    deletePlayerInvitation.executeBatch(configuration, invitationRows(batch.getPlayerUninvitations(), warpKeys,
+                                                                      playerKeys));
+    insertGroupInvitation.executeBatch(configuration, invitationRows(batch.getGroupInvitations(), warpKeys,
+                                                                     groupKeys));
+    deleteGroupInvitation.executeBatch(configuration, invitationRows(batch.getGroupUninvitations(), warpKeys,
+                                                                     groupKeys));
+  }
+
+  /**
+   * Creates the rows that bind the surrogate keys of warp and invitee for each of the given {@code invitations}.
+   * Invitations whose invitee has no surrogate key are skipped.
+   *
+   * @param invitations the invitations, each mapped from the warp
+   * @param warpKeys    the surrogate keys of the warps by their names
+   * @param inviteeKeys the surrogate keys of the invitees
+   * @return the rows
+   */
+  private static <T> List<Object[]> invitationRows(List<Map.Entry<Warp, T>> invitations,
+                                                   Map<String, UInteger> warpKeys, Map<T, UInteger> inviteeKeys) {
+    List<Object[]> ret = new ArrayList<>();
+    for (Map.Entry<Warp, T> entry : invitations) {
+      UInteger inviteeKey = inviteeKeys.get(entry.getValue());
+      if (inviteeKey != null) {
+        ret.add(new Object[]{warpKeys.get(entry.getKey().getName()), inviteeKey});
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Runs the given {@code transactional} within a transaction. Surrogate keys cached by the transaction are only
+   * published to other workers once it has been committed, as they might reference rows that are rolled back.
+   * Transactions that the database rolled back because they conflicted with concurrent transactions (e.g. on
+   * deadlocks) are retried like {@link #retrying(Runnable) single statements}.
+   *
+   * @param transactional the transactional code
+   */
+  private void transaction(TransactionalRunnable transactional) {
+    retrying(() -> {
+      keyCaches.forEach(SurrogateKeyCache::beginTransaction);
+      boolean committed = false;
+      try {
+        create(configuration).transaction(transactional);
+        committed = true;
+      } finally {
+        for (SurrogateKeyCache<?> keyCache : keyCaches) {
+          keyCache.endTransaction(committed);
+        }
+      }
+    });
+  }
+
+  /**
+   * Runs the given {@code statement}. If the database rolled the statement back because it conflicted with concurrent
+   * transactions (e.g. on deadlocks), it is retried up to {@link #MAX_ATTEMPTS} times.
+   *
+   * <p>Writes that consist of a single statement run outside of a transaction, but may still deadlock with concurrent
+   * writes of other workers. As a single statement is atomic, a statement that is rolled back has no effect and can be
+   * retried safely.</p>
+   *
+   * @param statement the code that executes the statement
+   */
+  private void retrying(Runnable statement) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        statement.run();
+        return;
+      } catch (RuntimeException e) {
+        if (attempt >= MAX_ATTEMPTS || !(e instanceof DataAccessException)
+            || ((DataAccessException) e).sqlStateClass() != SQLStateClass.C40_TRANSACTION_ROLLBACK) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private UInteger findWarpKey(Configuration configuration, String name) {
+    return findKey(configuration, warpKeys, selectWarpKey, name).orElse(null);
+  }
+
+  private UInteger findOrInsertPlayerKey(Configuration configuration, UUID uniqueId) {
+    return findOrInsertKey(configuration, playerKeys, selectPlayerKey, insertPlayer, uniqueId);
+  }
+
+  private UInteger findOrInsertWorldKey(Configuration configuration, UUID uniqueId) {
+    return findOrInsertKey(configuration, worldKeys, selectWorldKey, insertWorld, uniqueId);
+  }
+
+  private UInteger findOrInsertGroupKey(Configuration configuration, String name) {
+    return findOrInsertKey(configuration, groupKeys, selectGroupKey, insertGroup, name);
+  }
+
+  /**
+   * Gets an Optional containing the surrogate key that belongs to the given natural key. The cache is consulted
+   * first, keys read from the database are cached.
+   *
+   * @param configuration the {@code Configuration} used to query the database
+   * @param cache         the cache of surrogate keys
+   * @param select        the query that selects the surrogate key by the natural key
+   * @param value         the natural key
+   * @return an Optional containing the surrogate key
+   * @see #prepareSelectKey(Table, TableField, TableField)
+   */
+  private <T> Optional<UInteger> findKey(Configuration configuration, SurrogateKeyCache<T> cache,
+                                         PreparedQuery select, T value) {
+    Optional<UInteger> cached = cache.get(value);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    Optional<UInteger> ret = select.fetchOptionalKey(configuration, value);
+    ret.ifPresent(key -> cache.put(value, key));
+    return ret;
+  }
+
+  /**
+   * Gets the surrogate key that belongs to the given natural key, inserting a row with the natural key if it does not
+   * yet exist.
+   *
+   * @param configuration the {@code Configuration} used to query the database
+   * @param cache         the cache of surrogate keys
+   * @param select        the query that selects the surrogate key by the natural key
+   * @param insert        the query that inserts the natural key unless it exists
+   * @param value         the natural key
+   * @return the surrogate key
+   * @see #prepareSelectKey(Table, TableField, TableField)
+   * @see #prepareInsertOrIgnore(Table, TableField)
+   */
+  private <T> UInteger findOrInsertKey(Configuration configuration, SurrogateKeyCache<T> cache, PreparedQuery select,
+                                       PreparedQuery insert, T value) {
+    Optional<UInteger> key = findKey(configuration, cache, select, value);
+    if (key.isPresent()) {
+      return key.get();
+    }
+    insert.execute(configuration, value, value);
+    return findKey(configuration, cache, select, value)
+        .orElseThrow(() -> new IllegalStateException(String.format("Failed to insert '%s'.", value)));
+  }
+
+  /**
+   * Gets the surrogate keys that belong to the given natural keys. The cache is consulted first, keys that are not
+   * cached are read from the database with as few queries as possible and cached. Natural keys that do not exist in
+   * the database are missing in the returned Map.
+   *
+   * @param configuration the {@code Configuration} used to query the database
+   * @param cache         the cache of surrogate keys
+   * @param table         the {@code Table} to query
+   * @param uniqueField   the {@code TableField} that holds the natural key - must be unique!
+   * @param keyField      the {@code TableField} that holds the surrogate key
+   * @param values        the natural keys
+   * @return a Map of natural keys to surrogate keys
+   */
+  private <R extends Record, T> Map<T, UInteger> findKeys(Configuration configuration, SurrogateKeyCache<T> cache,
+                                                          Table<R> table, TableField<R, T> uniqueField,
+                                                          TableField<R, UInteger> keyField, Collection<T> values) {
+    Map<T, UInteger> ret = new HashMap<>();
+    List<T> uncached = new ArrayList<>();
+    for (T value : values) {
+      Optional<UInteger> cached = cache.get(value);
+      if (cached.isPresent()) {
+        ret.put(value, cached.get());
+      } else {
+        uncached.add(value);
+      }
+    }
+    for (List<T> chunk : Lists.partition(uncached, BULK_CHUNK_SIZE)) {
+      // @formatter:off
+      create(configuration)
+          .select(uniqueField, keyField)
+          .from(table)
+          .where(uniqueField.in(chunk))
+      .fetch().forEach(r -> {
+        ret.put(r.value1(), r.value2());
+        cache.put(r.value1(), r.value2());
+      });
+      // @formatter:on
+    }
+    return ret;
+  }
+
+  /**
+   * Gets the surrogate keys that belong to the given natural keys, inserting rows for all natural keys that do not yet
+   * exist in a single batch.
+   *
+   * @param configuration the {@code Configuration} used to query the database
+   * @param cache         the cache of surrogate keys
+   * @param table         the {@code Table} to query
+   * @param uniqueField   the {@code TableField} that holds the natural key - must be unique!
+   * @param keyField      the {@code TableField} that holds the surrogate key
+   * @param insert        the query that inserts a natural key unless it exists
+   * @param values        the natural keys
+   * @return a Map of natural keys to surrogate keys
+   * @see #prepareInsertOrIgnore(Table, TableField)
+   */
+  private <R extends Record, T> Map<T, UInteger> findOrInsertKeys(Configuration configuration,
+                                                                  SurrogateKeyCache<T> cache, Table<R> table,
+                                                                  TableField<R, T> uniqueField,
+                                                                  TableField<R, UInteger> keyField,
+                                                                  PreparedQuery insert, Collection<T> values) {
+    Map<T, UInteger> ret = findKeys(configuration, cache, table, uniqueField, keyField, values);
+    List<T> missing = values.stream().filter(value -> !ret.containsKey(value)).collect(Collectors.toList());
+    if (missing.isEmpty()) {
+      return ret;
+    }
+    insert.executeBatch(configuration,
+                        missing.stream().map(value -> new Object[]{value, value}).collect(Collectors.toList()));
+    ret.putAll(findKeys(configuration, cache, table, uniqueField, keyField, missing));
+    checkState(ret.size() == values.size(), "Failed to insert %s values into %s.", missing.size(), table.getName());
+    return ret;
+  }
+
+  private PreparedQuery prepare(Query template) {
+    return new PreparedQuery(configuration, template, statements);
+  }
+
+  /**
+   * Prepares a query that selects the value of the given {@code keyField} from the row whose {@code uniqueField}
+   * equals the bound value.
+   *
+   * @param table       the {@code Table} to query
+   * @param uniqueField the {@code TableField} that holds the natural key - must be unique!
+   * @param keyField    the {@code TableField} that holds the surrogate key
+   * @return the prepared query
+   */
+  private <R extends Record, T> PreparedQuery prepareSelectKey(Table<R> table, TableField<R, T> uniqueField,
+                                                              TableField<R, UInteger> keyField) {
     // @formatter:off
-    create(configuration)
-        .update(WARP)
-        .set(WARP.WELCOME_MESSAGE, warp.getWelcomeMessage())
-        .where(WARP.NAME.eq(warp.getName()))
-    .execute();
+    return prepare(create(configuration)
+        .select(keyField)
+        .from(table)
+        .where(uniqueField.eq(param("value", uniqueField)))
+        .limit(inline(1)));
     // @formatter:on
   }
 
   /**
-   * Creates an {@code INSERT ... ON DUPLICATE IGNORE} query that insert the given {@code value} into the given {@code
-   * uniqueField} in the given {@code table}, assuming that the given {@code value} should be unique.
+   * Prepares an {@code INSERT ... ON DUPLICATE IGNORE} query that inserts the bound value into the given {@code
+   * uniqueField} in the given {@code table}, assuming that the value should be unique. The value must be bound twice.
    *
-   * @param configuration the {@code Configuration} used to generate the query
-   * @param table         the {@code Table} to insert in
-   * @param uniqueField   the {@code TableField}  to insert - must be unique!
-   * @param value         the value to insert
-   * @return a corresponding {@code Insert} query
+   * @param table       the {@code Table} to insert in
+   * @param uniqueField the {@code TableField}  to insert - must be unique!
+   * @return the prepared query
    * @see InsertOnDuplicateStep#onDuplicateKeyIgnore()
    */
-  private <R extends Record, T> Insert<R> insertOrIgnore(Configuration configuration, Table<R> table,
-                                                         TableField<R, T> uniqueField, T value) {
+  private <R extends Record, T> PreparedQuery prepareInsertOrIgnore(Table<R> table, TableField<R, T> uniqueField) {
     // REVIEW With JJOQ 3.7 the native implementation InsertOnDuplicateStep#onDuplicateKeyIgnore() should be usable.
     // For some reason it fails with string values (at least on H2), rendering it unusable.
     // For now, this workaround is stil needed.
     // @formatter:off
-    return create(configuration)
+    return prepare(create(configuration)
         .insertInto(table)
         .columns(uniqueField)
         .select(
-          select(val(value, uniqueField))
+          select(param("value", uniqueField))
           .whereNotExists(
               selectOne()
               .from(table)
-              .where(uniqueField.eq(value))
+              .where(uniqueField.eq(param("existing", uniqueField)))
           )
-        );
+        ));
     // @formatter:on
   }
+
+  /**
+   * Streams through a {@code Cursor} whose records are ordered by the surrogate key of a warp and provides the records
+   * that belong to a warp. Warps must be requested in ascending order of their surrogate keys.
+   *
+   * @param <R> the type of records
+   */
+  private static class WarpKeyedCursor<R extends Record> {
+
+    private final Cursor<R> cursor;
+    private final Field<UInteger> warpKeyField;
+
+    @Nullable
+    private R next;
+
+    /**
+     * Creates an instance that streams through the given {@code cursor}.
+     *
+     * @param cursor       the cursor, ordered ascending by the values of {@code warpKeyField}
+     * @param warpKeyField the field that holds the surrogate key of the warp
+     */
+    WarpKeyedCursor(Cursor<R> cursor, Field<UInteger> warpKeyField) {
+      this.cursor = cursor;
+      this.warpKeyField = warpKeyField;
+      this.next = cursor.fetchOne();
+    }
+
+    /**
+     * Hands all records that belong to the warp with the given {@code warpKey} to the given {@code consumer}. Records
+     * of warps with smaller keys that have not been requested are skipped.
+     *
+     * @param warpKey  the surrogate key of the warp
+     * @param consumer the consumer
+     */
+    void forEachOf(UInteger warpKey, Consumer<R> consumer) {
+      while (next != null && next.getValue(warpKeyField).compareTo(warpKey) <= 0) {
+        if (next.getValue(warpKeyField).equals(warpKey)) {
+          consumer.accept(next);
+        }
+        next = cursor.fetchOne();
+      }
+    }
+  }
 }
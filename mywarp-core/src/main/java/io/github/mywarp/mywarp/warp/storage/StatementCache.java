@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches open {@link PreparedStatement}s per {@link Connection}, so statements of a {@link PreparedQuery} are only
+ * prepared once for every connection they are executed on.
+ *
+ * <p>The number of statements cached for a single connection is bounded, the least recently used statement is closed
+ * once the bound is exceeded. Connections are expected to be pooled and to be closed by the pool once they are retired.
+ * Whenever a statement is prepared for a connection that is not yet known, the statements of all connections that
+ * have been closed in the meantime are closed too and removed from the cache, so neither the statements of retired
+ * connections nor the resources they hold on the database server are retained. Once the pool closes all connections on
+ * shutdown, their statements are closed along with them.</p>
+ *
+ * <p>Instances are thread-safe, but a statement returned for a connection must only be used by the thread that
+ * currently uses the connection.</p>
+ */
+class StatementCache {
+
+  private static final Logger log = MyWarpLogger.getLogger(StatementCache.class);
+
+  private final int maxStatementsPerConnection;
+  private final Map<Connection, Map<String, PreparedStatement>> statements = new HashMap<>();
+
+  /**
+   * Creates an instance.
+   *
+   * @param maxStatementsPerConnection the maximum number of statements cached for a single connection
+   * @throws IllegalArgumentException if {@code maxStatementsPerConnection} is smaller than one
+   */
+  StatementCache(int maxStatementsPerConnection) {
+    checkArgument(maxStatementsPerConnection > 0, "'maxStatementsPerConnection' must be at least one.");
+    this.maxStatementsPerConnection = maxStatementsPerConnection;
+  }
+
+  /**
+   * Gets an open {@code PreparedStatement} for the given {@code sql} on the given {@code connection}. The statement is
+   * prepared if it is not yet cached or has been closed.
+   *
+   * @param connection the connection
+   * @param sql        the SQL of the statement
+   * @return an open {@code PreparedStatement}
+   * @throws SQLException if the statement cannot be prepared
+   */
+  synchronized PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+    Map<String, PreparedStatement> cached = statements.get(connection);
+    if (cached == null) {
+      // a new connection typically replaces one that the pool has retired
+      evictClosedConnections();
+      cached = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+          if (size() > maxStatementsPerConnection) {
+            closeQuietly(eldest.getValue());
+            return true;
+          }
+          return false;
+        }
+      };
+      statements.put(connection, cached);
+    }
+
+    PreparedStatement statement = cached.get(sql);
+    if (statement == null || statement.isClosed()) {
+      statement = connection.prepareStatement(sql);
+      cached.put(sql, statement);
+    }
+    return statement;
+  }
+
+  private void evictClosedConnections() {
+    for (Iterator<Map<String, PreparedStatement>> iterator = statements.values().iterator(); iterator.hasNext(); ) {
+      Map<String, PreparedStatement> cached = iterator.next();
+      if (cached.isEmpty() || isConnectionClosed(cached.values().iterator().next())) {
+        closeAll(cached);
+        iterator.remove();
+      }
+    }
+  }
+
+  private static boolean isConnectionClosed(PreparedStatement statement) {
+    // pooled connections may report to be closed while they are idle, so the physical connection that created the
+    // statement is checked instead
+    try {
+      return statement.isClosed() || statement.getConnection().isClosed();
+    } catch (SQLException e) {
+      return true;
+    }
+  }
+
+  private static void closeAll(Map<String, PreparedStatement> cached) {
+    cached.values().forEach(StatementCache::closeQuietly);
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      log.debug("Failed to close a cached statement.", e);
+    }
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Collects metrics about calls to a {@link WarpStorage}: the number of calls, failed calls and calls in progress as
+ * well as a latency histogram per {@link Operation}, and the number of tasks waiting in the storage's executors.
+ *
+ * <p>Calls are recorded by an {@link InstrumentedWarpStorage}, waiting tasks by the executors returned by {@link
+ * #instrument(Function)}. All values are cumulative since the instance was created, use {@link
+ * Snapshot#minus(Snapshot)} to get the values of an interval.</p>
+ *
+ * <p>This class is threadsafe.</p>
+ */
+public final class StorageMetrics {
+
+  /**
+   * The upper bounds of the latency histogram's buckets in microseconds. The last bucket is unbounded.
+   */
+  private static final long[]
+      BUCKET_BOUNDS =
+      {100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000, 500000, 1000000, 2500000, 5000000};
+
+  private final Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+  private final AtomicInteger queued = new AtomicInteger();
+  private final ConcurrentMap<Executor, Executor> instrumentedExecutors = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an instance.
+   */
+  public StorageMetrics() {
+    for (Operation operation : Operation.values()) {
+      operations.put(operation, new OperationMetrics());
+    }
+  }
+
+  /**
+   * Wraps the given function that selects {@code Executor}s so that every selected {@code Executor} counts the tasks
+   * that are waiting to be executed. The returned function selects the same wrapper for the same {@code Executor}.
+   *
+   * @param executors the function that selects {@code Executor}s
+   * @return the wrapped function
+   */
+  public Function<String, Executor> instrument(Function<String, Executor> executors) {
+    return key -> instrumentedExecutors.computeIfAbsent(executors.apply(key), QueueCountingExecutor::new);
+  }
+
+  /**
+   * Gets a snapshot of the current values.
+   *
+   * @return a snapshot
+   */
+  public Snapshot snapshot() {
+    ImmutableMap.Builder<Operation, OperationSnapshot> builder = ImmutableMap.builder();
+    for (Map.Entry<Operation, OperationMetrics> entry : operations.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return new Snapshot(builder.build(), queued.get());
+  }
+
+  /**
+   * Records the start of a call of the given {@code operation}.
+   *
+   * @param operation the operation
+   * @return the start time that must be handed to {@link #stop(Operation, long, boolean)}
+   */
+  long start(Operation operation) {
+    operations.get(operation).inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the end of a call of the given {@code operation}.
+   *
+   * @param operation the operation
+   * @param startTime the start time returned by {@link #start(Operation)}
+   * @param failed    whether the call failed
+   */
+  void stop(Operation operation, long startTime, boolean failed) {
+    long micros = (System.nanoTime() - startTime) / 1000;
+    OperationMetrics metrics = operations.get(operation);
+    metrics.inFlight.decrementAndGet();
+    metrics.count.incrementAndGet();
+    metrics.totalMicros.addAndGet(micros);
+    metrics.buckets.incrementAndGet(bucket(micros));
+    if (failed) {
+      metrics.errors.incrementAndGet();
+    }
+  }
+
+  private static int bucket(long micros) {
+    for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+      if (micros <= BUCKET_BOUNDS[i]) {
+        return i;
+      }
+    }
+    return BUCKET_BOUNDS.length;
+  }
+
+  /**
+   * The operations of a {@code WarpStorage}.
+   */
+  public enum Operation {
+    GET_WARPS, ADD_WARP, ADD_WARPS, REMOVE_WARP, INVITE_GROUP, INVITE_PLAYER, UNINVITE_GROUP, UNINVITE_PLAYER,
+    UPDATE_CREATOR, UPDATE_LOCATION, UPDATE_TYPE, UPDATE_VISITS, UPDATE_VISITS_BULK, UPDATE_WELCOME_MESSAGE,
+    WRITE_BATCH
+  }
+
+  /**
+   * The mutable metrics of a single operation.
+   */
+  private static class OperationMetrics {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+
+    private OperationSnapshot snapshot() {
+      long[] bucketCounts = new long[buckets.length()];
+      for (int i = 0; i < bucketCounts.length; i++) {
+        bucketCounts[i] = buckets.get(i);
+      }
+      return new OperationSnapshot(count.get(), errors.get(), totalMicros.get(), inFlight.get(), bucketCounts);
+    }
+  }
+
+  /**
+   * An immutable snapshot of the metrics of all operations.
+   */
+  public static final class Snapshot {
+
+    private final ImmutableMap<Operation, OperationSnapshot> operations;
+    private final int queued;
+
+    private Snapshot(ImmutableMap<Operation, OperationSnapshot> operations, int queued) {
+      this.operations = operations;
+      this.queued = queued;
+    }
+
+    /**
+     * Gets the snapshots of all operations.
+     *
+     * @return the snapshots of all operations
+     */
+    public ImmutableMap<Operation, OperationSnapshot> getOperations() {
+      return operations;
+    }
+
+    /**
+     * Gets the number of tasks that were waiting to be executed when the snapshot was taken.
+     *
+     * @return the number of waiting tasks
+     */
+    public int getQueued() {
+      return queued;
+    }
+
+    /**
+     * Gets a snapshot that contains the difference between this and the given {@code earlier} snapshot, i.e. the
+     * calls made in between. Gauges (calls in progress and waiting tasks) are taken from this snapshot.
+     *
+     * @param earlier the earlier snapshot
+     * @return the difference
+     */
+    public Snapshot minus(Snapshot earlier) {
+      ImmutableMap.Builder<Operation, OperationSnapshot> builder = ImmutableMap.builder();
+      for (Map.Entry<Operation, OperationSnapshot> entry : operations.entrySet()) {
+        OperationSnapshot previous = earlier.operations.get(entry.getKey());
+        builder.put(entry.getKey(), previous != null ? entry.getValue().minus(previous) : entry.getValue());
+      }
+      return new Snapshot(builder.build(), queued);
+    }
+  }
+
+  /**
+   * An immutable snapshot of the metrics of a single operation.
+   */
+  public static final class OperationSnapshot {
+
+    private final long count;
+    private final long errors;
+    private final long totalMicros;
+    private final int inFlight;
+    private final long[] buckets;
+
+    private OperationSnapshot(long count, long errors, long totalMicros, int inFlight, long[] buckets) {
+      this.count = count;
+      this.errors = errors;
+      this.totalMicros = totalMicros;
+      this.inFlight = inFlight;
+      this.buckets = buckets;
+    }
+
+    /**
+     * Gets the number of completed calls.
+     *
+     * @return the number of completed calls
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Gets the number of completed calls that failed with an exception.
+     *
+     * @return the number of failed calls
+     */
+    public long getErrors() {
+      return errors;
+    }
+
+    /**
+     * Gets the number of calls that were in progress when the snapshot was taken.
+     *
+     * @return the number of calls in progress
+     */
+    public int getInFlight() {
+      return inFlight;
+    }
+
+    /**
+     * Gets the mean latency of all completed calls.
+     *
+     * @return the mean latency
+     */
+    public Duration getMean() {
+      return Duration.ofNanos(count == 0 ? 0 : totalMicros * 1000 / count);
+    }
+
+    /**
+     * Gets an estimate of the given {@code percentile} of the latency of all completed calls. The estimate is the
+     * upper bound of the histogram bucket that contains the percentile, or {@link Duration#ZERO} if there are no
+     * completed calls. If the percentile lies in the unbounded bucket, the upper bound of the largest bounded bucket is
+     * returned.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the estimated latency
+     */
+    public Duration getPercentile(double percentile) {
+      long total = 0;
+      for (long bucket : buckets) {
+        total += bucket;
+      }
+      if (total == 0) {
+        return Duration.ZERO;
+      }
+      long rank = (long) Math.ceil(percentile * total);
+      long seen = 0;
+      for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank) {
+          return Duration.ofNanos(BUCKET_BOUNDS[i] * 1000);
+        }
+      }
+      return Duration.ofNanos(BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] * 1000);
+    }
+
+    private OperationSnapshot minus(OperationSnapshot earlier) {
+      long[] bucketCounts = new long[buckets.length];
+      for (int i = 0; i < bucketCounts.length; i++) {
+        bucketCounts[i] = buckets[i] - earlier.buckets[i];
+      }
+      return new OperationSnapshot(count - earlier.count, errors - earlier.errors, totalMicros - earlier.totalMicros,
+                                   inFlight, bucketCounts);
+    }
+  }
+
+  /**
+   * An {@code Executor} that counts the tasks that it has accepted, but not yet started.
+   */
+  private class QueueCountingExecutor implements Executor {
+
+    private final Executor delegate;
+
+    private QueueCountingExecutor(Executor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      queued.incrementAndGet();
+      try {
+        delegate.execute(() -> {
+          queued.decrementAndGet();
+          command.run();
+        });
+      } catch (RuntimeException e) {
+        queued.decrementAndGet();
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports {@link StorageMetrics} to a {@link MetricsSink} in a fixed interval. Each report contains the calls made
+ * since the previous report. Call {@link #close()} to stop reporting.
+ */
+public class StorageMetricsReporter implements Closeable {
+
+  private static final Logger log = MyWarpLogger.getLogger(StorageMetricsReporter.class);
+
+  private final StorageMetrics metrics;
+  private final MetricsSink sink;
+  private final ScheduledExecutorService scheduler;
+
+  private StorageMetrics.Snapshot previous;
+
+  /**
+   * Creates an instance that reports the given {@code metrics} to the given {@code sink} whenever {@code interval} has
+   * passed.
+   *
+   * @param metrics  the metrics to report
+   * @param sink     the sink that receives reports
+   * @param interval the interval between two reports
+   * @throws IllegalArgumentException if {@code interval} is not positive
+   */
+  public StorageMetricsReporter(StorageMetrics metrics, MetricsSink sink, Duration interval) {
+    checkArgument(!interval.isNegative() && !interval.isZero(), "'interval' must be positive.");
+    this.metrics = metrics;
+    this.sink = sink;
+    this.previous = metrics.snapshot();
+
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("MyWarp Metrics").setDaemon(true).build());
+    long intervalMillis = interval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void report() {
+    StorageMetrics.Snapshot current = metrics.snapshot();
+    try {
+      sink.report(current.minus(previous));
+    } catch (RuntimeException e) {
+      log.warn("Failed to report storage metrics.", e);
+    }
+    previous = current;
+  }
+
+  /**
+   * Stops reporting.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdown();
+  }
+}
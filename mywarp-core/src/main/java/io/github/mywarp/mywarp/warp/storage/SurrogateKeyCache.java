@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.jooq.types.UInteger;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A bounded cache that maps natural keys, such as unique identifiers or names, to the surrogate keys that a relational
+ * database assigned to them. Once the maximum size is reached, the least recently used mapping is evicted.
+ *
+ * <p>Keys that are cached while a transaction is open might reference rows that are rolled back later. A thread that
+ * runs a transaction should therefore call {@link #beginTransaction()} first: until it calls {@link
+ * #endTransaction(boolean)}, mappings it caches are only visible to itself and they are published to all threads once
+ * the transaction has been committed.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @param <K> the type of the natural key
+ */
+class SurrogateKeyCache<K> {
+
+  private final Map<K, UInteger> cache;
+  private final ThreadLocal<Map<K, UInteger>> staged = new ThreadLocal<>();
+
+  /**
+   * Creates an instance that holds up to {@code maximumSize} mappings.
+   *
+   * @param maximumSize the maximum number of mappings
+   * @throws IllegalArgumentException if {@code maximumSize} is smaller than one
+   */
+  SurrogateKeyCache(final int maximumSize) {
+    checkArgument(maximumSize > 0, "'maximumSize' must be at least one.");
+    this.cache = new LinkedHashMap<K, UInteger>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, UInteger> eldest) {
+        return size() > maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Gets an Optional containing the surrogate key cached for the given {@code naturalKey}, if there is one.
+   *
+   * @param naturalKey the natural key
+   * @return an Optional containing the surrogate key
+   */
+  Optional<UInteger> get(K naturalKey) {
+    Map<K, UInteger> transaction = staged.get();
+    if (transaction != null && transaction.containsKey(naturalKey)) {
+      return Optional.of(transaction.get(naturalKey));
+    }
+    synchronized (cache) {
+      return Optional.ofNullable(cache.get(naturalKey));
+    }
+  }
+
+  /**
+   * Caches the given {@code surrogateKey} for the given {@code naturalKey}. If the calling thread runs a transaction,
+   * the mapping is only published once the transaction has been committed.
+   *
+   * @param naturalKey   the natural key
+   * @param surrogateKey the surrogate key
+   */
+  void put(K naturalKey, UInteger surrogateKey) {
+    Map<K, UInteger> transaction = staged.get();
+    if (transaction != null) {
+      transaction.put(naturalKey, surrogateKey);
+      return;
+    }
+    synchronized (cache) {
+      cache.put(naturalKey, surrogateKey);
+    }
+  }
+
+  /**
+   * Removes the mapping of the given {@code naturalKey}, if there is one.
+   *
+   * @param naturalKey the natural key
+   */
+  void invalidate(K naturalKey) {
+    Map<K, UInteger> transaction = staged.get();
+    if (transaction != null) {
+      transaction.remove(naturalKey);
+    }
+    synchronized (cache) {
+      cache.remove(naturalKey);
+    }
+  }
+
+  /**
+   * Starts staging the mappings cached by the calling thread until {@link #endTransaction(boolean)} is called.
+   *
+   * @throws IllegalStateException if the calling thread already stages mappings
+   */
+  void beginTransaction() {
+    checkState(staged.get() == null, "The current thread already runs a transaction.");
+    staged.set(new HashMap<>());
+  }
+
+  /**
+   * Stops staging the mappings cached by the calling thread. If {@code committed} is {@code true}, the staged
+   * mappings are published, otherwise they are dropped.
+   *
+   * @param committed whether the transaction has been committed
+   */
+  void endTransaction(boolean committed) {
+    Map<K, UInteger> transaction = staged.get();
+    staged.remove();
+    if (committed && transaction != null) {
+      synchronized (cache) {
+        cache.putAll(transaction);
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+import io.github.mywarp.mywarp.warp.Warp;
+
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A {@code WarpStorage} that works on top of another {@code WarpStorage} and aggregates visits of warps in memory.
+ * Visits are the most frequent write: instead of one update per use of a warp, all warps visited since the last flush
+ * are handed to the delegate with a single call to {@link WarpStorage#updateVisits(Collection)} once a configurable
+ * interval has passed. As the storage persists the absolute number of visits, only the most recent state of each
+ * warp is kept.
+ *
+ * <p>All other methods are delegated unchanged. Reading methods hand all pending visits to the delegate before they
+ * read. Call {@link #close()} to stop the scheduled execution and hand the remaining visits to the delegate once the
+ * storage is no longer used.</p>
+ */
+public class VisitAggregatingWarpStorage extends ForwardingWarpStorage implements Closeable {
+
+  private static final Logger log = MyWarpLogger.getLogger(VisitAggregatingWarpStorage.class);
+
+  private final WarpStorage warpStorage;
+  private final ScheduledExecutorService scheduler;
+  private final ConcurrentMap<String, Warp> visitedWarps = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an instance. Every call is delegated to the given {@code warpStorage}, visits are aggregated and handed
+   * to it whenever {@code flushInterval} has passed.
+   *
+   * @param warpStorage   the {@code WarpStorage} that receives the aggregated visits
+   * @param flushInterval the interval between two scheduled flushes
+   * @throws IllegalArgumentException if {@code flushInterval} is not positive
+   */
+  public VisitAggregatingWarpStorage(WarpStorage warpStorage, Duration flushInterval) {
+    checkArgument(!flushInterval.isNegative() && !flushInterval.isZero(), "'flushInterval' must be positive.");
+    this.warpStorage = warpStorage;
+
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("MyWarp Visit-Aggregation").setDaemon(true).build());
+    long intervalMillis = flushInterval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected WarpStorage delegate() {
+    return warpStorage;
+  }
+
+  /**
+   * Hands the visits of all warps visited since the last flush to the delegate with a single call.
+   */
+  public void flush() {
+    List<Warp> visited = new ArrayList<>();
+    for (String name : visitedWarps.keySet()) {
+      // removing by key is atomic with recording a visit, so every visit ends up in exactly one flush
+      Warp warp = visitedWarps.remove(name);
+      if (warp != null) {
+        visited.add(warp);
+      }
+    }
+    if (visited.isEmpty()) {
+      return;
+    }
+    try {
+      delegate().updateVisits(visited);
+    } catch (RuntimeException e) {
+      log.error("Failed to write the visits of {} warps to the storage, recent visits may be missing in the database.",
+                visited.size(), e);
+    }
+  }
+
+  /**
+   * Stops the scheduled execution, hands all pending visits to the delegate and closes the delegate if it is {@link
+   * Closeable}. Writing methods must not be called once this method has been invoked.
+   *
+   * @throws IOException if the delegate cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    scheduler.shutdown();
+    flush();
+    if (delegate() instanceof Closeable) {
+      ((Closeable) delegate()).close();
+    }
+  }
+
+  @Override
+  public List<Warp> getWarps() {
+    flush();
+    return delegate().getWarps();
+  }
+
+  @Override
+  public void getWarps(int chunkSize, Consumer<List<Warp>> consumer) {
+    flush();
+    delegate().getWarps(chunkSize, consumer);
+  }
+
+  @Override
+  public void removeWarp(Warp warp) {
+    // the removed warp has no visits left to write
+    visitedWarps.remove(warp.getName());
+    delegate().removeWarp(warp);
+  }
+
+  @Override
+  public void updateVisits(Warp warp) {
+    visitedWarps.put(warp.getName(), warp);
+  }
+
+  @Override
+  public void updateVisits(Collection<Warp> warps) {
+    warps.forEach(this::updateVisits);
+  }
+}
@@ -21,13 +21,29 @@ package io.github.mywarp.mywarp.warp.storage;
 
 import io.github.mywarp.mywarp.warp.Warp;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * A connection to a data storage, e.g. a rational database.
  */
 public interface WarpStorage extends WarpSource {
 
+  /**
+   * Reads all {@code Warp}s and hands them to the given {@code consumer} in chunks of up to {@code chunkSize} {@code
+   * Warp}s as soon as they are read. This method blocks until all {@code Warp}s are read.
+   *
+   * <p>The {@code consumer} is called in the thread that calls this method while reading is still in progress, so it
+   * should hand chunks over to other threads instead of processing them itself.</p>
+   *
+   * @param chunkSize the maximum number of {@code Warp}s per chunk
+   * @param consumer  the consumer that receives the chunks
+   * @throws IllegalArgumentException if {@code chunkSize} is smaller than one
+   */
+  void getWarps(int chunkSize, Consumer<List<Warp>> consumer);
+
   /**
    * Adds the given {@code Warp} to the underlying data storage.
    *
@@ -35,6 +51,14 @@ public interface WarpStorage extends WarpSource {
    */
   void addWarp(Warp warp);
 
+  /**
+   * Adds all given {@code Warp}s to the underlying data storage. Implementations should prefer bulk operations over
+   * adding each {@code Warp} individually.
+   *
+   * @param warps the {@code Warp}s to add
+   */
+  void addWarps(Collection<Warp> warps);
+
   /**
    * Removes the given {@code Warp} from the underlying data storage.
    *
@@ -102,6 +126,14 @@ public interface WarpStorage extends WarpSource {
    */
   void updateVisits(Warp warp);
 
+  /**
+   * Updates the visits of all given {@code Warp}s. Implementations should prefer a single bulk operation over updating
+   * each {@code Warp} individually.
+   *
+   * @param warps the {@code Warp}s to update
+   */
+  void updateVisits(Collection<Warp> warps);
+
   /**
    * Update the welcome-message of the given {@code Warp}.
    *
@@ -109,4 +141,17 @@ public interface WarpStorage extends WarpSource {
    */
   void updateWelcomeMessage(Warp warp);
 
+  /**
+   * Executes all writes of the given {@code batch}. Implementations should prefer batched statements over executing
+   * each write individually.
+   *
+   * <p>The default implementation executes each write individually by calling the corresponding method of this
+   * storage.</p>
+   *
+   * @param batch the batch of writes
+   */
+  default void write(WriteBatch batch) {
+    batch.writeTo(this);
+  }
+
 }
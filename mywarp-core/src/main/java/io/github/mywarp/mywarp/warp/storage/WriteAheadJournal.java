@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+/**
+ * An append-only journal of writes to a {@link WarpStorage}, stored in a local file. Every write is recorded before
+ * it is handed to the storage and marked as committed once the storage has executed it. Writes that were never
+ * committed, e.g. because the server stopped before the storage executed them, can be replayed once the journal is
+ * opened again.
+ *
+ * <p>Each record is written with a single call to the file and thus survives if the process stops, but records are
+ * not forced to the physical disk. A record that was only partially written when the process stopped is detected by
+ * its checksum and ignored, as are all records that follow it.</p>
+ *
+ * <p>Committed records are only removed from the file when it is compacted. This happens whenever the file exceeds
+ * a certain size and consists mostly of committed records. The uncommitted records are copied to a new file by the
+ * thread whose commit triggered the compaction without holding the lock of this journal, so threads that record
+ * writes in the meantime are not blocked by it.</p>
+ *
+ * <p>This class is threadsafe.</p>
+ */
+public class WriteAheadJournal implements Closeable {
+
+  private static final Logger log = MyWarpLogger.getLogger(WriteAheadJournal.class);
+
+  private static final byte ENTRY_RECORD = 0;
+  private static final byte COMMIT_RECORD = 1;
+
+  /**
+   * The maximal size of a single record. Larger values indicate a corrupted file.
+   */
+  private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * The size of the file in bytes from which on the file is compacted.
+   */
+  private static final long COMPACTION_THRESHOLD = 4 * 1024 * 1024;
+
+  private final File file;
+  private final Map<Long, byte[]> uncommitted = new LinkedHashMap<>();
+  private final Map<Long, JournalEntry> recovered = new LinkedHashMap<>();
+
+  private OutputStream output;
+  @Nullable
+  private List<byte[]> writtenWhileCompacting;
+  private long fileLength;
+  private long uncommittedLength;
+  private long nextId;
+  private boolean closed;
+
+  private WriteAheadJournal(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Opens the journal stored in the given {@code file}, creating the file if it does not exist. Entries that were
+   * recorded, but never committed, are kept and can be replayed by calling {@link #replay(WarpStorage)}.
+   *
+   * @param file the file that stores the journal
+   * @return the opened journal
+   * @throws StorageInitializationException if the file cannot be read or written
+   */
+  public static WriteAheadJournal open(File file) throws StorageInitializationException {
+    WriteAheadJournal journal = new WriteAheadJournal(file);
+    try {
+      Map<Long, JournalEntry> entries = file.exists() ? read(file) : new LinkedHashMap<>();
+      for (JournalEntry entry : entries.values()) {
+        long id = journal.nextId++;
+        byte[] record = entryRecord(id, entry);
+        journal.uncommitted.put(id, record);
+        journal.uncommittedLength += record.length;
+        journal.recovered.put(id, entry);
+      }
+      journal.rewrite();
+    } catch (IOException e) {
+      throw new StorageInitializationException("Failed to open the journal in " + file.getAbsolutePath() + ".", e);
+    }
+    return journal;
+  }
+
+  /**
+   * Applies all entries that were recorded, but not committed, when this journal was opened to the given {@code
+   * storage} and commits them. Entries that fail are logged and committed nevertheless.
+   *
+   * <p>The given {@code storage} should execute writes in the thread that calls this method.</p>
+   *
+   * @param storage the storage
+   * @return the number of replayed entries
+   */
+  public int replay(WarpStorage storage) {
+    Map<Long, JournalEntry> entries;
+    synchronized (this) {
+      entries = new LinkedHashMap<>(recovered);
+      recovered.clear();
+    }
+    for (Map.Entry<Long, JournalEntry> entry : entries.entrySet()) {
+      try {
+        entry.getValue().applyTo(storage);
+      } catch (RuntimeException e) {
+        log.warn("Failed to replay a journaled write of {} warp(s), it will be skipped.", entry.getValue().size(), e);
+      }
+      commit(entry.getKey());
+    }
+    return entries.size();
+  }
+
+  /**
+   * Records the given {@code entry}.
+   *
+   * @param entry the entry
+   * @return the identifier of the recorded entry that is used to commit it
+   * @see #commit(long)
+   */
+  synchronized long append(JournalEntry entry) {
+    long id = nextId++;
+    if (closed) {
+      log.warn("A write was recorded after the journal has been closed, it will not be journaled.");
+      return id;
+    }
+    try {
+      byte[] record = entryRecord(id, entry);
+      write(record);
+      uncommitted.put(id, record);
+      uncommittedLength += record.length;
+    } catch (IOException e) {
+      log.error("Failed to record a write in the journal, it cannot be recovered if it does not reach the storage.", e);
+    }
+    return id;
+  }
+
+  /**
+   * Marks the entry with the given {@code id} as committed, so it is not replayed once the journal is opened again.
+   * Calling this method for an entry that is already committed has no effect.
+   *
+   * @param id the identifier of the entry
+   * @see #append(JournalEntry)
+   */
+  void commit(long id) {
+    List<byte[]> snapshot = null;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      byte[] record = uncommitted.remove(id);
+      if (record == null) {
+        return;
+      }
+      uncommittedLength -= record.length;
+      try {
+        write(commitRecord(id));
+      } catch (IOException e) {
+        log.error("Failed to commit a write in the journal, it may be replayed once the journal is opened again.", e);
+        return;
+      }
+      if (writtenWhileCompacting == null && fileLength > COMPACTION_THRESHOLD && fileLength > 2 * uncommittedLength) {
+        snapshot = new ArrayList<>(uncommitted.values());
+        writtenWhileCompacting = new ArrayList<>();
+      }
+    }
+    if (snapshot != null) {
+      compact(snapshot);
+    }
+  }
+
+  /**
+   * Closes this journal. Entries that are not yet committed remain in the file and can be replayed once the journal
+   * is opened again.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (!uncommitted.isEmpty()) {
+      log.info("{} write(s) did not reach the storage, they will be replayed on the next start.", uncommitted.size());
+    }
+    output.close();
+  }
+
+  private void write(byte[] record) throws IOException {
+    output.write(record);
+    fileLength += record.length;
+    if (writtenWhileCompacting != null) {
+      writtenWhileCompacting.add(record);
+    }
+  }
+
+  /**
+   * Replaces the file with one that contains only the given uncommitted records, followed by all records that were
+   * written since the records were collected. The given records are written without holding the lock of this journal,
+   * only the records written in the meantime are copied while holding it.
+   *
+   * @param snapshot the records that were uncommitted when the compaction started
+   */
+  private void compact(List<byte[]> snapshot) {
+    File temporary = new File(file.getPath() + ".tmp");
+    try {
+      long length = 0;
+      try (OutputStream out = new FileOutputStream(temporary)) {
+        for (byte[] record : snapshot) {
+          out.write(record);
+          length += record.length;
+        }
+      }
+      synchronized (this) {
+        if (closed) {
+          // the file is complete, it is just not compacted
+          Files.deleteIfExists(temporary.toPath());
+          return;
+        }
+        try (OutputStream out = new FileOutputStream(temporary, true)) {
+          for (byte[] record : writtenWhileCompacting) {
+            out.write(record);
+            length += record.length;
+          }
+        }
+        output.close();
+        try {
+          Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                     StandardCopyOption.ATOMIC_MOVE);
+          fileLength = length;
+        } finally {
+          output = new FileOutputStream(file, true);
+        }
+      }
+    } catch (IOException e) {
+      log.error("Failed to compact the journal, it will be compacted again once more writes are committed.", e);
+    } finally {
+      synchronized (this) {
+        writtenWhileCompacting = null;
+      }
+    }
+  }
+
+  /**
+   * Replaces the file with one that contains only the uncommitted entries.
+   *
+   * @throws IOException on an I/O error
+   */
+  private void rewrite() throws IOException {
+    if (output != null) {
+      output.close();
+    }
+    File temporary = new File(file.getPath() + ".tmp");
+    try (OutputStream out = new FileOutputStream(temporary)) {
+      for (byte[] record : uncommitted.values()) {
+        out.write(record);
+      }
+    }
+    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    output = new FileOutputStream(file, true);
+    fileLength = uncommittedLength;
+  }
+
+  private static Map<Long, JournalEntry> read(File file) throws IOException {
+    Map<Long, JournalEntry> ret = new LinkedHashMap<>();
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      while (true) {
+        int length;
+        try {
+          length = input.readInt();
+        } catch (EOFException e) {
+          break;
+        }
+        try {
+          if (length < 0 || length > MAX_RECORD_SIZE) {
+            throw new IOException("Invalid record length: " + length);
+          }
+          byte[] payload = new byte[length];
+          input.readFully(payload);
+          if (input.readLong() != checksum(payload)) {
+            throw new IOException("Checksum mismatch.");
+          }
+          DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+          byte type = record.readByte();
+          long id = record.readLong();
+          if (type == ENTRY_RECORD) {
+            ret.put(id, JournalEntry.readFrom(record));
+          } else if (type == COMMIT_RECORD) {
+            ret.remove(id);
+          } else {
+            throw new IOException("Unknown record type: " + type);
+          }
+        } catch (IOException e) {
+          log.warn("The journal in {} ends with a damaged record, it and all following records will be ignored.",
+                   file.getAbsolutePath(), e);
+          break;
+        }
+      }
+    }
+    return ret;
+  }
+
+  private static byte[] entryRecord(long id, JournalEntry entry) throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(payload);
+    output.writeByte(ENTRY_RECORD);
+    output.writeLong(id);
+    entry.writeTo(output);
+    return record(payload.toByteArray());
+  }
+
+  private static byte[] commitRecord(long id) throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(payload);
+    output.writeByte(COMMIT_RECORD);
+    output.writeLong(id);
+    return record(payload.toByteArray());
+  }
+
+  private static byte[] record(byte[] payload) throws IOException {
+    ByteArrayOutputStream record = new ByteArrayOutputStream(payload.length + 12);
+    DataOutputStream output = new DataOutputStream(record);
+    output.writeInt(payload.length);
+    output.write(payload);
+    output.writeLong(checksum(payload));
+    return record.toByteArray();
+  }
+
+  private static long checksum(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+    return crc.getValue();
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import com.google.common.collect.Maps;
+
+import io.github.mywarp.mywarp.warp.Warp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * A batch of writes that affect multiple warps and that a {@link WarpStorage} can execute at once, see {@link
+ * WarpStorage#write(WriteBatch)}.
+ *
+ * <p>A batch must contain at most one write of each kind per warp and invitee. Writes are executed in this order:
+ * removals, additions, updates, invitations and uninvitations. So a warp that is removed and added again by the same
+ * batch is replaced, while writes of different warps do not depend on each other.</p>
+ */
+public final class WriteBatch {
+
+  /**
+   * The kinds of updates a batch can contain.
+   */
+  public enum Update {
+    CREATOR(WarpStorage::updateCreator), LOCATION(WarpStorage::updateLocation), TYPE(WarpStorage::updateType),
+    WELCOME_MESSAGE(WarpStorage::updateWelcomeMessage);
+
+    private final BiConsumer<WarpStorage, Warp> write;
+
+    Update(BiConsumer<WarpStorage, Warp> write) {
+      this.write = write;
+    }
+
+    /**
+     * Executes this update of the given {@code warp} on the given {@code storage}.
+     *
+     * @param storage the storage
+     * @param warp    the warp to update
+     */
+    void writeTo(WarpStorage storage, Warp warp) {
+      write.accept(storage, warp);
+    }
+  }
+
+  private final List<Warp> removals = new ArrayList<>();
+  private final List<Warp> additions = new ArrayList<>();
+  private final Map<Update, List<Warp>> updates = new EnumMap<>(Update.class);
+  private final List<Map.Entry<Warp, UUID>> playerInvitations = new ArrayList<>();
+  private final List<Map.Entry<Warp, UUID>> playerUninvitations = new ArrayList<>();
+  private final List<Map.Entry<Warp, String>> groupInvitations = new ArrayList<>();
+  private final List<Map.Entry<Warp, String>> groupUninvitations = new ArrayList<>();
+  private int size;
+
+  /**
+   * Adds the removal of the given {@code warp}.
+   *
+   * @param warp the warp
+   */
+  public void remove(Warp warp) {
+    removals.add(warp);
+    size++;
+  }
+
+  /**
+   * Adds the addition of the given {@code warp}.
+   *
+   * @param warp the warp
+   */
+  public void add(Warp warp) {
+    additions.add(warp);
+    size++;
+  }
+
+  /**
+   * Adds the given {@code update} of the given {@code warp}.
+   *
+   * @param update the kind of update
+   * @param warp   the warp
+   */
+  public void update(Update update, Warp warp) {
+    updates.computeIfAbsent(update, u -> new ArrayList<>()).add(warp);
+    size++;
+  }
+
+  /**
+   * Adds the invitation or uninvitation of the player with the given {@code uniqueId} to the given {@code warp}.
+   *
+   * @param warp     the warp
+   * @param uniqueId the unique identifier of the player
+   * @param invite   {@code true} to invite the player, {@code false} to uninvite the player
+   */
+  public void invitePlayer(Warp warp, UUID uniqueId, boolean invite) {
+    (invite ? playerInvitations : playerUninvitations).add(Maps.immutableEntry(warp, uniqueId));
+    size++;
+  }
+
+  /**
+   * Adds the invitation or uninvitation of the group with the given {@code groupId} to the given {@code warp}.
+   *
+   * @param warp    the warp
+   * @param groupId the identifier of the group
+   * @param invite  {@code true} to invite the group, {@code false} to uninvite the group
+   */
+  public void inviteGroup(Warp warp, String groupId, boolean invite) {
+    (invite ? groupInvitations : groupUninvitations).add(Maps.immutableEntry(warp, groupId));
+    size++;
+  }
+
+  /**
+   * Gets the warps removed by this batch.
+   *
+   * @return the removed warps
+   */
+  public List<Warp> getRemovals() {
+    return Collections.unmodifiableList(removals);
+  }
+
+  /**
+   * Gets the warps added by this batch.
+   *
+   * @return the added warps
+   */
+  public List<Warp> getAdditions() {
+    return Collections.unmodifiableList(additions);
+  }
+
+  /**
+   * Gets the warps updated by the given kind of {@code update}.
+   *
+   * @param update the kind of update
+   * @return the updated warps
+   */
+  public List<Warp> getUpdates(Update update) {
+    return Collections.unmodifiableList(updates.getOrDefault(update, Collections.emptyList()));
+  }
+
+  /**
+   * Gets the players invited by this batch, each mapped from the warp they are invited to.
+   *
+   * @return the invited players
+   */
+  public List<Map.Entry<Warp, UUID>> getPlayerInvitations() {
+    return Collections.unmodifiableList(playerInvitations);
+  }
+
+  /**
+   * Gets the players uninvited by this batch, each mapped from the warp they are uninvited from.
+   *
+   * @return the uninvited players
+   */
+  public List<Map.Entry<Warp, UUID>> getPlayerUninvitations() {
+    return Collections.unmodifiableList(playerUninvitations);
+  }
+
+  /**
+   * Gets the groups invited by this batch, each mapped from the warp they are invited to.
+   *
+   * @return the invited groups
+   */
+  public List<Map.Entry<Warp, String>> getGroupInvitations() {
+    return Collections.unmodifiableList(groupInvitations);
+  }
+
+  /**
+   * Gets the groups uninvited by this batch, each mapped from the warp they are uninvited from.
+   *
+   * @return the uninvited groups
+   */
+  public List<Map.Entry<Warp, String>> getGroupUninvitations() {
+    return Collections.unmodifiableList(groupUninvitations);
+  }
+
+  /**
+   * Gets the number of writes in this batch.
+   *
+   * @return the number of writes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether this batch contains no writes.
+   *
+   * @return {@code true} if this batch is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Executes every write of this batch individually on the given {@code storage}, using the order of a batch.
+   *
+   * @param storage the storage
+   */
+  public void writeTo(WarpStorage storage) {
+    removals.forEach(storage::removeWarp);
+    additions.forEach(storage::addWarp);
+    updates.forEach((update, warps) -> warps.forEach(warp -> update.writeTo(storage, warp)));
+    playerInvitations.forEach(entry -> storage.invitePlayer(entry.getKey(), entry.getValue()));
+    playerUninvitations.forEach(entry -> storage.uninvitePlayer(entry.getKey(), entry.getValue()));
+    groupInvitations.forEach(entry -> storage.inviteGroup(entry.getKey(), entry.getValue()));
+    groupUninvitations.forEach(entry -> storage.uninviteGroup(entry.getKey(), entry.getValue()));
+  }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.github.mywarp.mywarp.util.MyWarpLogger;
+import io.github.mywarp.mywarp.warp.Warp;
+import io.github.mywarp.mywarp.warp.storage.JournalEntry.Kind;
+import io.github.mywarp.mywarp.warp.storage.WriteBatch.Update;
+
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@code WarpStorage} that works on top of another {@code WarpStorage} and defers every <b>writing</b> task. Pending
+ * writes are coalesced per warp and executed asynchronous once a configurable interval has passed or the number of
+ * pending writes reaches a configurable threshold. The {@link Executor} is selected individually for every warp, so
+ * pending writes of unrelated warps may be executed in parallel if the selected {@code Executor}s differ.
+ *
+ * <p>As writing methods always persist the current state of a warp, coalescing follows these rules: updates of the
+ * same kind supersede each other, invitations and uninvitations of the same player or group cancel each other out,
+ * writes that follow a pending addition are dropped as the addition persists the warp in its current state and the
+ * removal of a warp drops all writes that are still pending for it.</p>
+ *
+ * <p>Visits are not coalesced here, as they are aggregated by a {@link VisitAggregatingWarpStorage} on top of this
+ * storage: calls to {@link #updateVisits(Collection)} are handed to the {@code Executor} selected for bulk writes
+ * right away.</p>
+ *
+ * <p>All other pending writes of warps that share an {@code Executor} are written as a {@link WriteBatch}, so the
+ * storage can execute writes of the same kind with a single batched statement. If the batch fails, the writes of each
+ * warp are written on their own, so a single warp that cannot be written does not prevent the writes of all
+ * others.</p>
+ *
+ * <p>Reading methods execute all pending writes and then read in the thread that calls the method. Call {@link
+ * #close()} to stop the scheduled execution and flush all remaining writes once the storage is no longer used.</p>
+ */
+public class WriteBehindWarpStorage extends ForwardingWarpStorage implements Closeable {
+
+  private static final Logger log = MyWarpLogger.getLogger(WriteBehindWarpStorage.class);
+
+  private final WarpStorage warpStorage;
+  private final Function<String, Executor> executors;
+  private final int flushThreshold;
+  @Nullable
+  private final WriteAheadJournal journal;
+  private final ScheduledExecutorService scheduler;
+
+  private final Object lock = new Object();
+  private Map<String, PendingWrites> pendingWrites = new LinkedHashMap<>();
+  private int pendingCount;
+
+  /**
+   * Creates an instance. Every call is delegated to the given {@code warpStorage}, writing methods are coalesced and
+   * executed whenever {@code flushInterval} has passed or {@code flushThreshold} writes are pending, reading methods
+   * still run in the thread that calls the method. Pending writes of a warp are executed in the {@code Executor} that
+   * the given {@code executors} function returns for the warp's name.
+   *
+   * @param warpStorage    the {@code WarpStorage} whose writing methods should be deferred
+   * @param executors      the function that selects the {@code Executor} that executes writing methods of a warp by
+   *                       the warp's name
+   * @param flushInterval  the interval between two scheduled flushes
+   * @param flushThreshold the number of pending writes that triggers a flush
+   * @throws IllegalArgumentException if {@code flushInterval} is not positive or {@code flushThreshold} is smaller
+   *                                  than one
+   */
+  public WriteBehindWarpStorage(WarpStorage warpStorage, Function<String, Executor> executors, Duration flushInterval,
+                                int flushThreshold) {
+    this(warpStorage, executors, flushInterval, flushThreshold, null);
+  }
+
+  /**
+   * Creates an instance that works like {@link #WriteBehindWarpStorage(WarpStorage, Function, Duration, int)}, but
+   * records every write except visits in the given {@code journal} before it is buffered. The journal entries of a
+   * write are committed once the write has been written to the given {@code warpStorage} without an exception, so
+   * writes that are still buffered when the server crashes or that fail are replayed from the journal on the next
+   * start.
+   *
+   * @param warpStorage    the {@code WarpStorage} whose writing methods should be deferred
+   * @param executors      the function that selects the {@code Executor} that executes writing methods of a warp by
+   *                       the warp's name
+   * @param flushInterval  the interval between two scheduled flushes
+   * @param flushThreshold the number of pending writes that triggers a flush
+   * @param journal        the journal that records writes until they are written or {@code null} to not use a
+   *                       journal
+   * @throws IllegalArgumentException if {@code flushInterval} is not positive or {@code flushThreshold} is smaller
+   *                                  than one
+   */
+  public WriteBehindWarpStorage(WarpStorage warpStorage, Function<String, Executor> executors, Duration flushInterval,
+                                int flushThreshold, @Nullable WriteAheadJournal journal) {
+    checkArgument(!flushInterval.isNegative() && !flushInterval.isZero(), "'flushInterval' must be positive.");
+    checkArgument(flushThreshold > 0, "'flushThreshold' must be at least one.");
+    this.warpStorage = warpStorage;
+    this.executors = executors;
+    this.flushThreshold = flushThreshold;
+    this.journal = journal;
+
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("MyWarp Write-Behind").setDaemon(true).build());
+    long intervalMillis = flushInterval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected WarpStorage delegate() {
+    return warpStorage;
+  }
+
+  /**
+   * Hands all pending writes to the executor selected for the affected warp. Pending writes that share an executor are
+   * handed over as batches.
+   */
+  public void flush() {
+    Map<Executor, List<PendingWrites>> batches = new IdentityHashMap<>();
+    for (Map.Entry<String, PendingWrites> entry : drain().entrySet()) {
+      batches.computeIfAbsent(executors.apply(entry.getKey()), e -> new ArrayList<>()).add(entry.getValue());
+    }
+    batches.forEach((executor, pending) -> {
+      for (List<PendingWrites> batch : Lists.partition(pending, flushThreshold)) {
+        executor.execute(() -> write(batch));
+      }
+    });
+  }
+
+  /**
+   * Stops the scheduled execution and hands all pending writes to the executor. Writing methods must not be called
+   * once this method has been invoked.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdown();
+    flush();
+  }
+
+  @Override
+  public List<Warp> getWarps() {
+    writeAllPending();
+    return delegate().getWarps();
+  }
+
+  @Override
+  public void getWarps(int chunkSize, Consumer<List<Warp>> consumer) {
+    writeAllPending();
+    delegate().getWarps(chunkSize, consumer);
+  }
+
+  @Override
+  public void addWarp(final Warp warp) {
+    addWarps(Collections.singleton(warp));
+  }
+
+  @Override
+  public void addWarps(final Collection<Warp> warps) {
+    record(warps, warp -> JournalEntry.of(Kind.ADD, warp), PendingWrites::add);
+  }
+
+  @Override
+  public void removeWarp(final Warp warp) {
+    record(warp, JournalEntry.of(Kind.REMOVE, warp), pending -> {
+      pending.clearWrites();
+      if (pending.addition != null) {
+        // the warp has not yet been written, so there is nothing to remove unless an earlier removal is pending
+        pending.addition = null;
+      } else {
+        pending.removal = warp;
+      }
+    });
+  }
+
+  @Override
+  public void inviteGroup(final Warp warp, final String groupId) {
+    recordInvitation(warp, JournalEntry.ofGroup(Kind.INVITE_GROUP, warp, groupId), pending -> pending.groupInvitations,
+                     groupId, true);
+  }
+
+  @Override
+  public void invitePlayer(final Warp warp, final UUID uniqueId) {
+    recordInvitation(warp, JournalEntry.ofPlayer(Kind.INVITE_PLAYER, warp, uniqueId),
+                     pending -> pending.playerInvitations, uniqueId, true);
+  }
+
+  @Override
+  public void uninviteGroup(final Warp warp, final String groupId) {
+    recordInvitation(warp, JournalEntry.ofGroup(Kind.UNINVITE_GROUP, warp, groupId),
+                     pending -> pending.groupInvitations, groupId, false);
+  }
+
+  @Override
+  public void uninvitePlayer(final Warp warp, final UUID uniqueId) {
+    recordInvitation(warp, JournalEntry.ofPlayer(Kind.UNINVITE_PLAYER, warp, uniqueId),
+                     pending -> pending.playerInvitations, uniqueId, false);
+  }
+
+  @Override
+  public void updateCreator(final Warp warp) {
+    recordUpdate(warp, Update.CREATOR, Kind.UPDATE_CREATOR);
+  }
+
+  @Override
+  public void updateLocation(final Warp warp) {
+    recordUpdate(warp, Update.LOCATION, Kind.UPDATE_LOCATION);
+  }
+
+  @Override
+  public void updateType(final Warp warp) {
+    recordUpdate(warp, Update.TYPE, Kind.UPDATE_TYPE);
+  }
+
+  @Override
+  public void updateVisits(final Warp warp) {
+    updateVisits(Collections.singleton(warp));
+  }
+
+  @Override
+  public void updateVisits(final Collection<Warp> warps) {
+    // visits are not journaled, a lost update is corrected by the next update of the same warp
+    executors.apply(AsyncWritingWarpStorage.BULK_KEY).execute(() -> writeVisits(warps));
+  }
+
+  @Override
+  public void updateWelcomeMessage(final Warp warp) {
+    recordUpdate(warp, Update.WELCOME_MESSAGE, Kind.UPDATE_WELCOME_MESSAGE);
+  }
+
+  private void recordUpdate(Warp warp, Update update, Kind kind) {
+    record(warp, JournalEntry.of(kind, warp), pending -> {
+      if (pending.addition == null) {
+        pending.updated = warp;
+        pending.updates.add(update);
+      }
+    });
+  }
+
+  private <K> void recordInvitation(Warp warp, JournalEntry entry, Function<PendingWrites, Map<K, Boolean>> selector,
+                                    K invitee, boolean invite) {
+    record(warp, entry, pending -> {
+      if (pending.addition != null) {
+        return;
+      }
+      pending.updated = warp;
+      Map<K, Boolean> invitations = selector.apply(pending);
+      Boolean previous = invitations.get(invitee);
+      if (previous != null && previous != invite) {
+        invitations.remove(invitee);
+      } else {
+        invitations.put(invitee, invite);
+      }
+    });
+  }
+
+  private void record(Warp warp, JournalEntry entry, Consumer<PendingWrites> modification) {
+    record(Collections.singleton(warp), w -> entry, (pending, w) -> modification.accept(pending));
+  }
+
+  /**
+   * Records a write of each of the given {@code warps}. If a journal is used, the write of each warp is recorded in
+   * the journal before it is buffered.
+   *
+   * @param warps        the warps
+   * @param entries      the function that creates the journal entry that describes the write of a warp
+   * @param modification the modification of the pending writes of a warp that buffers the write
+   */
+  private void record(Collection<Warp> warps, Function<Warp, JournalEntry> entries,
+                      BiConsumer<PendingWrites, Warp> modification) {
+    List<Long> ids = new ArrayList<>();
+    if (journal != null) {
+      for (Warp warp : warps) {
+        ids.add(journal.append(entries.apply(warp)));
+      }
+    }
+    boolean thresholdReached;
+    synchronized (lock) {
+      Iterator<Long> idIterator = ids.iterator();
+      for (Warp warp : warps) {
+        PendingWrites pending = pendingWrites.computeIfAbsent(warp.getName(), name -> new PendingWrites());
+        modification.accept(pending, warp);
+        if (idIterator.hasNext()) {
+          pending.journalIds.add(idIterator.next());
+        }
+      }
+      int previousCount = pendingCount;
+      pendingCount += warps.size();
+      thresholdReached = previousCount < flushThreshold && pendingCount >= flushThreshold;
+    }
+    if (thresholdReached && !scheduler.isShutdown()) {
+      scheduler.execute(this::flush);
+    }
+  }
+
+  private Map<String, PendingWrites> drain() {
+    synchronized (lock) {
+      Map<String, PendingWrites> ret = pendingWrites;
+      pendingWrites = new LinkedHashMap<>();
+      pendingCount = 0;
+      return ret;
+    }
+  }
+
+  /**
+   * Writes all pending writes in the thread that calls this method.
+   */
+  private void writeAllPending() {
+    for (List<PendingWrites> batch : Lists.partition(new ArrayList<>(drain().values()), flushThreshold)) {
+      write(batch);
+    }
+  }
+
+  /**
+   * Writes the given pending writes with a single call to {@link WarpStorage#write(WriteBatch)}. As pending writes of
+   * unrelated warps are coalesced into one batch, a single write that fails would roll back the writes of all others.
+   * If the batch fails, the pending writes of each warp are therefore written as a batch of their own, so only the
+   * writes of warps that actually fail are missing in the database.
+   *
+   * @param pending the pending writes
+   */
+  private void write(List<PendingWrites> pending) {
+    WriteBatch batch = new WriteBatch();
+    pending.forEach(writes -> writes.addTo(batch));
+    if (!batch.isEmpty()) {
+      try {
+        delegate().write(batch);
+      } catch (RuntimeException e) {
+        if (pending.size() == 1) {
+          log.error("Failed to write pending changes to the storage, recent changes may be missing in the database.",
+                    e);
+          return;
+        }
+        log.warn("Failed to write a batch of {} writes to the storage, the writes of each warp will be written on "
+                 + "their own.", batch.size(), e);
+        for (PendingWrites writes : pending) {
+          write(Collections.singletonList(writes));
+        }
+        return;
+      }
+    }
+    // writes that cancelled each other out are committed, even if nothing had to be written
+    pending.forEach(writes -> commit(writes.journalIds));
+  }
+
+  private void writeVisits(Collection<Warp> warps) {
+    try {
+      delegate().updateVisits(warps);
+    } catch (RuntimeException e) {
+      log.error("Failed to write the visits of {} warps to the storage, recent visits may be missing in the database.",
+                warps.size(), e);
+    }
+  }
+
+  private void commit(List<Long> journalIds) {
+    if (journal != null) {
+      journalIds.forEach(journal::commit);
+    }
+  }
+
+  /**
+   * The coalesced writes that are pending for a single warp name.
+   */
+  private static class PendingWrites {
+
+    private final EnumSet<Update> updates = EnumSet.noneOf(Update.class);
+    private final Map<UUID, Boolean> playerInvitations = new LinkedHashMap<>();
+    private final Map<String, Boolean> groupInvitations = new LinkedHashMap<>();
+    private final List<Long> journalIds = new ArrayList<>();
+
+    @Nullable
+    private Warp removal;
+    @Nullable
+    private Warp addition;
+    @Nullable
+    private Warp updated;
+
+    private void add(Warp warp) {
+      clearWrites();
+      addition = warp;
+    }
+
+    private void clearWrites() {
+      updates.clear();
+      playerInvitations.clear();
+      groupInvitations.clear();
+      updated = null;
+    }
+
+    private void addTo(WriteBatch batch) {
+      if (removal != null) {
+        batch.remove(removal);
+      }
+      if (addition != null) {
+        batch.add(addition);
+        return;
+      }
+      if (updated == null) {
+        return;
+      }
+      for (Update update : updates) {
+        batch.update(update, updated);
+      }
+      playerInvitations.forEach((invitee, invite) -> batch.invitePlayer(updated, invitee, invite));
+      groupInvitations.forEach((invitee, invite) -> batch.inviteGroup(updated, invitee, invite));
+    }
+  }
+}
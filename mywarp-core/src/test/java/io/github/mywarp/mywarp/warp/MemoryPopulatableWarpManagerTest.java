@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static org.junit.Assert.assertEquals;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.ImmutableList;
+
+import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the results of {@link MemoryPopulatableWarpManager#getAll(WarpQuery)} and {@link
+ * MemoryPopulatableWarpManager#getNumberOfWarps(WarpQuery)} with a filter over all warps, so that whichever index the
+ * manager picks for a query, the result stays the same.
+ */
+public class MemoryPopulatableWarpManagerTest {
+
+  private static final List<UUID> PLAYERS = randomIds(6);
+  private static final List<UUID> WORLDS = randomIds(3);
+  private static final List<String> GROUPS = ImmutableList.of("admins", "builders", "guests");
+  private static final String NAME_CHARACTERS = "abcAB";
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void queriesMatchFilterForRandomWarps() {
+    MemoryPopulatableWarpManager manager = new MemoryPopulatableWarpManager();
+    manager.populate(randomWarps(600));
+
+    for (int i = 0; i < 500; i++) {
+      assertQuery(manager, randomQuery());
+    }
+  }
+
+  @Test
+  public void queriesMatchFilterAfterWarpsChange() {
+    MemoryPopulatableWarpManager manager = new MemoryPopulatableWarpManager();
+    manager.populate(randomWarps(600));
+    List<Warp> warps = new ArrayList<>(manager.getAll(warp -> true));
+    for (Warp warp : warps) {
+      switch (random.nextInt(6)) {
+        case 0:
+          manager.remove(warp);
+          break;
+        case 1:
+          warp.setCreator(randomElement(PLAYERS));
+          break;
+        case 2:
+          warp.setType(warp.isType(Warp.Type.PUBLIC) ? Warp.Type.PRIVATE : Warp.Type.PUBLIC);
+          break;
+        case 3:
+          warp.invitePlayer(randomElement(PLAYERS));
+          warp.inviteGroup(randomElement(GROUPS));
+          break;
+        case 4:
+          warp.visit(null, (entity, world, position, rotation) -> TeleportHandler.TeleportStatus.ORIGINAL);
+          break;
+        default:
+          break;
+      }
+    }
+
+    for (int i = 0; i < 500; i++) {
+      assertQuery(manager, randomQuery());
+    }
+  }
+
+  @Test
+  public void countsPerPlayerAndWorldMatchFilter() {
+    MemoryPopulatableWarpManager manager = new MemoryPopulatableWarpManager();
+    manager.populate(randomWarps(600));
+
+    for (UUID player : PLAYERS) {
+      assertQuery(manager, WarpQuery.builder().creator(player).build());
+      assertQuery(manager, WarpQuery.builder().creator(player).types(Warp.Type.PRIVATE).build());
+      for (UUID world : WORLDS) {
+        assertQuery(manager, WarpQuery.builder().creator(player).world(world).build());
+        assertQuery(manager, WarpQuery.builder().creator(player).world(world).types(Warp.Type.PUBLIC).limit(3).build());
+      }
+    }
+  }
+
+  @Test
+  public void popularityOrderWithLimitsMatchesComparator() {
+    MemoryPopulatableWarpManager manager = new MemoryPopulatableWarpManager();
+    manager.populate(randomWarps(600));
+
+    for (int limit : new int[]{0, 1, 5, 50, 1000}) {
+      // without criteria the ranking is walked, with a creator the creator's warps are sorted by rank
+      assertQuery(manager, WarpQuery.builder().sortedBy(new Warp.PopularityComparator()).limit(limit).build());
+      assertQuery(manager, WarpQuery.builder().creator(PLAYERS.get(0)).sortedBy(new Warp.PopularityComparator())
+          .limit(limit).build());
+      assertQuery(manager,
+                  WarpQuery.builder().accessibleBy(PLAYERS.get(1), "guests"::equals)
+                      .sortedBy(new Warp.PopularityComparator()).limit(limit).build());
+    }
+  }
+
+  private void assertQuery(MemoryPopulatableWarpManager manager, WarpQuery query) {
+    Collection<Warp> all = manager.getAll(warp -> true);
+    List<Warp> matches = all.stream().filter(query).collect(Collectors.toList());
+    List<Warp> actual = manager.getAll(query);
+
+    assertEquals("Number of warps matching " + query, Math.min(matches.size(), query.getLimit()),
+                 manager.getNumberOfWarps(query));
+    assertEquals("Size of the result for " + query, Math.min(matches.size(), query.getLimit()), actual.size());
+    for (Warp warp : actual) {
+      assertEquals("Match of " + warp.getName() + " for " + query, true, query.test(warp));
+    }
+    if (query.getOrder().isPresent()) {
+      // warps that are equal in order may be returned in any order, so the positions of warps are compared
+      List<Warp> expected = matches.stream().sorted(query.getOrder().get()).limit(query.getLimit())
+          .collect(Collectors.toList());
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals("Position " + i + " for " + query, 0,
+                     query.getOrder().get().compare(expected.get(i), actual.get(i)));
+      }
+    } else if (query.getLimit() >= matches.size()) {
+      assertEquals("Result for " + query, names(matches), names(actual));
+    }
+  }
+
+  private WarpQuery randomQuery() {
+    WarpQuery.Builder builder = WarpQuery.builder();
+    if (random.nextInt(3) == 0) {
+      builder.creator(randomElement(PLAYERS));
+    }
+    if (random.nextInt(3) == 0) {
+      builder.world(randomElement(WORLDS));
+    }
+    if (random.nextInt(4) == 0) {
+      builder.types(random.nextBoolean() ? Warp.Type.PUBLIC : Warp.Type.PRIVATE);
+    }
+    if (random.nextInt(3) == 0) {
+      builder.namePrefix(randomName(1 + random.nextInt(3)));
+    }
+    if (random.nextInt(10) == 0) {
+      builder.nameIgnoringCase(randomName(2 + random.nextInt(3)));
+    }
+    if (random.nextInt(5) == 0) {
+      builder.invitedPlayer(randomElement(PLAYERS));
+    }
+    if (random.nextInt(5) == 0) {
+      builder.invitedGroup(randomElement(GROUPS));
+    }
+    if (random.nextInt(4) == 0) {
+      String group = randomElement(GROUPS);
+      builder.accessibleBy(randomElement(PLAYERS), group::equals);
+    }
+    if (random.nextInt(5) == 0) {
+      builder.within(randomElement(WORLDS), randomPosition(), random.nextDouble() * 400);
+    }
+    switch (random.nextInt(5)) {
+      case 0:
+        builder.sortedBy(new Warp.PopularityComparator());
+        break;
+      case 1:
+        builder.sortedBy(Comparator.comparing(Warp::getName));
+        break;
+      case 2:
+        builder.closestTo(randomElement(WORLDS), randomPosition());
+        break;
+      default:
+        break;
+    }
+    if (random.nextBoolean()) {
+      builder.limit(random.nextInt(20));
+    }
+    return builder.build();
+  }
+
+  private List<Warp> randomWarps(int count) {
+    // half a day off the whole days counted by popularity scores, so scores do not change while the test runs
+    Instant start = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(Duration.ofHours(12));
+    List<Warp> ret = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      WarpBuilder builder = new WarpBuilder(randomName(4) + i, randomElement(PLAYERS), randomElement(WORLDS),
+                                            randomPosition(), new Vector2f(0, 0))
+          .setType(random.nextBoolean() ? Warp.Type.PUBLIC : Warp.Type.PRIVATE)
+          .setCreationDate(start.minus(Duration.ofDays(1 + random.nextInt(10)))).setVisits(random.nextInt(10));
+      if (random.nextInt(4) == 0) {
+        builder.addInvitedPlayer(randomElement(PLAYERS));
+      }
+      if (random.nextInt(4) == 0) {
+        builder.addInvitedGroup(randomElement(GROUPS));
+      }
+      ret.add(builder.build());
+    }
+    return ret;
+  }
+
+  private String randomName(int length) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      builder.append(NAME_CHARACTERS.charAt(random.nextInt(NAME_CHARACTERS.length())));
+    }
+    return builder.toString();
+  }
+
+  private Vector3d randomPosition() {
+    return new Vector3d((random.nextDouble() * 2 - 1) * 1000, 64, (random.nextDouble() * 2 - 1) * 1000);
+  }
+
+  private <T> T randomElement(List<T> list) {
+    return list.get(random.nextInt(list.size()));
+  }
+
+  private static List<String> names(Collection<Warp> warps) {
+    return warps.stream().map(Warp::getName).sorted().collect(Collectors.toList());
+  }
+
+  private static List<UUID> randomIds(int count) {
+    List<UUID> ret = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ret.add(UUID.randomUUID());
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static org.junit.Assert.assertEquals;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the results of {@link NameIndex#getByPrefix(String)} and {@link NameIndex#countByPrefix(String, int)} with
+ * a filter over all warps that ignores case the way {@link String#regionMatches(boolean, int, String, int, int)}
+ * does.
+ */
+public class NameIndexTest {
+
+  // includes characters whose upper and lower case forms do not map onto each other, such as the dotted I and the
+  // Kelvin sign
+  private static final String ALPHABET = "abAB_kK\u212ai\u0130\u0131I\u00df";
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void prefixMatchesFilterForRandomNames() {
+    List<Warp> warps = randomWarps(500);
+    NameIndex index = index(warps);
+
+    for (int i = 0; i < 300; i++) {
+      assertPrefix(index, warps, randomName(random.nextInt(4)));
+    }
+  }
+
+  @Test
+  public void prefixMatchesFilterForPrefixesOfExistingNames() {
+    List<Warp> warps = randomWarps(500);
+    NameIndex index = index(warps);
+
+    for (int i = 0; i < 300; i++) {
+      String name = warps.get(random.nextInt(warps.size())).getName();
+      assertPrefix(index, warps, swapCase(name.substring(0, random.nextInt(name.length() + 1))));
+    }
+  }
+
+  @Test
+  public void prefixIgnoresRemovedWarps() {
+    List<Warp> warps = randomWarps(300);
+    NameIndex index = index(warps);
+    List<Warp> remaining = new ArrayList<>();
+    for (Warp warp : warps) {
+      if (random.nextBoolean()) {
+        index.remove(warp);
+      } else {
+        remaining.add(warp);
+      }
+    }
+
+    for (int i = 0; i < 200; i++) {
+      assertPrefix(index, remaining, randomName(random.nextInt(4)));
+    }
+  }
+
+  @Test
+  public void namesThatOnlyDifferInCaseAreKeptApart() {
+    List<Warp> warps = new ArrayList<>();
+    for (String name : new String[]{"kiwi", "Kiwi", "KIWI", "k\u0130wi", "\u212aiwi"}) {
+      warps.add(warp(name));
+    }
+    NameIndex index = index(warps);
+
+    assertPrefix(index, warps, "K");
+    assertPrefix(index, warps, "kIw");
+    assertPrefix(index, warps, "kiwi");
+  }
+
+  private void assertPrefix(NameIndex index, List<Warp> warps, String prefix) {
+    List<String> expected = warps.stream()
+        .filter(warp -> warp.getName().regionMatches(true, 0, prefix, 0, prefix.length()))
+        .sorted(Comparator.comparing((Warp warp) -> NameIndex.fold(warp.getName())).thenComparing(Warp::getName))
+        .map(Warp::getName).collect(Collectors.toList());
+    List<String> actual = index.getByPrefix(prefix).stream().map(Warp::getName).collect(Collectors.toList());
+    assertEquals("Warps starting with '" + prefix + "'", expected, actual);
+
+    int max = random.nextInt(expected.size() + 2);
+    assertEquals("Number of warps starting with '" + prefix + "' up to " + max, Math.min(expected.size(), max),
+                 index.countByPrefix(prefix, max));
+  }
+
+  private String randomName(int length) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return builder.toString();
+  }
+
+  private String swapCase(String string) {
+    StringBuilder builder = new StringBuilder();
+    for (char c : string.toCharArray()) {
+      builder.append(random.nextBoolean() ? Character.toUpperCase(c) : Character.toLowerCase(c));
+    }
+    return builder.toString();
+  }
+
+  private List<Warp> randomWarps(int count) {
+    Set<String> names = new LinkedHashSet<>();
+    while (names.size() < count) {
+      names.add(randomName(1 + random.nextInt(6)));
+    }
+    return names.stream().map(NameIndexTest::warp).collect(Collectors.toList());
+  }
+
+  private static NameIndex index(List<Warp> warps) {
+    NameIndex index = new NameIndex();
+    warps.forEach(index::add);
+    return index;
+  }
+
+  private static Warp warp(String name) {
+    return new WarpBuilder(name, UUID.randomUUID(), UUID.randomUUID(), Vector3d.ZERO, new Vector2f(0, 0)).build();
+  }
+}
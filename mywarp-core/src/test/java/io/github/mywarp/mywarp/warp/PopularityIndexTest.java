@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static org.junit.Assert.assertEquals;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.Iterables;
+
+import io.github.mywarp.mywarp.util.teleport.TeleportHandler;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the ranking of {@link PopularityIndex} with all warps sorted by {@link Warp.PopularityComparator}.
+ */
+public class PopularityIndexTest {
+
+  private final Random random = new Random(42);
+  private int warpCount;
+
+  @Test
+  public void rankingMatchesComparatorForRandomWarps() {
+    List<Warp> warps = randomWarps(500);
+    PopularityIndex index = index(warps);
+
+    assertRanking(index, warps);
+  }
+
+  @Test
+  public void rankingIgnoresRemovedWarps() {
+    List<Warp> warps = randomWarps(500);
+    PopularityIndex index = index(warps);
+    List<Warp> remaining = new ArrayList<>();
+    for (Warp warp : warps) {
+      if (random.nextBoolean()) {
+        index.remove(warp);
+      } else {
+        remaining.add(warp);
+      }
+    }
+
+    assertRanking(index, remaining);
+  }
+
+  @Test
+  public void rankingMatchesComparatorAfterUpdates() {
+    List<Warp> warps = randomWarps(300);
+    PopularityIndex index = index(warps);
+    for (Warp warp : warps) {
+      if (random.nextInt(3) == 0) {
+        for (int i = random.nextInt(20); i >= 0; i--) {
+          warp.visit(null, (entity, world, position, rotation) -> TeleportHandler.TeleportStatus.ORIGINAL);
+        }
+        index.update(warp);
+      }
+    }
+
+    assertRanking(index, warps);
+  }
+
+  @Test
+  public void comparatorOrdersLikeRanking() {
+    List<Warp> warps = randomWarps(300);
+    PopularityIndex index = index(warps);
+
+    List<Warp> sorted = new ArrayList<>(warps);
+    sorted.sort(index.comparator());
+    assertEquals(names(index.getRanked()), names(sorted));
+  }
+
+  private void assertRanking(PopularityIndex index, List<Warp> warps) {
+    List<String> expected = warps.stream().sorted(new Warp.PopularityComparator()).map(Warp::getName)
+        .collect(Collectors.toList());
+    assertEquals("Ranking of all warps", expected, names(index.getRanked()));
+
+    for (int i = 0; i < 20; i++) {
+      int limit = random.nextInt(expected.size() + 2);
+      assertEquals("Ranking of the first " + limit + " warps", expected.subList(0, Math.min(limit, expected.size())),
+                   names(Iterables.limit(index.getRanked(), limit)));
+    }
+  }
+
+  private List<Warp> randomWarps(int count) {
+    // half a day off the whole days counted by the scores, so scores do not change while the test runs
+    Instant start = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(Duration.ofHours(12));
+    List<Warp> ret = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      // few distinct values, so ties between scores and creation dates occur
+      ret.add(warp("warp" + warpCount++, start.minus(Duration.ofDays(1 + random.nextInt(10))), random.nextInt(10)));
+    }
+    return ret;
+  }
+
+  private static PopularityIndex index(List<Warp> warps) {
+    PopularityIndex index = new PopularityIndex();
+    warps.forEach(index::add);
+    return index;
+  }
+
+  private static Warp warp(String name, Instant creationDate, int visits) {
+    return new WarpBuilder(name, UUID.randomUUID(), UUID.randomUUID(), Vector3d.ZERO, new Vector2f(0, 0))
+        .setCreationDate(creationDate).setVisits(visits).build();
+  }
+
+  private static List<String> names(Iterable<Warp> warps) {
+    List<String> ret = new ArrayList<>();
+    warps.forEach(warp -> ret.add(warp.getName()));
+    return ret;
+  }
+}
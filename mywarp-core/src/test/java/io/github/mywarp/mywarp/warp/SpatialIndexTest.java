@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static org.junit.Assert.assertEquals;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the results of {@link SpatialIndex#getNearest(UUID, Vector3d, Predicate, int)} with a linear scan over all
+ * warps.
+ */
+public class SpatialIndexTest {
+
+  private static final UUID WORLD = UUID.randomUUID();
+  private static final UUID OTHER_WORLD = UUID.randomUUID();
+  private static final int CELL_SIZE = 64;
+
+  private final Random random = new Random(42);
+  private int warpCount;
+
+  @Test
+  public void nearestMatchesLinearScanForRandomWarps() {
+    List<Warp> warps = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      warps.add(warp(WORLD, randomCoordinate(2000), random.nextDouble() * 256, randomCoordinate(2000)));
+    }
+    SpatialIndex index = index(warps);
+
+    for (int i = 0; i < 200; i++) {
+      Vector3d point = new Vector3d(randomCoordinate(2500), random.nextDouble() * 256, randomCoordinate(2500));
+      assertNearest(index, warps, point, warp -> true, 1 + random.nextInt(20));
+    }
+  }
+
+  @Test
+  public void nearestMatchesLinearScanOnCellBoundaries() {
+    List<Warp> warps = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      warps.add(warp(WORLD, boundaryCoordinate(), 64, boundaryCoordinate()));
+    }
+    SpatialIndex index = index(warps);
+
+    for (int i = 0; i < 300; i++) {
+      Vector3d point = new Vector3d(boundaryCoordinate(), 64, boundaryCoordinate());
+      assertNearest(index, warps, point, warp -> true, 1 + random.nextInt(10));
+    }
+  }
+
+  @Test
+  public void nearestMatchesLinearScanForSparseWarps() {
+    // few warps spread over many cells, so most rings around the point are empty
+    List<Warp> warps = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      warps.add(warp(WORLD, randomCoordinate(100000), 64, randomCoordinate(100000)));
+    }
+    SpatialIndex index = index(warps);
+
+    for (int i = 0; i < 100; i++) {
+      Vector3d point = new Vector3d(randomCoordinate(100000), 64, randomCoordinate(100000));
+      assertNearest(index, warps, point, warp -> true, 1 + random.nextInt(12));
+    }
+  }
+
+  @Test
+  public void nearestOnlyReturnsWarpsThatFulfillTheFilter() {
+    List<Warp> warps = new ArrayList<>();
+    for (int i = 0; i < 400; i++) {
+      warps.add(warp(WORLD, randomCoordinate(1000), 64, randomCoordinate(1000)));
+      warps.add(warp(OTHER_WORLD, randomCoordinate(1000), 64, randomCoordinate(1000)));
+    }
+    SpatialIndex index = index(warps);
+    Predicate<Warp> filter = warp -> warp.getName().hashCode() % 3 == 0;
+
+    for (int i = 0; i < 100; i++) {
+      Vector3d point = new Vector3d(randomCoordinate(1200), 64, randomCoordinate(1200));
+      assertNearest(index, warps, point, filter, 1 + random.nextInt(15));
+    }
+  }
+
+  @Test
+  public void nearestIgnoresRemovedWarps() {
+    List<Warp> warps = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      warps.add(warp(WORLD, boundaryCoordinate(), 64, boundaryCoordinate()));
+    }
+    SpatialIndex index = index(warps);
+    List<Warp> remaining = new ArrayList<>();
+    for (Warp warp : warps) {
+      if (random.nextBoolean()) {
+        index.remove(warp.getWorldIdentifier(), warp.getPosition(), warp);
+      } else {
+        remaining.add(warp);
+      }
+    }
+
+    for (int i = 0; i < 100; i++) {
+      Vector3d point = new Vector3d(boundaryCoordinate(), 64, boundaryCoordinate());
+      assertNearest(index, remaining, point, warp -> true, 1 + random.nextInt(10));
+    }
+  }
+
+  private void assertNearest(SpatialIndex index, List<Warp> warps, Vector3d point, Predicate<Warp> filter,
+                             int count) {
+    List<Double> expected = warps.stream().filter(warp -> warp.getWorldIdentifier().equals(WORLD)).filter(filter)
+        .map(warp -> warp.getPosition().distanceSquared(point)).sorted(Comparator.naturalOrder()).limit(count)
+        .collect(Collectors.toList());
+    List<Warp> nearest = index.getNearest(WORLD, point, filter, count);
+    for (Warp warp : nearest) {
+      assertEquals(WORLD, warp.getWorldIdentifier());
+    }
+    // warps at the same distance may be returned in any order, so only the distances are compared
+    List<Double> actual = nearest.stream().map(warp -> warp.getPosition().distanceSquared(point))
+        .collect(Collectors.toList());
+    assertEquals("Nearest warps around " + point, expected, actual);
+  }
+
+  private double randomCoordinate(int bound) {
+    return (random.nextDouble() * 2 - 1) * bound;
+  }
+
+  /**
+   * Returns a coordinate on or right next to the edge of a cell.
+   */
+  private double boundaryCoordinate() {
+    double edge = (random.nextInt(20) - 10) * CELL_SIZE;
+    switch (random.nextInt(3)) {
+      case 0:
+        return edge;
+      case 1:
+        return edge - 0.001;
+      default:
+        return edge + 0.001;
+    }
+  }
+
+  private static SpatialIndex index(List<Warp> warps) {
+    SpatialIndex index = new SpatialIndex();
+    warps.forEach(index::add);
+    return index;
+  }
+
+  private Warp warp(UUID world, double x, double y, double z) {
+    return new WarpBuilder("warp" + warpCount++, UUID.randomUUID(), world, new Vector3d(x, y, z), new Vector2f(0, 0))
+        .build();
+  }
+}
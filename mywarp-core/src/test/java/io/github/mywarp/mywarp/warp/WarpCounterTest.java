@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2011 - 2017, MyWarp team and contributors
+ *
+ * This file is part of MyWarp.
+ *
+ * MyWarp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyWarp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyWarp. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.mywarp.mywarp.warp;
+
+import static org.junit.Assert.assertEquals;
+
+import com.flowpowered.math.vector.Vector2f;
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compares the results of {@link WarpCounter#count(UUID, Set, Set)} with a filter over all warps.
+ */
+public class WarpCounterTest {
+
+  private static final List<UUID> CREATORS = randomIds(5);
+  private static final List<UUID> WORLDS = randomIds(3);
+
+  private final Random random = new Random(42);
+  private int warpCount;
+
+  @Test
+  public void countMatchesFilterForRandomWarps() {
+    List<Warp> warps = randomWarps(500);
+    WarpCounter counter = new WarpCounter();
+    warps.forEach(counter::add);
+
+    assertCounts(counter, warps);
+  }
+
+  @Test
+  public void countIgnoresRemovedWarps() {
+    List<Warp> warps = randomWarps(500);
+    WarpCounter counter = new WarpCounter();
+    warps.forEach(counter::add);
+    List<Warp> remaining = new ArrayList<>();
+    for (Warp warp : warps) {
+      if (random.nextBoolean()) {
+        counter.remove(warp);
+      } else {
+        remaining.add(warp);
+      }
+    }
+
+    assertCounts(counter, remaining);
+  }
+
+  @Test
+  public void countIsZeroOnceAllWarpsAreRemoved() {
+    List<Warp> warps = randomWarps(100);
+    WarpCounter counter = new WarpCounter();
+    warps.forEach(counter::add);
+    warps.forEach(counter::remove);
+
+    assertCounts(counter, ImmutableList.of());
+  }
+
+  @Test
+  public void countIsZeroAfterClear() {
+    WarpCounter counter = new WarpCounter();
+    randomWarps(100).forEach(counter::add);
+    counter.clear();
+
+    assertCounts(counter, ImmutableList.of());
+  }
+
+  private void assertCounts(WarpCounter counter, List<Warp> warps) {
+    List<Set<UUID>> worldSets = ImmutableList.of(ImmutableSet.of(), ImmutableSet.of(WORLDS.get(0)),
+                                                 ImmutableSet.of(WORLDS.get(1), WORLDS.get(2)),
+                                                 ImmutableSet.copyOf(WORLDS), ImmutableSet.of(UUID.randomUUID()));
+    List<Set<Warp.Type>> typeSets = ImmutableList.of(EnumSet.noneOf(Warp.Type.class), EnumSet.of(Warp.Type.PRIVATE),
+                                                     EnumSet.of(Warp.Type.PUBLIC), EnumSet.allOf(Warp.Type.class));
+    List<UUID> creators = new ArrayList<>(CREATORS);
+    creators.add(UUID.randomUUID());
+
+    for (UUID creator : creators) {
+      for (Set<UUID> worlds : worldSets) {
+        for (Set<Warp.Type> types : typeSets) {
+          long expected = warps.stream().filter(warp -> warp.isCreator(creator))
+              .filter(warp -> worlds.isEmpty() || worlds.contains(warp.getWorldIdentifier()))
+              .filter(warp -> types.isEmpty() || types.contains(warp.getType())).count();
+          assertEquals("Warps of " + creator + " on " + worlds + " with " + types, (int) expected,
+                       counter.count(creator, worlds, types));
+        }
+      }
+    }
+  }
+
+  private List<Warp> randomWarps(int count) {
+    List<Warp> ret = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ret.add(new WarpBuilder("warp" + warpCount++, CREATORS.get(random.nextInt(CREATORS.size())),
+                              WORLDS.get(random.nextInt(WORLDS.size())), Vector3d.ZERO, new Vector2f(0, 0))
+                  .setType(random.nextBoolean() ? Warp.Type.PUBLIC : Warp.Type.PRIVATE).build());
+    }
+    return ret;
+  }
+
+  private static List<UUID> randomIds(int count) {
+    List<UUID> ret = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ret.add(UUID.randomUUID());
+    }
+    return ret;
+  }
+}